@@ -0,0 +1,172 @@
+package Benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import Hashing.BucketizedCuckooHashMap;
+import Hashing.ChainedHashMap;
+import Hashing.ConcurrentChainedHashMap;
+import Hashing.ConcurrentCuckooHashTable;
+import Hashing.CuckooHashMap;
+import Hashing.CuckooHashTable;
+import Hashing.DoubleHashMap;
+import Hashing.HashStrategy;
+import Hashing.HopscotchHashMap;
+import Hashing.IntIntHashMap;
+import Hashing.LinearHashMap;
+import Hashing.OffHeapArena;
+import Hashing.OffHeapIntIntHashMap;
+import Hashing.RobinHoodHashMap;
+import Hashing.SplitOrderedHashMap;
+import Hashing.SwissHashMap;
+
+/**
+ * Throughput of every map under every hash strategy, for sequential,
+ * strided and random int keys.
+ *
+ * Each cell is the best of a few rounds of n puts followed by n gets, in
+ * million operations per second. A map that fails or exceeds the time limit
+ * for a round prints "fail".
+ *
+ * usage: java Benchmarks.HashStrategyBenchmark [n] [rounds]
+ */
+public class HashStrategyBenchmark {
+	// a round slower than this is reported as failed instead of being waited for
+	private static final long ROUND_LIMIT_NANOS = 20_000_000_000L;
+
+	private interface IntMap {
+		void put(int key, int value) throws Exception;
+		int get(int key) throws Exception;
+	}
+
+	private interface Factory {
+		IntMap create(HashStrategy strategy, int n);
+	}
+
+	public static void main(String[] args) throws Exception {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 16;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+		Map<String, HashStrategy> strategies = new LinkedHashMap<>();
+		strategies.put("identity", HashStrategy.IDENTITY);
+		strategies.put("fibonacci", HashStrategy.FIBONACCI);
+		strategies.put("murmur3", HashStrategy.MURMUR3);
+		strategies.put("xxhash", HashStrategy.XXHASH);
+		strategies.put("murmur3-seeded", HashStrategy.randomized());
+
+		Map<String, int[]> keySets = new LinkedHashMap<>();
+		int[] sequential = new int[n], strided = new int[n], random = new int[n];
+		Random rnd = new Random(261);
+		for (int i = 0; i < n; i++) {
+			sequential[i] = i;
+			strided[i] = i << 10;
+			random[i] = rnd.nextInt() & 0x7FFFFFFF;
+		}
+		keySets.put("sequential", sequential);
+		keySets.put("strided", strided);
+		keySets.put("random", random);
+
+		OffHeapArena arena = new OffHeapArena();
+		Map<String, Factory> maps = new LinkedHashMap<>();
+		maps.put("LinearHashMap", (s, size) -> {
+			LinearHashMap m = new LinearHashMap(2 * size, s);
+			return wrap(m::put, m::get);
+		});
+		maps.put("IntIntHashMap", (s, size) -> {
+			IntIntHashMap m = new IntIntHashMap(16, 0.75f, -1, s);
+			return wrap(m::put, m::get);
+		});
+		maps.put("OffHeapIntIntHashMap", (s, size) -> {
+			OffHeapIntIntHashMap m = new OffHeapIntIntHashMap(arena, 16, 0.75f, -1, s);
+			return wrap(m::put, m::get);
+		});
+		maps.put("ChainedHashMap", (s, size) -> boxed(new ChainedHashMap<Integer,Integer>(s)));
+		maps.put("DoubleHashMap", (s, size) -> boxed(new DoubleHashMap<Integer,Integer>(s)));
+		maps.put("CuckooHashMap", (s, size) -> boxed(new CuckooHashMap<Integer,Integer>(10, s)));
+		maps.put("CuckooHashTable", (s, size) -> {
+			CuckooHashTable<Integer,Integer> m = new CuckooHashTable<>(22, s);
+			return wrap(m::put, m::get);
+		});
+		maps.put("RobinHoodHashMap", (s, size) -> boxed(new RobinHoodHashMap<Integer,Integer>(16, 0.9f, s)));
+		maps.put("SwissHashMap", (s, size) -> boxed(new SwissHashMap<Integer,Integer>(16, s)));
+		maps.put("HopscotchHashMap", (s, size) -> boxed(new HopscotchHashMap<Integer,Integer>(64, 0.9f, s)));
+		maps.put("BucketizedCuckooHashMap", (s, size) -> boxed(new BucketizedCuckooHashMap<Integer,Integer>(16, s)));
+		maps.put("ConcurrentChainedHashMap", (s, size) -> boxed(new ConcurrentChainedHashMap<Integer,Integer>(16, s)));
+		maps.put("ConcurrentCuckooHashTable", (s, size) -> {
+			ConcurrentCuckooHashTable<Integer,Integer> m = new ConcurrentCuckooHashTable<>(16, 256, s);
+			return wrap(m::put, m::get);
+		});
+		maps.put("SplitOrderedHashMap", (s, size) -> boxed(new SplitOrderedHashMap<Integer,Integer>(s)));
+
+		System.out.println("n = " + n + ", best of " + rounds + " rounds, Mops/s for " + n + " puts then " + n + " gets");
+		for (Map.Entry<String, int[]> keys : keySets.entrySet()) {
+			System.out.println();
+			System.out.printf("%-26s", keys.getKey() + " keys");
+			for (String s : strategies.keySet())
+				System.out.printf("%16s", s);
+			System.out.println();
+			for (Map.Entry<String, Factory> map : maps.entrySet()) {
+				System.out.printf("%-26s", map.getKey());
+				for (HashStrategy s : strategies.values()) {
+					double best = 0;
+					for (int r = 0; r < rounds && best >= 0; r++) {
+						double result = run(map.getValue(), s, keys.getValue());
+						best = result < 0 ? result : Math.max(best, result);
+					}
+					System.out.printf("%16s", best < 0 ? "fail" : String.format("%.2f", best));
+				}
+				System.out.println();
+			}
+		}
+		arena.close();
+	}
+
+	private interface Put {
+		void put(int key, int value) throws Exception;
+	}
+
+	private interface Get {
+		int get(int key) throws Exception;
+	}
+
+	private static IntMap wrap(Put put, Get get) {
+		return new IntMap() {
+			public void put(int key, int value) throws Exception {
+				put.put(key, value);
+			}
+
+			public int get(int key) throws Exception {
+				return get.get(key);
+			}
+		};
+	}
+
+	private static IntMap boxed(Hashing.Map<Integer,Integer> m) {
+		return wrap(m::put, m::get);
+	}
+
+	/**
+	 * @return million operations per second, or -1 if the map failed
+	 */
+	private static double run(Factory factory, HashStrategy strategy, int[] keys) {
+		long sink = 0;
+		long start = System.nanoTime();
+		try {
+			IntMap map = factory.create(strategy, keys.length);
+			for (int i = 0; i < keys.length; i++) {
+				map.put(keys[i], i);
+				if ((i & 1023) == 0 && System.nanoTime() - start > ROUND_LIMIT_NANOS)
+					return -1;
+			}
+			for (int i = 0; i < keys.length; i++)
+				sink += map.get(keys[i]);
+		} catch (Throwable e) {
+			return -1;
+		}
+		long elapsed = System.nanoTime() - start;
+		if (sink != (long) keys.length * (keys.length - 1) / 2)
+			return -1;
+		return 2.0 * keys.length * 1000 / elapsed;
+	}
+}
@@ -0,0 +1,404 @@
+package Benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import Hashing.ChainedHashMap;
+import Hashing.CuckooHashMap;
+import Hashing.CuckooHashTable;
+import Hashing.DoubleHashMap;
+import Hashing.LinearHashMap;
+
+/**
+ * Insert and lookup benchmark over every combination of implementation,
+ * table size, load factor, hit ratio and key distribution.
+ *
+ * Each combination runs in its own JVM, so code the JIT compiled for one
+ * map does not slow down the next. A run has warmup iterations whose results
+ * are dropped, then measured iterations of a fixed length. Put throughput is
+ * building a map of size * load keys from empty, over and over; get throughput
+ * is cycling through a precomputed query stream on a built map, hits calling
+ * get and misses calling contains. Every result is summed into a sink that is
+ * published through a volatile field, so the JIT cannot drop the work. After
+ * the throughput iterations every put of one build and every query of one
+ * pass over the stream is timed alone for the latency percentiles; each of
+ * those samples includes the cost of one System.nanoTime call.
+ *
+ * Maps that take a capacity are given size slots, so they run at the
+ * requested load. ChainedHashMap and DoubleHashMap start at their default size
+ * and grow under their own policy, so for them size and load only set the
+ * number of keys.
+ *
+ * Distributions: uniform random keys; sequential keys 0..n-1; strided keys
+ * i << 10, whose low bits are all zero; zipf, uniform random keys with
+ * lookups drawn from a Zipf(0.99) popularity.
+ *
+ * usage: java Benchmarks.MapBenchmark [name=v1,v2,...]...
+ *   impl, size, load, hit, dist      parameters, every combination is run
+ *   forks                            JVMs per combination, 0 runs in this one
+ *   warmup, iterations, time         iteration counts and milliseconds per iteration
+ */
+public class MapBenchmark {
+	private static final String CHILD = "--child";
+	private static final String RESULT = "RESULT";
+	private static final int QUERIES = 1 << 16;
+	private static final double ZIPF_EXPONENT = 0.99;
+	private static final double[] PERCENTILES = { 0.5, 0.99, 0.999 };
+
+	// written once per iteration so the summed results are observably used
+	private static volatile long blackhole;
+
+	private interface Target {
+		void put(int key, int value) throws Exception;
+		int get(int key) throws Exception;
+		boolean contains(int key);
+		int size();
+	}
+
+	private interface Factory {
+		Target create(int slots);
+	}
+
+	private static final Map<String, Factory> IMPLEMENTATIONS = new LinkedHashMap<>();
+	static {
+		IMPLEMENTATIONS.put("LinearHashMap", slots -> {
+			LinearHashMap m = new LinearHashMap(slots);
+			return target(m::put, m::get, m::contains, m::size);
+		});
+		IMPLEMENTATIONS.put("ChainedHashMap", slots -> boxed(new ChainedHashMap<Integer,Integer>()));
+		IMPLEMENTATIONS.put("DoubleHashMap", slots -> boxed(new DoubleHashMap<Integer,Integer>()));
+		IMPLEMENTATIONS.put("CuckooHashMap", slots -> boxed(new CuckooHashMap<Integer,Integer>(slots / 2)));
+		IMPLEMENTATIONS.put("CuckooHashTable", slots -> {
+			CuckooHashTable<Integer,Integer> m = new CuckooHashTable<>(slots);
+			return target(m::put, m::get, m::containsKey, m::size);
+		});
+		IMPLEMENTATIONS.put("HashMap", slots -> {
+			HashMap<Integer,Integer> m = new HashMap<>(slots);
+			return target(m::put, m::get, m::containsKey, m::size);
+		});
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length > 0 && args[0].equals(CHILD)) {
+			runChild(parse(Arrays.copyOfRange(args, 1, args.length)));
+			return;
+		}
+		Map<String, String> options = new LinkedHashMap<>();
+		options.put("impl", String.join(",", IMPLEMENTATIONS.keySet()));
+		options.put("size", "1024,65536");
+		options.put("load", "0.25,0.5,0.75");
+		options.put("hit", "1.0,0.5");
+		options.put("dist", "uniform,sequential,strided,zipf");
+		options.put("forks", "1");
+		options.put("warmup", "3");
+		options.put("iterations", "5");
+		options.put("time", "200");
+		options.putAll(parse(args));
+		for (String impl : options.get("impl").split(","))
+			if (!IMPLEMENTATIONS.containsKey(impl))
+				throw new IllegalArgumentException("unknown impl " + impl + ", expected one of " + IMPLEMENTATIONS.keySet());
+
+		int forks = Integer.parseInt(options.get("forks"));
+		System.out.println("forks " + forks + ", " + options.get("warmup") + " warmup and " + options.get("iterations")
+				+ " measured iterations of " + options.get("time") + " ms; throughput in Mops/s, latency in ns");
+		System.out.printf("%-16s%9s%6s%5s%12s%18s%18s%10s%10s%10s%10s%10s%n", "impl", "size", "load", "hit", "dist",
+				"put", "get", "get p50", "get p99", "get p99.9", "put p99.9", "put max");
+		for (String impl : options.get("impl").split(","))
+			for (String size : options.get("size").split(","))
+				for (String load : options.get("load").split(","))
+					for (String hit : options.get("hit").split(","))
+						for (String dist : options.get("dist").split(",")) {
+							Map<String, String> run = new LinkedHashMap<>(options);
+							run.put("impl", impl);
+							run.put("size", size);
+							run.put("load", load);
+							run.put("hit", hit);
+							run.put("dist", dist);
+							System.out.printf("%-16s%9s%6s%5s%12s", impl, size, load, hit, dist);
+							List<double[]> results = new ArrayList<>();
+							for (int f = 0; f < Math.max(forks, 1); f++) {
+								double[] result = forks == 0 ? measure(run) : fork(run);
+								if (result == null) {
+									results = null;
+									break;
+								}
+								results.add(result);
+							}
+							System.out.println(results == null ? "  fail" : format(results, Integer.parseInt(options.get("iterations"))));
+						}
+	}
+
+	/**
+	 * Result layout: iterations put scores, iterations get scores, then the
+	 * get percentiles, the put p99.9 and the put maximum.
+	 */
+	private static double[] measure(Map<String, String> options) throws Exception {
+		Factory factory = IMPLEMENTATIONS.get(options.get("impl"));
+		int slots = Integer.parseInt(options.get("size"));
+		double load = Double.parseDouble(options.get("load"));
+		double hit = Double.parseDouble(options.get("hit"));
+		int warmup = Integer.parseInt(options.get("warmup"));
+		int iterations = Integer.parseInt(options.get("iterations"));
+		long time = Long.parseLong(options.get("time")) * 1_000_000L;
+		if (!(load > 0 && load < 1) || !(hit >= 0 && hit <= 1) || slots < 2 || iterations < 1)
+			throw new IllegalArgumentException("need size >= 2, 0 < load < 1, 0 <= hit <= 1 and iterations >= 1");
+
+		Random rnd = new Random(261);
+		int n = Math.max(1, (int) (slots * load));
+		int[][] keys = keys(options.get("dist"), n, rnd);
+		int[] present = keys[0], absent = keys[1];
+		int[] queries = new int[QUERIES];
+		boolean[] hits = new boolean[QUERIES];
+		double[] zipf = options.get("dist").equals("zipf") ? zipfCdf(n) : null;
+		for (int q = 0; q < QUERIES; q++) {
+			hits[q] = rnd.nextDouble() < hit;
+			if (!hits[q])
+				queries[q] = absent[rnd.nextInt(n)];
+			else if (zipf == null)
+				queries[q] = present[rnd.nextInt(n)];
+			else {
+				// present is shuffled, so rank order does not follow key order
+				int rank = Arrays.binarySearch(zipf, rnd.nextDouble());
+				queries[q] = present[Math.min(rank < 0 ? -rank - 1 : rank, n - 1)];
+			}
+		}
+
+		double[] result = new double[2 * iterations + PERCENTILES.length + 2];
+		for (int i = -warmup; i < iterations; i++) {
+			long ops = 0, sink = 0, start = System.nanoTime(), elapsed;
+			do {
+				Target map = factory.create(slots);
+				for (int k = 0; k < n; k++)
+					map.put(present[k], k);
+				sink += map.size();
+				ops += n;
+			} while ((elapsed = System.nanoTime() - start) < time);
+			blackhole = sink;
+			if (i >= 0)
+				result[i] = ops * 1000.0 / elapsed;
+		}
+
+		Target map = factory.create(slots);
+		for (int k = 0; k < n; k++)
+			map.put(present[k], k);
+		for (int k = 0; k < n; k++)
+			if (map.get(present[k]) != k)
+				throw new IllegalStateException(options.get("impl") + " lost key " + present[k]);
+		for (int i = -warmup; i < iterations; i++) {
+			long ops = 0, sink = 0, start = System.nanoTime(), elapsed;
+			do {
+				for (int q = 0; q < QUERIES; q++)
+					sink += hits[q] ? map.get(queries[q]) : map.contains(queries[q]) ? 1 : 0;
+				ops += QUERIES;
+			} while ((elapsed = System.nanoTime() - start) < time);
+			blackhole = sink;
+			if (i >= 0)
+				result[iterations + i] = ops * 1000.0 / elapsed;
+		}
+
+		long sink = 0;
+		long[] samples = new long[QUERIES];
+		for (int q = 0; q < QUERIES; q++) {
+			long start = System.nanoTime();
+			sink += hits[q] ? map.get(queries[q]) : map.contains(queries[q]) ? 1 : 0;
+			samples[q] = System.nanoTime() - start;
+		}
+		Arrays.sort(samples);
+		for (int p = 0; p < PERCENTILES.length; p++)
+			result[2 * iterations + p] = percentile(samples, PERCENTILES[p]);
+		samples = new long[n];
+		Target fresh = factory.create(slots);
+		for (int k = 0; k < n; k++) {
+			long start = System.nanoTime();
+			fresh.put(present[k], k);
+			samples[k] = System.nanoTime() - start;
+		}
+		blackhole = sink + fresh.size();
+		Arrays.sort(samples);
+		result[result.length - 2] = percentile(samples, 0.999);
+		result[result.length - 1] = samples[n - 1];
+		return result;
+	}
+
+	/**
+	 * @return n distinct keys to insert and n distinct keys that are absent
+	 */
+	private static int[][] keys(String dist, int n, Random rnd) {
+		int[] present = new int[n], absent = new int[n];
+		switch (dist) {
+		case "sequential":
+			for (int i = 0; i < n; i++) {
+				present[i] = i;
+				absent[i] = n + i;
+			}
+			break;
+		case "strided":
+			for (int i = 0; i < n; i++) {
+				present[i] = i << 10;
+				absent[i] = (n + i) << 10;
+			}
+			break;
+		case "uniform":
+		case "zipf":
+			Set<Integer> seen = new HashSet<>();
+			for (int i = 0; i < 2 * n; i++) {
+				int key;
+				do
+					key = rnd.nextInt();
+				while (!seen.add(key));
+				if (i < n)
+					present[i] = key;
+				else
+					absent[i - n] = key;
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("unknown dist " + dist + ", expected uniform, sequential, strided or zipf");
+		}
+		// insert in random order so sequential keys do not flatter the maps that keep them in order
+		for (int i = n - 1; i > 0; i--) {
+			int j = rnd.nextInt(i + 1), tmp = present[i];
+			present[i] = present[j];
+			present[j] = tmp;
+		}
+		return new int[][] { present, absent };
+	}
+
+	private static double[] zipfCdf(int n) {
+		double[] cdf = new double[n];
+		double total = 0;
+		for (int r = 0; r < n; r++)
+			cdf[r] = total += 1 / Math.pow(r + 1, ZIPF_EXPONENT);
+		for (int r = 0; r < n; r++)
+			cdf[r] /= total;
+		return cdf;
+	}
+
+	private static long percentile(long[] sorted, double p) {
+		return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+	}
+
+	/**
+	 * Runs one combination in a new JVM with this JVM's flags.
+	 *
+	 * @return its result, or null if it failed
+	 */
+	private static double[] fork(Map<String, String> options) throws Exception {
+		List<String> command = new ArrayList<>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(MapBenchmark.class.getName());
+		command.add(CHILD);
+		for (Map.Entry<String, String> option : options.entrySet())
+			command.add(option.getKey() + "=" + option.getValue());
+		Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+		double[] result = null;
+		try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+			for (String line; (line = out.readLine()) != null;) {
+				if (line.startsWith(RESULT))
+					result = Arrays.stream(line.substring(RESULT.length()).trim().split(" ")).mapToDouble(Double::parseDouble).toArray();
+			}
+		}
+		return process.waitFor() == 0 ? result : null;
+	}
+
+	private static void runChild(Map<String, String> options) throws Exception {
+		StringBuilder line = new StringBuilder(RESULT);
+		for (double value : measure(options))
+			line.append(' ').append(value);
+		System.out.println(line);
+	}
+
+	/**
+	 * Throughput as the mean and standard deviation over the measured
+	 * iterations of every fork, latencies as the mean over forks.
+	 */
+	private static String format(List<double[]> results, int iterations) {
+		StringBuilder row = new StringBuilder();
+		for (int phase = 0; phase < 2; phase++) {
+			double sum = 0, squares = 0;
+			int count = 0;
+			for (double[] result : results)
+				for (int i = 0; i < iterations; i++) {
+					double score = result[phase * iterations + i];
+					sum += score;
+					squares += score * score;
+					count++;
+				}
+			double mean = sum / count;
+			double sd = Math.sqrt(Math.max(0, squares / count - mean * mean));
+			row.append(String.format("%18s", String.format("%.2f +- %.2f", mean, sd)));
+		}
+		for (int c = 2 * iterations; c < results.get(0).length; c++) {
+			double sum = 0;
+			for (double[] result : results)
+				sum += result[c];
+			row.append(String.format("%10.0f", sum / results.size()));
+		}
+		return row.toString();
+	}
+
+	private static Map<String, String> parse(String[] args) {
+		Map<String, String> options = new LinkedHashMap<>();
+		for (String arg : args) {
+			int eq = arg.indexOf('=');
+			if (eq <= 0)
+				throw new IllegalArgumentException("expected name=value, got " + arg);
+			options.put(arg.substring(0, eq), arg.substring(eq + 1));
+		}
+		return options;
+	}
+
+	private interface Put {
+		void put(int key, int value) throws Exception;
+	}
+
+	private interface Get {
+		int get(int key) throws Exception;
+	}
+
+	private interface Contains {
+		boolean contains(int key);
+	}
+
+	private interface Size {
+		int size();
+	}
+
+	private static Target target(Put put, Get get, Contains contains, Size size) {
+		return new Target() {
+			public void put(int key, int value) throws Exception {
+				put.put(key, value);
+			}
+
+			public int get(int key) throws Exception {
+				return get.get(key);
+			}
+
+			public boolean contains(int key) {
+				return contains.contains(key);
+			}
+
+			public int size() {
+				return size.size();
+			}
+		};
+	}
+
+	private static Target boxed(Hashing.Map<Integer,Integer> m) {
+		return target(m::put, m::get, m::containsKey, m::size);
+	}
+}
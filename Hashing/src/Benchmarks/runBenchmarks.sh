@@ -0,0 +1,15 @@
+#!/bin/bash
+# Compiles the sources and runs a benchmark, by default MapBenchmark.
+# usage: ./runBenchmarks.sh [class] [name=value ...]
+#   e.g. ./runBenchmarks.sh impl=LinearHashMap,HashMap size=65536 forks=2
+
+cd "$(dirname "$0")/.."
+OUT=$(mktemp -d)
+trap 'rm -rf "$OUT"' EXIT
+javac -nowarn -d "$OUT" $(find . -name '*.java') || exit 1
+CLASS=MapBenchmark
+if [ $# -gt 0 ] && [[ "$1" != *=* ]]; then
+  CLASS=$1
+  shift
+fi
+java -cp "$OUT" Benchmarks.$CLASS "$@"
@@ -0,0 +1,63 @@
+package ChainedHashMapTestCases;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import Hashing.ChainedHashMap;
+import LinearHashMapTestCases.Utilities;
+
+public class chmtest09 {
+	public static void main(String[] args) {
+		
+		System.out.println("Starting test case 09 for incremental resizing while adding and removing keys");
+		String fileName = "/src/LinearHashMapTestCases/testInput10.txt";
+		Map<Integer,Integer> omap = Utilities.populateOriginalHashMap(fileName);
+		ChainedHashMap<Integer,Integer> map = Utilities.populateMap(fileName, new ChainedHashMap<Integer,Integer>(true));
+		
+		// worst single put, the full rehash shows up here when incremental mode is off
+		long worstFull = worstPut(new ChainedHashMap<Integer,Integer>(), omap);
+		long worstIncremental = worstPut(new ChainedHashMap<Integer,Integer>(true), omap);
+		System.out.println("Worst put with full resize:" + worstFull + " nano secs");
+		System.out.println("Worst put with incremental resize:" + worstIncremental + " nano secs");
+		
+		// stop right after a resize starts: keys are found in either table while
+		// chains are moving, and lookups alone finish the move
+		ChainedHashMap<Integer,Integer> moving = new ChainedHashMap<Integer,Integer>(true);
+		Map<Integer,Integer> added = new HashMap<Integer,Integer>();
+		for(Map.Entry<Integer, Integer> entry: omap.entrySet()) {
+			moving.put(entry.getKey(), entry.getValue());
+			added.put(entry.getKey(), entry.getValue());
+			if(moving.isRehashing() && added.size() > 1000)
+				break;
+		}
+		boolean migrated = moving.isRehashing() && Utilities.compare(moving, added);
+		for(int i = 0; moving.isRehashing() && i < (1 << 20); i++)
+			moving.containsKey(-1);
+		migrated &= !moving.isRehashing() && Utilities.compare(moving, added) && moving.keySet().size() == added.size();
+		
+		// removing most keys shrinks the table while old chains are still being moved
+		int removed = 0;
+		for(Integer key: omap.keySet().toArray(new Integer[0])) {
+			if(removed++ % 8 != 0) {
+				map.remove(key);
+				omap.remove(key);
+			}
+		}
+		boolean missing = map.remove(40000) == null && !map.containsKey(40000);
+		
+		if(migrated && missing && Utilities.compare(map,omap) && map.keySet().size() == omap.size())
+			System.out.println("Testcase 09 successfully completed.");
+		else
+			System.out.println("Testcase 09 failed.");
+	}
+	
+	private static long worstPut(ChainedHashMap<Integer,Integer> map, Map<Integer,Integer> omap) {
+		long worst = 0;
+		for(Map.Entry<Integer, Integer> entry: omap.entrySet()) {
+			long startTime = System.nanoTime();
+			map.put(entry.getKey(), entry.getValue());
+			worst = Math.max(worst, System.nanoTime() - startTime);
+		}
+		return worst;
+	}
+}
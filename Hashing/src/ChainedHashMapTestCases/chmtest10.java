@@ -0,0 +1,38 @@
+package ChainedHashMapTestCases;
+
+import java.util.Map;
+
+import Hashing.ArrayChainedHashMap;
+import LinearHashMapTestCases.Utilities;
+
+public class chmtest10 {
+	public static void main(String[] args) {
+		
+		System.out.println("Starting test case 10 for the array backed chained map under remove and put churn");
+		String fileName = "/src/LinearHashMapTestCases/testInput10.txt";
+		Map<Integer,Integer> omap = Utilities.populateOriginalHashMap(fileName);
+		ArrayChainedHashMap<Integer,Integer> map = Utilities.populateMap(fileName, new ArrayChainedHashMap<Integer,Integer>());
+		boolean ok = Utilities.compare(map,omap);
+		
+		// removed nodes are reused, so the node arrays keep their size
+		int nodes = map.nodeCapacity();
+		Integer[] keys = omap.keySet().toArray(new Integer[0]);
+		long startTime = System.nanoTime();
+		for(int round = 0; round < 4; round++) {
+			for(int i = round % 2; i < keys.length; i += 2)
+				map.remove(keys[i]);
+			for(int i = round % 2; i < keys.length; i += 2)
+				map.put(keys[i], omap.get(keys[i]) + round);
+		}
+		System.out.println("Execution Time for churn:" + (System.nanoTime() - startTime) + " nano secs");
+		for(int i = 0; i < keys.length; i++)
+			omap.put(keys[i], omap.get(keys[i]) + (i % 2 == 0 ? 2 : 3));
+		ok &= map.nodeCapacity() == nodes;
+		ok &= map.remove(-1) == null && !map.containsKey(-1);
+		
+		if(ok && Utilities.compare(map,omap) && map.keySet().size() == omap.size())
+			System.out.println("Testcase 10 successfully completed.");
+		else
+			System.out.println("Testcase 10 failed.");
+	}
+}
@@ -0,0 +1,63 @@
+package ChainedHashMapTestCases;
+
+import java.util.HashMap;
+
+import Hashing.ChainedHashMap;
+import Hashing.HashStrategy;
+import LinearHashMapTestCases.Utilities;
+
+public class chmtest11 {
+	// every key lands in the same bucket and has the same hash
+	static class CollidingKey {
+		final int id;
+		CollidingKey(int id) {
+			this.id = id;
+		}
+		@Override
+		public int hashCode() {
+			return 42;
+		}
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+		}
+	}
+	
+	public static void main(String[] args) {
+		
+		System.out.println("Starting test case 11 for treeified buckets under colliding keys");
+		// with the identity hash, multiples of 2^20 all fall into bucket 0 until the table reaches 2^20 buckets
+		ChainedHashMap<Integer,Integer> map = new ChainedHashMap<>(HashStrategy.IDENTITY);
+		HashMap<Integer,Integer> hmap = new HashMap<>();
+		long startTime = System.nanoTime();
+		for(int i = 0; i < 20000; i++) {
+			map.put(i << 20, i);
+			hmap.put(i << 20, i);
+		}
+		System.out.println("Execution Time for adding colliding keys:" + (System.nanoTime() - startTime) + " nano secs");
+		boolean ok = Utilities.compare(map,hmap);
+		
+		// shrinking the bucket back below the threshold turns it into a chain again
+		for(int i = 10; i < 20000; i++) {
+			map.remove(i << 20);
+			hmap.remove(i << 20);
+		}
+		ok &= Utilities.compare(map,hmap) && map.keySet().size() == hmap.size();
+		
+		ChainedHashMap<CollidingKey,Integer> same = new ChainedHashMap<>();
+		startTime = System.nanoTime();
+		for(int i = 0; i < 2000; i++)
+			same.put(new CollidingKey(i), i);
+		for(int i = 0; i < 2000; i += 2)
+			same.remove(new CollidingKey(i));
+		for(int i = 0; i < 2000; i++)
+			ok &= same.containsKey(new CollidingKey(i)) == (i % 2 == 1);
+		System.out.println("Execution Time for keys with equal hashes:" + (System.nanoTime() - startTime) + " nano secs");
+		ok &= same.size() == 1000 && (Integer) same.get(new CollidingKey(1999)) == 1999;
+		
+		if(ok)
+			System.out.println("Testcase 11 successfully completed.");
+		else
+			System.out.println("Testcase 11 failed.");
+	}
+}
@@ -0,0 +1,72 @@
+package ChainedHashMapTestCases;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import Hashing.ArrayChainedHashMap;
+import Hashing.ChainedHashMap;
+import Hashing.CuckooHashMap;
+import Hashing.DoubleHashMap;
+import LinearHashMapTestCases.BulkLoader;
+import LinearHashMapTestCases.Utilities;
+
+public class chmtest12 {
+	public static void main(String[] args) throws Exception {
+		
+		System.out.println("Starting test case 12 for batched putAll, getAll and removeAll");
+		String fileName = "/src/LinearHashMapTestCases/testInput10.txt";
+		Map<Integer,Integer> omap = Utilities.populateOriginalHashMap(fileName);
+		BulkLoader.Pairs pairs = BulkLoader.read(fileName);
+		Integer[] keys = new Integer[pairs.count];
+		Integer[] values = new Integer[pairs.count];
+		for(int i = 0; i < pairs.count; i++) {
+			keys[i] = pairs.keys[i];
+			values[i] = pairs.values[i];
+		}
+		
+		boolean ok = true;
+		Hashing.Map<Integer,Integer>[] maps = new Hashing.Map[] {
+				new ChainedHashMap<Integer,Integer>(), new ArrayChainedHashMap<Integer,Integer>(), new DoubleHashMap<Integer,Integer>() };
+		for(Hashing.Map<Integer,Integer> map: maps) {
+			long startTime = System.nanoTime();
+			map.putAll(keys, values);
+			System.out.println(map.getClass().getSimpleName() + " putAll:" + (System.nanoTime() - startTime) + " nano secs");
+			ok &= Utilities.compare(map, omap);
+			
+			Integer[] unique = omap.keySet().toArray(new Integer[0]);
+			Integer[] out = new Integer[unique.length];
+			map.getAll(unique, out);
+			for(int i = 0; i < unique.length; i++)
+				ok &= out[i].equals(omap.get(unique[i]));
+			
+			// removing three quarters of the keys shrinks the table once, at the end;
+			// an absent key in the batch is skipped, not an error
+			Integer[] gone = new Integer[unique.length * 3 / 4];
+			System.arraycopy(unique, 0, gone, 0, gone.length);
+			Integer[] batch = Arrays.copyOf(gone, gone.length + 1);
+			batch[gone.length] = Integer.MIN_VALUE;
+			ok &= !omap.containsKey(Integer.MIN_VALUE) && map.removeAll(batch) == gone.length;
+			ok &= map.size() == unique.length - gone.length;
+			for(int i = 0; i < unique.length; i++)
+				ok &= map.containsKey(unique[i]) == (i >= gone.length);
+		}
+		
+		// putAll sizes a cuckoo map for its two tables, ending up as large as puts one by one would
+		Integer[] unique = omap.keySet().toArray(new Integer[0]);
+		Integer[] uniqueValues = new Integer[unique.length];
+		for(int i = 0; i < unique.length; i++)
+			uniqueValues[i] = omap.get(unique[i]);
+		CuckooHashMap<Integer,Integer> bulk = new CuckooHashMap<>(), single = new CuckooHashMap<>();
+		bulk.trackStats(true);
+		single.trackStats(true);
+		bulk.putAll(unique, uniqueValues);
+		for(int i = 0; i < unique.length; i++)
+			single.put(unique[i], uniqueValues[i]);
+		ok &= bulk.stats().capacity() == single.stats().capacity() && Utilities.compare(bulk, omap);
+		
+		if(ok)
+			System.out.println("Testcase 12 successfully completed.");
+		else
+			System.out.println("Testcase 12 failed.");
+	}
+}
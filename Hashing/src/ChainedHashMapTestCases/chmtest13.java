@@ -0,0 +1,55 @@
+package ChainedHashMapTestCases;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import Hashing.ChainedHashMap;
+import Hashing.CuckooHashMap;
+import LinearHashMapTestCases.Utilities;
+
+public class chmtest13 {
+	public static void main(String[] args) {
+		
+		System.out.println("Starting test case 13 for parallel resizing of large tables");
+		ForkJoinPool pool = new ForkJoinPool();
+		HashMap<Integer,Integer> hmap = new HashMap<>();
+		ChainedHashMap<Integer,Integer> sequential = new ChainedHashMap<>();
+		ChainedHashMap<Integer,Integer> parallel = new ChainedHashMap<>();
+		parallel.setResizePool(pool);
+		CuckooHashMap<Integer,Integer> cuckoo = new CuckooHashMap<>();
+		cuckoo.setResizePool(pool);
+		Random rnd = new Random(261);
+		int[] keys = new int[300000];
+		for(int i = 0; i < keys.length; i++) {
+			keys[i] = rnd.nextInt();
+			hmap.put(keys[i], i);
+		}
+		
+		long startTime = System.nanoTime();
+		for(int i = 0; i < keys.length; i++)
+			sequential.put(keys[i], i);
+		System.out.println("Execution Time for adding with sequential resize:" + (System.nanoTime() - startTime) + " nano secs");
+		startTime = System.nanoTime();
+		for(int i = 0; i < keys.length; i++)
+			parallel.put(keys[i], i);
+		System.out.println("Execution Time for adding with parallel resize on " + pool.getParallelism() + " threads:" + (System.nanoTime() - startTime) + " nano secs");
+		for(int i = 0; i < keys.length; i++)
+			cuckoo.put(keys[i], i);
+		boolean ok = Utilities.compare(parallel, hmap) && Utilities.compare(sequential, hmap) && Utilities.compare(cuckoo, hmap);
+		
+		// removing most keys shrinks the table in parallel as well
+		for(int i = 0; i < keys.length * 7 / 8; i++) {
+			parallel.remove(keys[i]);
+			cuckoo.remove(keys[i]);
+			hmap.remove(keys[i]);
+		}
+		ok &= Utilities.compare(parallel, hmap) && Utilities.compare(cuckoo, hmap);
+		pool.shutdown();
+		
+		if(ok)
+			System.out.println("Testcase 13 successfully completed.");
+		else
+			System.out.println("Testcase 13 failed.");
+	}
+}
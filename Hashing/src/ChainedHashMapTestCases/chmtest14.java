@@ -0,0 +1,87 @@
+package ChainedHashMapTestCases;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import javax.management.ObjectName;
+
+import Hashing.ChainedHashMap;
+import Hashing.CuckooHashMap;
+import Hashing.CuckooHashTable;
+import Hashing.HashStats;
+import Hashing.HashStatsBean;
+import Hashing.LinearHashMap;
+
+public class chmtest14 {
+	public static void main(String[] args) throws Exception {
+
+		System.out.println("Starting test case 14 for hash statistics");
+		boolean ok = true;
+		Random rnd = new Random(261);
+		int n = 20000;
+
+		ChainedHashMap<Integer,Integer> chained = new ChainedHashMap<>();
+		ok &= chained.stats() == null;
+		chained.trackStats(true);
+		for(int i = 0; i < n; i++)
+			chained.put(i, i);
+		for(int i = 0; i < n; i++) {
+			chained.get(i);
+			chained.containsKey(n + i);
+		}
+		HashStats cs = chained.stats();
+		System.out.println(cs);
+		ok &= cs.size() == n && cs.successfulLookups() >= n && cs.unsuccessfulLookups() >= n;
+		ok &= cs.meanSuccessfulProbes() >= 1 && cs.resizes() > 0;
+		long buckets = 0;
+		for(long count : cs.chainLengths())
+			buckets += count;
+		ok &= buckets == cs.capacity();
+		chained.trackStats(false);
+		ok &= chained.stats() == null;
+
+		CuckooHashMap<Integer,Integer> cuckoo = new CuckooHashMap<>();
+		cuckoo.trackStats(true);
+		CuckooHashTable<Integer,Integer> table = new CuckooHashTable<>();
+		table.trackStats(true);
+		LinearHashMap linear = new LinearHashMap(2 * n);
+		linear.trackStats(true);
+		for(int i = 0; i < n; i++) {
+			int key = rnd.nextInt();
+			cuckoo.put(key, i);
+			table.put(key, i);
+			linear.put(key, i);
+			linear.get(key);
+			table.get(key);
+			cuckoo.get(key);
+		}
+		HashStats us = cuckoo.stats();
+		HashStats ts = table.stats();
+		HashStats ls = linear.stats();
+		System.out.println(us);
+		System.out.println(ts);
+		System.out.println(ls);
+		ok &= us.displacements() + us.cycleResizes() > 0 && us.successfulLookups() >= n;
+		ok &= ts.displacements() > 0 && ts.successfulLookups() == n && ts.meanSuccessfulProbes() <= 2;
+		ok &= ls.successfulLookups() == n && ls.chainLengths().length == 0;
+
+		// the bean reads a fresh snapshot on every attribute access
+		ObjectName name = HashStatsBean.register("chmtest14", cuckoo::stats);
+		Object size = ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Size");
+		ok &= size.equals(cuckoo.size());
+		HashStatsBean.unregister(name);
+		ok &= !ManagementFactory.getPlatformMBeanServer().isRegistered(name);
+
+		// with tracking off the bean reads zeros instead of failing
+		name = HashStatsBean.register("chmtest14 untracked", chained::stats);
+		ok &= chained.stats() == null;
+		ok &= ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Size").equals(0);
+		ok &= ((long[]) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "SuccessfulProbeHistogram")).length > 0;
+		HashStatsBean.unregister(name);
+
+		if(ok)
+			System.out.println("Testcase 14 successfully completed.");
+		else
+			System.out.println("Testcase 14 failed.");
+	}
+}
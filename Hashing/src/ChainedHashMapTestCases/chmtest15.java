@@ -0,0 +1,86 @@
+package ChainedHashMapTestCases;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import Hashing.BlockedBloomFilter;
+import Hashing.BloomFilteredMap;
+import Hashing.ChainedHashMap;
+import Hashing.DoubleHashMap;
+import LinearHashMapTestCases.Utilities;
+
+public class chmtest15 {
+	public static void main(String[] args) {
+
+		System.out.println("Starting test case 15 for Bloom filtered lookups");
+		boolean ok = true;
+		int n = 20000;
+		double fpp = 0.01;
+
+		// a filter never forgets a key, and misses stay near the target rate
+		BlockedBloomFilter filter = new BlockedBloomFilter(n, fpp);
+		Random rnd = new Random(261);
+		int[] added = new int[n];
+		for(int i = 0; i < n; i++) {
+			added[i] = rnd.nextInt();
+			filter.add(added[i]);
+		}
+		for(int i = 0; i < n; i++)
+			ok &= filter.mightContain(added[i]);
+		int positives = 0;
+		for(int i = 0; i < 10 * n; i++) {
+			if(filter.mightContain(rnd.nextInt()))
+				positives++;
+		}
+		double rate = positives / (10.0 * n);
+		System.out.println("False positive rate " + rate + " for target " + fpp + " with " + filter.hashes() + " hashes and " + filter.bitSize() + " bits");
+		ok &= rate < 3 * fpp;
+
+		Hashing.Map<Integer,Integer>[] maps = new Hashing.Map[] {
+				new ChainedHashMap<Integer,Integer>(), new DoubleHashMap<Integer,Integer>() };
+		for(Hashing.Map<Integer,Integer> inner: maps) {
+			// sized for fewer keys than it gets, so the filter has to grow
+			BloomFilteredMap<Integer,Integer> map = new BloomFilteredMap<>(inner, n / 4, fpp);
+			HashMap<Integer,Integer> hmap = new HashMap<>();
+			for(int i = 0; i < n; i++) {
+				map.put(2 * i, i);
+				hmap.put(2 * i, i);
+			}
+			ok &= Utilities.compare(map, hmap);
+
+			long startTime = System.nanoTime();
+			int found = 0;
+			for(int i = 0; i < n; i++) {
+				if(map.containsKey(2 * i + 1))
+					found++;
+			}
+			System.out.println(inner.getClass().getSimpleName() + " answered " + map.rejected() + " of " + n + " misses from the filter in " + (System.nanoTime() - startTime) + " nano secs");
+			ok &= found == 0 && map.rejected() > n * 0.95;
+
+			// removes leave stale keys until the filter is rebuilt
+			for(int i = 0; i < n * 3 / 4; i++) {
+				ok &= map.remove(2 * i) == i;
+				hmap.remove(2 * i);
+			}
+			ok &= Utilities.compare(map, hmap);
+			long before = map.rejected();
+			for(int i = 0; i < n * 3 / 4; i++)
+				ok &= !map.containsKey(2 * i);
+			System.out.println("After removes " + (map.rejected() - before) + " of " + (n * 3 / 4) + " removed keys were answered from the filter");
+			ok &= map.rejected() - before > n * 3 / 4 * 0.9;
+
+			try {
+				map.get(-1);
+				ok = false;
+			} catch(RuntimeException e) {
+			}
+			map.clear();
+			ok &= map.isEmpty() && !map.containsKey(2 * (n - 1));
+		}
+
+		if(ok)
+			System.out.println("Testcase 15 successfully completed.");
+		else
+			System.out.println("Testcase 15 failed.");
+	}
+}
@@ -0,0 +1,145 @@
+package ChainedHashMapTestCases;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import Hashing.ArrayChainedHashMap;
+import Hashing.BucketizedCuckooHashMap;
+import Hashing.ConcurrentChainedHashMap;
+import Hashing.ConcurrentCuckooHashTable;
+import Hashing.HashStats;
+import Hashing.HopscotchHashMap;
+import Hashing.IntIntHashMap;
+import Hashing.MappedLinearHashMap;
+import Hashing.OffHeapIntIntHashMap;
+import Hashing.OffHeapLongLongHashMap;
+import Hashing.RobinHoodHashMap;
+import Hashing.SplitOrderedHashMap;
+import Hashing.SwissHashMap;
+
+public class chmtest16 {
+	private static final int n = 20000;
+
+	public static void main(String[] args) throws Exception {
+
+		System.out.println("Starting test case 16 for hash statistics on the remaining maps");
+		boolean ok = true;
+
+		RobinHoodHashMap<Integer,Integer> robinHood = new RobinHoodHashMap<>();
+		ok &= check(robinHood, robinHood::trackStats, robinHood::stats);
+		SwissHashMap<Integer,Integer> swiss = new SwissHashMap<>();
+		ok &= check(swiss, swiss::trackStats, swiss::stats);
+		HopscotchHashMap<Integer,Integer> hopscotch = new HopscotchHashMap<>();
+		ok &= check(hopscotch, hopscotch::trackStats, hopscotch::stats);
+		SplitOrderedHashMap<Integer,Integer> splitOrdered = new SplitOrderedHashMap<>();
+		ok &= check(splitOrdered, splitOrdered::trackStats, splitOrdered::stats);
+		BucketizedCuckooHashMap<Integer,Integer> cuckoo = new BucketizedCuckooHashMap<>();
+		ok &= check(cuckoo, cuckoo::trackStats, cuckoo::stats);
+		ok &= cuckoo.stats().displacements() > 0;
+
+		// the chained map also reports how long its chains are
+		ArrayChainedHashMap<Integer,Integer> arrayChained = new ArrayChainedHashMap<>();
+		ok &= check(arrayChained, arrayChained::trackStats, arrayChained::stats);
+		long buckets = 0;
+		for(long count : arrayChained.stats().chainLengths())
+			buckets += count;
+		ok &= buckets == arrayChained.capacity();
+
+		// the concurrent maps add up one recorder per stripe
+		ConcurrentChainedHashMap<Integer,Integer> concurrentChained = new ConcurrentChainedHashMap<>();
+		ok &= check(concurrentChained, concurrentChained::trackStats, concurrentChained::stats);
+		buckets = 0;
+		for(long count : concurrentChained.stats().chainLengths())
+			buckets += count;
+		ok &= buckets == concurrentChained.stats().capacity();
+		ConcurrentCuckooHashTable<Integer,Integer> concurrentCuckoo = new ConcurrentCuckooHashTable<>();
+		ok &= concurrentCuckoo.stats() == null;
+		concurrentCuckoo.trackStats(true);
+		IntStream.rangeClosed(1, n).parallel().forEach(i -> concurrentCuckoo.put(i, i));
+		for(int i = 1; i <= n; i++) {
+			ok &= concurrentCuckoo.get(i) == i;
+			ok &= !concurrentCuckoo.containsKey(n + i);
+		}
+		HashStats s = concurrentCuckoo.stats();
+		System.out.println("ConcurrentCuckooHashTable " + s);
+		ok &= s.size() == n && s.successfulLookups() >= n && s.unsuccessfulLookups() >= n;
+		ok &= s.meanSuccessfulProbes() >= 1 && s.resizes() > 0 && s.displacements() > 0;
+
+		IntIntHashMap ints = new IntIntHashMap();
+		ints.trackStats(true);
+		for(int i = 1; i <= n; i++)
+			ints.put(i, i);
+		ok &= checkInts(ints::get, ints::contains, ints::stats, true);
+		try(OffHeapIntIntHashMap offHeap = new OffHeapIntIntHashMap()) {
+			offHeap.trackStats(true);
+			for(int i = 1; i <= n; i++)
+				offHeap.put(i, i);
+			ok &= checkInts(offHeap::get, offHeap::contains, offHeap::stats, true);
+		}
+		try(OffHeapLongLongHashMap offHeap = new OffHeapLongLongHashMap()) {
+			offHeap.trackStats(true);
+			for(int i = 1; i <= n; i++)
+				offHeap.put(i, i);
+			ok &= checkInts(key -> (int) offHeap.get(key), key -> offHeap.contains(key), offHeap::stats, true);
+		}
+		// a mapped map never grows
+		Path file = Files.createTempFile("chmtest16", ".map");
+		try(MappedLinearHashMap mapped = MappedLinearHashMap.create(file, 2 * n)) {
+			mapped.trackStats(true);
+			for(int i = 1; i <= n; i++)
+				mapped.put(i, i);
+			ok &= checkInts(key -> {
+				try {
+					return mapped.get(key);
+				} catch(Exception e) {
+					return -1;
+				}
+			}, mapped::contains, mapped::stats, false);
+		} finally {
+			Files.delete(file);
+		}
+
+		robinHood.trackStats(false);
+		ints.trackStats(false);
+		ok &= robinHood.stats() == null && ints.stats() == null;
+
+		if(ok)
+			System.out.println("Testcase 16 successfully completed.");
+		else
+			System.out.println("Testcase 16 failed.");
+	}
+
+	private static boolean check(Hashing.Map<Integer,Integer> map, Consumer<Boolean> track, Supplier<HashStats> stats) {
+		boolean ok = stats.get() == null;
+		track.accept(true);
+		for(int i = 1; i <= n; i++)
+			map.put(i, i);
+		for(int i = 1; i <= n; i++) {
+			ok &= map.get(i) == i;
+			ok &= !map.containsKey(n + i);
+		}
+		HashStats s = stats.get();
+		System.out.println(map.getClass().getSimpleName() + " " + s);
+		ok &= s.size() == n && s.successfulLookups() >= n && s.unsuccessfulLookups() >= n;
+		ok &= s.meanSuccessfulProbes() >= 1 && s.resizes() > 0;
+		return ok;
+	}
+
+	private static boolean checkInts(IntUnaryOperator get, IntPredicate contains, Supplier<HashStats> stats, boolean grows) {
+		boolean ok = true;
+		for(int i = 1; i <= n; i++) {
+			ok &= get.applyAsInt(i) == i;
+			ok &= !contains.test(n + i);
+		}
+		HashStats s = stats.get();
+		System.out.println(s);
+		ok &= s.size() == n && s.successfulLookups() == n && s.unsuccessfulLookups() == n;
+		ok &= s.meanSuccessfulProbes() >= 1 && (s.resizes() > 0) == grows;
+		return ok;
+	}
+}
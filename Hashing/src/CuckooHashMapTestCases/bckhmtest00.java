@@ -0,0 +1,43 @@
+package CuckooHashMapTestCases;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import Hashing.BucketizedCuckooHashMap;
+import LinearHashMapTestCases.Utilities;
+
+public class bckhmtest00 {
+
+	public static void main(String[] args) {
+		
+		System.out.println("Starting test case 00 for bucketized cuckoo occupancy with very huge number of keys");
+		BucketizedCuckooHashMap<Integer,Integer> map = new BucketizedCuckooHashMap<>();
+		Map<Integer,Integer> omap = new HashMap<Integer,Integer>();
+		String fileName = "/src/LinearHashMapTestCases/testInput10.txt";
+		map = Utilities.populateMap(fileName, map);
+		omap = Utilities.populateOriginalHashMap(fileName);
+		
+		// keep adding fresh keys until the table grows, recording the occupancy it reached
+		int capacity = map.capacity();
+		double maxLoad = map.loadFactor();
+		for(int key = 100000; map.capacity() == capacity; key++) {
+			maxLoad = map.loadFactor();
+			map.put(key, key);
+			omap.put(key, key);
+		}
+		System.out.println("Load factor reached before resizing:" + maxLoad + ", capacity:" + capacity);
+		
+		long startTime = System.nanoTime();
+		for(Integer key: omap.keySet()) {
+			map.get(key);
+		}
+		long stopTime = System.nanoTime();
+		System.out.println("Execution Time for getting:" + (stopTime - startTime) + " nano secs");
+		
+	    if(Utilities.compare(map,omap))
+			System.out.println("Testcase 00 successfully completed.");
+		else
+			System.out.println("Testcase 00 failed.");
+	}
+
+}
@@ -0,0 +1,63 @@
+package CuckooHashMapTestCases;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import Hashing.ConcurrentCuckooHashTable;
+import LinearHashMapTestCases.Utilities;
+
+public class cckhttest00 {
+
+	public static void main(String[] args) throws Exception {
+		
+		System.out.println("Starting test case 00 for concurrent writers and lock-free readers");
+		final ConcurrentCuckooHashTable<Integer,Integer> map = new ConcurrentCuckooHashTable<>();
+		final int threads = 4;
+		final int keysPerThread = 50000;
+		
+		Thread[] writers = new Thread[threads];
+		for(int t = 0; t < threads; t++) {
+			final int base = t * keysPerThread;
+			writers[t] = new Thread(() -> {
+				for(int i = 0; i < keysPerThread; i++) {
+					map.put(base + i, base + i);
+					// a key written by this thread must stay visible through every displacement and resize
+					if(map.get(base + i / 2) == null)
+						throw new IllegalStateException("lost key " + (base + i / 2));
+				}
+			});
+		}
+		long startTime = System.nanoTime();
+		for(Thread w: writers) w.start();
+		for(Thread w: writers) w.join();
+		long stopTime = System.nanoTime();
+		System.out.println("Execution Time for adding " + map.size() + " keys with " + threads + " threads:" + (stopTime - startTime) + " nano secs");
+		
+		Map<Integer,Integer> omap = new HashMap<Integer,Integer>();
+		for(int i = 0; i < threads * keysPerThread; i++)
+			omap.put(i, i);
+		
+		for(int n = 1; n <= threads; n *= 2) {
+			Thread[] readers = new Thread[n];
+			for(int t = 0; t < n; t++) {
+				readers[t] = new Thread(() -> {
+					for(int round = 0; round < 5; round++)
+						for(int i = 0; i < threads * keysPerThread; i++)
+							map.get(i);
+				});
+			}
+			startTime = System.nanoTime();
+			for(Thread r: readers) r.start();
+			for(Thread r: readers) r.join();
+			stopTime = System.nanoTime();
+			long lookups = 5L * n * threads * keysPerThread;
+			System.out.println("Read throughput with " + n + " threads:" + (lookups * 1000000000L / (stopTime - startTime)) + " lookups/sec");
+		}
+		
+		if(Utilities.compare(map,omap))
+			System.out.println("Testcase 00 successfully completed.");
+		else
+			System.out.println("Testcase 00 failed.");
+	}
+
+}
@@ -0,0 +1,70 @@
+package CuckooHashMapTestCases;
+
+import java.util.Random;
+
+import Hashing.CuckooFilter;
+
+public class ckftest00 {
+
+	public static void main(String[] args) {
+
+		System.out.println("Starting test case 00 for cuckoo filter membership with deletes");
+		boolean ok = true;
+		int n = 100000;
+		for(int bits : new int[] { 8, 12, 16 }) {
+			CuckooFilter filter = new CuckooFilter(n, bits);
+			Random rnd = new Random(261);
+			int[] keys = new int[n];
+			long startTime = System.nanoTime();
+			for(int i = 0; i < n; i++) {
+				keys[i] = rnd.nextInt();
+				ok &= filter.add(keys[i]);
+			}
+			System.out.println("Execution Time for adding " + n + " keys with " + bits + " bit fingerprints:" + (System.nanoTime() - startTime) + " nano secs, load " + filter.loadFactor());
+			for(int i = 0; i < n; i++)
+				ok &= filter.mightContain(keys[i]);
+
+			int positives = 0, probes = 10 * n;
+			for(int i = 0; i < probes; i++) {
+				if(filter.mightContain(rnd.nextInt()))
+					positives++;
+			}
+			double measured = positives * 1.0 / probes;
+			System.out.println("False positive rate " + measured + ", expected " + filter.falsePositiveRate() + ", " + filter.bitsPerItem() + " bits per item");
+			ok &= measured < 2 * filter.falsePositiveRate() + 1e-4;
+			ok &= filter.bitsPerItem() < bits / 0.7;
+
+			// deleting half keeps the other half and frees their slots
+			for(int i = 0; i < n / 2; i++)
+				ok &= filter.remove(keys[i]);
+			for(int i = n / 2; i < n; i++)
+				ok &= filter.mightContain(keys[i]);
+			int stillThere = 0;
+			for(int i = 0; i < n / 2; i++) {
+				if(filter.mightContain(keys[i]))
+					stillThere++;
+			}
+			ok &= filter.size() == n - n / 2 && stillThere < n / 2 * 4 * filter.falsePositiveRate() + 10;
+			for(int i = 0; i < n / 2; i++)
+				ok &= filter.add(keys[i]);
+			for(int i = 0; i < n; i++)
+				ok &= filter.mightContain(keys[i]);
+		}
+
+		// an add that cannot fit leaves every earlier key in place
+		CuckooFilter small = new CuckooFilter(1000, 8);
+		int added = 0;
+		while(added < 2 * small.capacity() && small.add(added))
+			added++;
+		System.out.println("Filled " + added + " of " + small.capacity() + " slots before the first failed add");
+		ok &= added > small.capacity() * 0.9 && added < small.capacity() + 1;
+		for(int i = 0; i < added; i++)
+			ok &= small.mightContain(i);
+
+		if(ok)
+			System.out.println("Testcase 00 successfully completed.");
+		else
+			System.out.println("Testcase 00 failed.");
+	}
+
+}
@@ -0,0 +1,29 @@
+package CuckooHashMapTestCases;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import Hashing.CuckooHashTable;
+import LinearHashMapTestCases.Utilities;
+
+public class ckhttest01 {
+
+	public static void main(String[] args) {
+		
+		System.out.println("Starting test case 01 for bulk loading very huge number of keys with duplicates");
+		CuckooHashTable<Integer,Integer> map = new CuckooHashTable<>();
+		Map<Integer,Integer> omap = new HashMap<Integer,Integer>();
+		String fileName = "/src/LinearHashMapTestCases/testInput10.txt";
+		long startTime = System.currentTimeMillis();
+		map = Utilities.populateCuckooHashTable(fileName, 0, 0);
+		long stopTime = System.currentTimeMillis();
+		omap = Utilities.populateOriginalHashMap(fileName);
+		System.out.println("Execution Time for adding:" + (stopTime - startTime) + " milli secs, capacity:" + map.capacity());
+	    if(Utilities.compare(map,omap))
+			System.out.println("Testcase 01 successfully completed.");
+		else
+			System.out.println("Testcase 01 failed.");
+
+	}
+
+}
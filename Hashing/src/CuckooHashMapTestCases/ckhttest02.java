@@ -0,0 +1,50 @@
+package CuckooHashMapTestCases;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import Hashing.CuckooHashTable;
+import LinearHashMapTestCases.Utilities;
+
+public class ckhttest02 {
+
+	public static void main(String[] args) {
+
+		System.out.println("Starting test case 02 for capacity under insert and remove churn");
+		int live = 20000;
+		CuckooHashTable<Integer,Integer> map = new CuckooHashTable<>(2 * live);
+		int initialCapacity = map.capacity();
+		Map<Integer,Integer> omap = new HashMap<Integer,Integer>();
+		ArrayList<Integer> keys = new ArrayList<>();
+		Random rnd = new Random(261);
+		long startTime = System.currentTimeMillis();
+		for(int round = 0; round < 1000000; round++) {
+			if(keys.size() < live || rnd.nextBoolean()) {
+				int key = rnd.nextInt();
+				if(omap.containsKey(key))
+					continue;
+				map.put(key, round);
+				omap.put(key, round);
+				keys.add(key);
+			} else {
+				// removes leave cycles behind in the bookkeeping, which used to force resizes
+				int i = rnd.nextInt(keys.size());
+				int key = keys.get(i);
+				keys.set(i, keys.get(keys.size() - 1));
+				keys.remove(keys.size() - 1);
+				map.remove(key);
+				omap.remove(key);
+			}
+		}
+		long stopTime = System.currentTimeMillis();
+		System.out.println("Execution Time for churn:" + (stopTime - startTime) + " milli secs, capacity:" + map.capacity() + " from " + initialCapacity);
+		if(Utilities.compare(map, omap) && map.capacity() <= 2 * initialCapacity)
+			System.out.println("Testcase 02 successfully completed.");
+		else
+			System.out.println("Testcase 02 failed.");
+
+	}
+
+}
@@ -1,47 +1,56 @@
 package Hashing;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 
 public abstract class AbstractMap<K,V> extends Object implements Map<K,V>{
 
 	protected ArrayList<Entry<K, V>>bucket=new ArrayList<>();
 	protected int size;
-	protected int numBuckets=10;
+	// always a power of two, see CapacityPolicy
+	protected int numBuckets=16;
 	protected boolean resize = false;
 	protected int prime = 11;
+	protected HashStrategy hashStrategy = HashStrategy.FIBONACCI;
+	// incremental mode: a resize only swaps in the new table, chains then move over a few buckets per operation
+	protected boolean incremental = false;
+	protected static final int MIGRATE_STEP = 8;
+	// a chain this long becomes a TreeBin, which turns back into a chain at UNTREEIFY_THRESHOLD
+	protected static final int TREEIFY_THRESHOLD = 8;
+	protected static final int UNTREEIFY_THRESHOLD = 6;
+	protected ArrayList<Entry<K, V>>oldBucket;
+	protected int oldNumBuckets;
+	protected int migrateIndex;
+	// set by removeAll: shrinking is put off until the whole batch is removed
+	protected boolean deferShrink = false;
+	protected boolean shrinkPending = false;
+	// chained tables with at least PARALLEL_RESIZE_MIN entries resize on this pool when it is set
+	protected ForkJoinPool resizePool;
+	protected static final int PARALLEL_RESIZE_MIN = 1 << 16;
+	protected static final int RESIZE_CHUNK = 1 << 12;
+	// null unless trackStats(true), every hook checks it first
+	protected StatsRecorder stats;
 	@Override
 	public void put(K key, V value) {
+		if(incremental)
+		{
+			incrementalPut(key, value);
+			return;
+		}
 		int index=getBucketIndex(key);
-		
-		Entry<K, V>head=bucket.get(index);
-		Entry<K, V>toAdd=new Entry<>();
-		
-		toAdd.key=key;
-		toAdd.value=value;
-		
-		if(head==null)
+		Entry<K, V> entry=findInBucket(bucket, index, key);
+		if(entry!=null)
 		{
-			bucket.set(index, toAdd);
-			if(!resize) size++;
-			
+			entry.value=value;
 		}
 		else
 		{
-			while(head!=null)
-			{
-				if(head.key.equals(key))
-				{
-					head.value=value;
-					break;
-				}
-				head=head.next;
-			}
-			if(head==null)
-			{
-				head=bucket.get(index);
-				toAdd.next=head;
-				bucket.set(index, toAdd);
-				if(!resize) size++;
-			}
+			Entry<K, V>toAdd=new Entry<>();
+			toAdd.key=key;
+			toAdd.value=value;
+			link(bucket, index, toAdd);
+			if(!resize) size++;
 		}
 		
 		double loadFactor = (1.0*size)/numBuckets;
@@ -53,19 +62,44 @@ public abstract class AbstractMap<K,V> extends Object implements Map<K,V>{
 		}
 	}
 	protected void resize(boolean downScale) {
+		if(downScale && deferShrink)
+		{
+			shrinkPending=true;
+			return;
+		}
+		timedResizeTo(downScale ? Math.max(1, numBuckets/2) : 2*numBuckets);
+	}
+	private void timedResizeTo(int n) {
+		if(stats==null)
+		{
+			resizeTo(n);
+			return;
+		}
+		long start=System.nanoTime();
+		resizeTo(n);
+		stats.resized(System.nanoTime()-start);
+	}
+	/**
+	 * Rebuilds the table with n buckets, n being a power of two.
+	 */
+	protected void resizeTo(int n) {
+		if(resizePool!=null && size>=PARALLEL_RESIZE_MIN && bucket.size()==numBuckets)
+		{
+			parallelResizeTo(n);
+			return;
+		}
 		resize = true;
 		ArrayList<Entry<K, V>>tmp=bucket;
 		bucket=new ArrayList<>();
-		if(downScale)
-			numBuckets = numBuckets/2;
-		else
-			numBuckets=2*numBuckets;
+		numBuckets=n;
 		for(int i=0;i<numBuckets;i++)
 		{
 			bucket.add(null);
 		}
 		for(Entry<K, V> headNode:tmp)
 		{
+			if(headNode instanceof TreeBin)
+				headNode=((TreeBin<K, V>) headNode).untreeify();
 			while(headNode!=null)
 			{
 				put(headNode.key, headNode.value);
@@ -74,44 +108,100 @@ public abstract class AbstractMap<K,V> extends Object implements Map<K,V>{
 		}
 		resize = false;
 	}
+	/**
+	 * Chained tables only: relinks the old chains into a table of n buckets on
+	 * resizePool, without allocating entries. Bucket b of the smaller table
+	 * lines up with buckets b, b + span, b + 2*span ... of the larger one, so
+	 * tasks over disjoint ranges of b never write the same bucket.
+	 */
+	private void parallelResizeTo(int n) {
+		ArrayList<Entry<K, V>> old=bucket;
+		ArrayList<Entry<K, V>> table=new ArrayList<>(n);
+		for(int i=0;i<n;i++)
+		{
+			table.add(null);
+		}
+		resizePool.invoke(new RelinkTask(old, table, Math.min(old.size(), n), 0, Math.min(old.size(), n)));
+		bucket=table;
+		numBuckets=n;
+	}
+	@SuppressWarnings("serial")
+	private final class RelinkTask extends RecursiveAction {
+		private final ArrayList<Entry<K, V>> old, table;
+		private final int span, lo, hi;
+		RelinkTask(ArrayList<Entry<K, V>> old, ArrayList<Entry<K, V>> table, int span, int lo, int hi)
+		{
+			this.old=old;
+			this.table=table;
+			this.span=span;
+			this.lo=lo;
+			this.hi=hi;
+		}
+		@Override
+		protected void compute() {
+			if(hi-lo > RESIZE_CHUNK)
+			{
+				int mid=(lo+hi)>>>1;
+				invokeAll(new RelinkTask(old, table, span, lo, mid), new RelinkTask(old, table, span, mid, hi));
+				return;
+			}
+			int n=table.size();
+			for(int b=lo;b<hi;b++)
+			{
+				for(int o=b;o<old.size();o+=span)
+				{
+					Entry<K, V> head=old.get(o);
+					if(head instanceof TreeBin)
+						head=((TreeBin<K, V>) head).untreeify();
+					while(head!=null)
+					{
+						Entry<K, V> next=head.next;
+						int index=indexFor(head.key, n);
+						head.next=table.get(index);
+						table.set(index, head);
+						head=next;
+					}
+				}
+				for(int t=b;t<n;t+=span)
+					treeifyIfLong(table, t);
+			}
+		}
+	}
 	protected int getBucketIndex(Object key) {
-		int hashCode=key.hashCode();
-		return hashCode%numBuckets;
+		return indexFor(key, numBuckets);
 	}
 	protected int getSecondBucketIndex(Object key) {
-		int hashCode=key.hashCode();
-		hashCode = hashCode/prime;
-		return hashCode%numBuckets;
+		return CapacityPolicy.indexFor(CapacityPolicy.secondHash(hashCode(key)), numBuckets);
+	}
+	/**
+	 * Hash of key under this map's strategy.
+	 */
+	protected int hashCode(Object key) {
+		return hashStrategy.hash(key);
+	}
+	protected int indexFor(Object key, int n) {
+		return CapacityPolicy.indexFor(hashCode(key), n);
 	}
 	@Override
 	public V get(Object key) {
-		int index=getBucketIndex(key);
-		Entry<K, V> head=bucket.get(index);
-		while(head!=null)
+		if(incremental)
 		{
-			if(head.key.equals(key))
-			{
-				return head.value;
-			}
-			head=head.next;
+			Entry<K, V> entry=incrementalFind(key);
+			if(entry==null)
+				throw new RuntimeException("Key not found");
+			return entry.value;
 		}
-		throw new RuntimeException("Key not found");	
+		Entry<K, V> entry=findInBucket(bucket, getBucketIndex(key), key);
+		if(entry==null)
+			throw new RuntimeException("Key not found");
+		return entry.value;
 	}
 
 	@Override
 	public boolean containsKey(Object key) {
-		int bucketIdx = getBucketIndex(key);
-		Entry<K, V> head=bucket.get(bucketIdx);
-		while(head!=null)
-		{
-			if(head.key.equals(key))
-			{
-				return true;
-			}
-			head=head.next;
-		}
-		return false;
-
+		if(incremental)
+			return incrementalFind(key)!=null;
+		return findInBucket(bucket, getBucketIndex(key), key)!=null;
 	}
 
 	@Override
@@ -121,7 +211,12 @@ public abstract class AbstractMap<K,V> extends Object implements Map<K,V>{
 
 	@Override
 	public void clear() {
-		bucket.clear();	
+		oldBucket=null;
+		for(int i=0;i<numBuckets;i++)
+		{
+			bucket.set(i, null);
+		}
+		size=0;
 	}
 	
 	@Override
@@ -131,53 +226,422 @@ public abstract class AbstractMap<K,V> extends Object implements Map<K,V>{
 	
 	@Override
 	public V remove(Object key) {
-		int index=getBucketIndex(key);
-		Entry<K, V>head=bucket.get(index);
-		if(head==null)
+		if(incremental)
+			return incrementalRemove(key);
+		V val=unlink(bucket, getBucketIndex(key), key);
+		if(val==null)
+			return null;
+		size--;
+		checkResize();
+		return val;
+	}
+	private void checkResize() {
+		double loadFactor = (1.0*size)/numBuckets;
+		
+		if(loadFactor <= 0.25)
+		{
+			boolean downScale = true;
+			resize(downScale);
+		}
+		
+	}
+	
+	/**
+	 * Grows the table once to fit every key as a new one, then puts the pairs
+	 * grouped by bucket. Pairs that share a key keep their order.
+	 */
+	@Override
+	public void putAll(K[] keys, V[] values) {
+		if(incremental)
+		{
+			Map.super.putAll(keys, values);
+			return;
+		}
+		if(keys.length!=values.length)
+			throw new IllegalArgumentException("keys and values differ in length");
+		int n=bucketsFor(size+keys.length);
+		if(n!=numBuckets)
+			timedResizeTo(n);
+		for(int i:bucketOrder(keys))
+			put(keys[i], values[i]);
+	}
+	/**
+	 * Smallest bucket count, no less than the current one, that holds entries
+	 * without put growing the table.
+	 */
+	protected int bucketsFor(int entries) {
+		int n=numBuckets;
+		while((1.0*entries)/n > 0.75 && n<CapacityPolicy.MAX_CAPACITY)
+			n*=2;
+		return n;
+	}
+	@Override
+	public void getAll(Object[] keys, V[] out) {
+		if(incremental)
+		{
+			Map.super.getAll(keys, out);
+			return;
+		}
+		if(out.length<keys.length)
+			throw new IllegalArgumentException("out is shorter than keys");
+		for(int i:bucketOrder(keys))
+			out[i]=get(keys[i]);
+	}
+	/**
+	 * Removes the keys grouped by bucket and shrinks the table at most once,
+	 * after the last removal.
+	 */
+	@Override
+	public int removeAll(Object[] keys) {
+		if(incremental)
+			return Map.super.removeAll(keys);
+		int removed=0;
+		deferShrink=true;
+		shrinkPending=false;
+		try
 		{
+			for(int i:bucketOrder(keys))
+			{
+				if(remove(keys[i])!=null)
+					removed++;
+			}
+		}
+		finally
+		{
+			deferShrink=false;
+			if(shrinkPending)
+			{
+				shrinkPending=false;
+				int n=numBuckets;
+				while(n>1 && (1.0*size)/n <= 0.25)
+					n/=2;
+				timedResizeTo(n);
+			}
+		}
+		return removed;
+	}
+	/**
+	 * Indexes into keys sorted by bucket, so a batch walks the table in
+	 * memory order.
+	 */
+	protected int[] bucketOrder(Object[] keys) {
+		long[] packed=new long[keys.length];
+		for(int i=0;i<keys.length;i++)
+			packed[i]=((long) getBucketIndex(keys[i])<<32) | i;
+		Arrays.sort(packed);
+		int[] order=new int[keys.length];
+		for(int i=0;i<keys.length;i++)
+			order[i]=(int) packed[i];
+		return order;
+	}
+	/**
+	 * Starts or stops collecting statistics. Key searches, including the one
+	 * each put makes, go into the probe histograms; lookups answered by a
+	 * tree bin are not counted. Stopping drops what was collected.
+	 */
+	public void trackStats(boolean on) {
+		if(!on)
+			stats=null;
+		else if(stats==null)
+			stats=new StatsRecorder();
+	}
+	/**
+	 * @return statistics collected since tracking started, or null when it is off
+	 */
+	public HashStats stats() {
+		StatsRecorder recorder=stats;
+		if(recorder==null)
 			return null;
+		return recorder.snapshot(size, numBuckets, chainLengths());
+	}
+	/**
+	 * Histogram of chain lengths over the buckets, tree bins counting their
+	 * entries. Open addressing subclasses have no chains and return an empty one.
+	 */
+	protected long[] chainLengths() {
+		long[] histogram=new long[StatsRecorder.HISTOGRAM_SIZE];
+		for(ArrayList<Entry<K, V>> table:Arrays.asList(bucket, oldBucket))
+		{
+			for(int i=0; table!=null && i<table.size(); i++)
+			{
+				Entry<K, V> head=table.get(i);
+				int length=0;
+				if(head instanceof TreeBin)
+					length=((TreeBin<K, V>) head).count;
+				for(; !(head instanceof TreeBin) && head!=null; head=head.next)
+					length++;
+				StatsRecorder.countLength(histogram, length);
+			}
+		}
+		return histogram;
+	}
+	/**
+	 * True while an incremental resize still has chains left in the old table.
+	 */
+	public boolean isRehashing() {
+		return oldBucket!=null;
+	}
+	private void incrementalPut(K key, V value) {
+		migrate();
+		Entry<K, V> entry=incrementalFind(key);
+		if(entry!=null)
+		{
+			entry.value=value;
+			return;
 		}
-		if(head.key.equals(key))
+		// new keys always go to the current table
+		Entry<K, V>toAdd=new Entry<>();
+		toAdd.key=key;
+		toAdd.value=value;
+		link(bucket, getBucketIndex(key), toAdd);
+		size++;
+		if((1.0*size)/numBuckets > 0.75)
+			startResize(false);
+	}
+	private V incrementalRemove(Object key) {
+		migrate();
+		V val=unlink(bucket, getBucketIndex(key), key);
+		if(val==null && oldBucket!=null)
+			val=unlink(oldBucket, indexFor(key, oldNumBuckets), key);
+		if(val==null)
+			return null;
+		size--;
+		if((1.0*size)/numBuckets <= 0.25 && numBuckets > 1)
+			startResize(true);
+		return val;
+	}
+	private Entry<K, V> incrementalFind(Object key) {
+		migrate();
+		Entry<K, V> entry=findInBucket(bucket, getBucketIndex(key), key);
+		// buckets below migrateIndex are already empty in the old table
+		if(entry==null && oldBucket!=null)
+			entry=findInBucket(oldBucket, indexFor(key, oldNumBuckets), key);
+		return entry;
+	}
+	private Entry<K, V> findInBucket(ArrayList<Entry<K, V>> table, int index, Object key) {
+		Entry<K, V> head=table.get(index);
+		if(head instanceof TreeBin)
+			return ((TreeBin<K, V>) head).find(hashCode(key), key);
+		int probes=0;
+		while(head!=null)
 		{
-			V val=head.value;
+			probes++;
+			if(head.key.equals(key))
+			{
+				if(stats!=null)
+					stats.probe(true, probes);
+				return head;
+			}
 			head=head.next;
-			bucket.set(index, head);
-			size--;
-			checkResize();
+		}
+		if(stats!=null)
+			stats.probe(false, probes);
+		return null;
+	}
+	/**
+	 * Puts entry at the front of its bucket, or into the bucket's tree, and
+	 * turns a chain that reaches TREEIFY_THRESHOLD into a tree.
+	 */
+	private void link(ArrayList<Entry<K, V>> table, int index, Entry<K, V> entry) {
+		Entry<K, V> head=table.get(index);
+		if(head instanceof TreeBin)
+		{
+			((TreeBin<K, V>) head).add(hashCode(entry.key), entry.key, entry.value);
+			return;
+		}
+		entry.next=head;
+		table.set(index, entry);
+		treeifyIfLong(table, index);
+	}
+	private void treeifyIfLong(ArrayList<Entry<K, V>> table, int index) {
+		Entry<K, V> head=table.get(index);
+		if(head instanceof TreeBin)
+			return;
+		int length=0;
+		for(Entry<K, V> e=head; e!=null && length<TREEIFY_THRESHOLD; e=e.next)
+			length++;
+		if(length<TREEIFY_THRESHOLD)
+			return;
+		TreeBin<K, V> bin=new TreeBin<>();
+		for(Entry<K, V> e=head; e!=null; e=e.next)
+			bin.add(hashCode(e.key), e.key, e.value);
+		table.set(index, bin);
+	}
+	private V unlink(ArrayList<Entry<K, V>> table, int index, Object key) {
+		Entry<K, V> head=table.get(index);
+		if(head instanceof TreeBin)
+		{
+			TreeBin<K, V> bin=(TreeBin<K, V>) head;
+			Entry<K, V> entry=bin.find(hashCode(key), key);
+			if(entry==null)
+				return null;
+			V val=entry.value;
+			bin.remove(entry);
+			if(bin.count<=UNTREEIFY_THRESHOLD)
+				table.set(index, bin.untreeify());
 			return val;
 		}
-		else
+		Entry<K, V> prev=null;
+		for(; head!=null; prev=head, head=head.next)
 		{
-			Entry<K, V>prev=null;
-			while(head!=null)
+			if(head.key.equals(key))
 			{
-				
-				if(head.key.equals(key))
-				{
+				if(prev==null)
+					table.set(index, head.next);
+				else
 					prev.next=head.next;
-					size--;
-					checkResize();
-					return head.value;
-				}
-				prev=head;
-				head=head.next;
+				return head.value;
 			}
-			size--;
-			checkResize();
-			return null;
 		}
-		
-		
+		return null;
 	}
-	private void checkResize() {
-		double loadFactor = (1.0*size)/numBuckets;
-		
-		if(loadFactor <= 0.25)
+	/**
+	 * Swaps in an empty table of the new size. A resize still in progress is
+	 * finished first, so at most two tables exist at any time.
+	 */
+	private void startResize(boolean downScale) {
+		long start=stats!=null ? System.nanoTime() : 0;
+		while(oldBucket!=null)
+			migrate();
+		oldBucket=bucket;
+		oldNumBuckets=numBuckets;
+		migrateIndex=0;
+		numBuckets=downScale ? numBuckets/2 : 2*numBuckets;
+		bucket=new ArrayList<>(numBuckets);
+		for(int i=0;i<numBuckets;i++)
 		{
-			boolean downScale = true;
-			resize(downScale);
+			bucket.add(null);
+		}
+		if(stats!=null)
+			stats.resized(System.nanoTime()-start);
+	}
+	/**
+	 * Relinks the chains of the next MIGRATE_STEP old buckets into the current
+	 * table without rechecking keys. Entries only allocate when they land in a
+	 * treeified bucket.
+	 */
+	private void migrate() {
+		if(oldBucket==null)
+			return;
+		int end=Math.min(oldNumBuckets, migrateIndex+MIGRATE_STEP);
+		for(; migrateIndex<end; migrateIndex++)
+		{
+			Entry<K, V> head=oldBucket.get(migrateIndex);
+			oldBucket.set(migrateIndex, null);
+			if(head instanceof TreeBin)
+				head=((TreeBin<K, V>) head).untreeify();
+			while(head!=null)
+			{
+				Entry<K, V> next=head.next;
+				link(bucket, getBucketIndex(head.key), head);
+				head=next;
+			}
+		}
+		if(migrateIndex==oldNumBuckets)
+			oldBucket=null;
+	}
+	/**
+	 * The entries of a bucket as a chain linked through next.
+	 */
+	protected Entry<K, V> chainOf(Entry<K, V> head) {
+		if(head instanceof TreeBin)
+			return ((TreeBin<K, V>) head).chain();
+		return head;
+	}
+	@Override
+	public MapCursor<K, V> cursor() {
+		List<ArrayList<Entry<K, V>>> t=tables();
+		return new ChainCursor(t, 0, bucketCount(t));
+	}
+	@Override
+	public Spliterator<K> keySpliterator() {
+		List<ArrayList<Entry<K, V>>> t=tables();
+		return new ChainCursor(t, 0, bucketCount(t));
+	}
+	/**
+	 * Tables holding the entries, each bucket heading a chain. Cursors walk
+	 * them one after another.
+	 */
+	protected List<ArrayList<Entry<K, V>>> tables() {
+		if(oldBucket==null)
+			return Collections.singletonList(bucket);
+		return Arrays.asList(bucket, oldBucket);
+	}
+	private static int bucketCount(List<? extends List<?>> tables) {
+		int n=0;
+		for(List<?> t:tables)
+			n+=t.size();
+		return n;
+	}
+	/**
+	 * Cursor and key spliterator over a range of buckets, numbered across
+	 * all of tables(). Splitting halves the range.
+	 */
+	private final class ChainCursor implements MapCursor<K, V>, Spliterator<K> {
+		private final List<ArrayList<Entry<K, V>>> tables;
+		private int next;
+		private final int fence;
+		private Entry<K, V> entry;
+		private Entry<K, V> pending;
+		ChainCursor(List<ArrayList<Entry<K, V>>> tables, int origin, int fence)
+		{
+			this.tables=tables;
+			this.next=origin;
+			this.fence=fence;
+		}
+		@Override
+		public boolean advance() {
+			while(pending==null)
+			{
+				if(next>=fence)
+					return false;
+				pending=chainOf(bucketAt(next++));
+			}
+			entry=pending;
+			pending=pending.next;
+			return true;
+		}
+		@Override
+		public K key() {
+			return entry.key;
+		}
+		@Override
+		public V value() {
+			return entry.value;
+		}
+		@Override
+		public boolean tryAdvance(Consumer<? super K> action) {
+			if(!advance())
+				return false;
+			action.accept(entry.key);
+			return true;
+		}
+		@Override
+		public Spliterator<K> trySplit() {
+			int mid=next+((fence-next)>>>1);
+			if(mid<=next)
+				return null;
+			ChainCursor prefix=new ChainCursor(tables, next, mid);
+			next=mid;
+			return prefix;
+		}
+		@Override
+		public long estimateSize() {
+			return fence-next;
+		}
+		@Override
+		public int characteristics() {
+			return DISTINCT | NONNULL;
+		}
+		private Entry<K, V> bucketAt(int i) {
+			for(ArrayList<Entry<K, V>> t:tables)
+			{
+				if(i<t.size())
+					return t.get(i);
+				i-=t.size();
+			}
+			return null;
 		}
-		
 	}
 	abstract public void display();
 	abstract public Set<Object> keySet();
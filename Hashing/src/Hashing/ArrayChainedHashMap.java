@@ -0,0 +1,424 @@
+package Hashing;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Spliterator;
+
+/**
+ * Separate chaining without Entry objects.
+ *
+ * Bucket heads are an int array of node indexes, and a node is the same index
+ * into the parallel next, hashes, keys and values arrays, -1 ending a chain.
+ * Removed nodes go on a free list threaded through next and are reused by
+ * later puts, so once the map has reached its working size puts and removes
+ * allocate nothing. Growing doubles the node arrays and relinks the chains
+ * from the stored hashes; node indexes do not change.
+ */
+public class ArrayChainedHashMap<K,V> implements Map<K,V> {
+	private static final int DEFAULT_CAPACITY = 16;
+	private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+	private static final int NIL = -1;
+
+	private int[] heads;
+	private int[] next;
+	private int[] hashes;
+	private Object[] keys;
+	private Object[] values;
+	private int mask;
+	private int size;
+	private int threshold;
+	// nodes below top have been handed out at least once
+	private int top;
+	// first reusable node, chained through next
+	private int free = NIL;
+	private final float loadFactor;
+	private final HashStrategy hashStrategy;
+	// null unless trackStats(true)
+	private StatsRecorder stats;
+
+	public ArrayChainedHashMap() {
+		this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+	}
+
+	public ArrayChainedHashMap(int expectedSize) {
+		this(expectedSize, DEFAULT_LOAD_FACTOR);
+	}
+
+	public ArrayChainedHashMap(int expectedSize, float loadFactor) {
+		this(expectedSize, loadFactor, HashStrategy.FIBONACCI);
+	}
+
+	/**
+	 *
+	 * @param expectedSize : number of keys the map should hold without growing
+	 * @param loadFactor   : keys per bucket at which the table doubles
+	 * @param hashStrategy : mixer applied to keys before masking
+	 */
+	public ArrayChainedHashMap(int expectedSize, float loadFactor, HashStrategy hashStrategy) {
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("expectedSize must be non-negative");
+		if (!(loadFactor > 0))
+			throw new IllegalArgumentException("loadFactor must be positive");
+		if (hashStrategy == null)
+			throw new IllegalArgumentException("hashStrategy must not be null");
+		this.loadFactor = loadFactor;
+		this.hashStrategy = hashStrategy;
+		int buckets = CapacityPolicy.tableSizeFor(Math.max(DEFAULT_CAPACITY, (int) Math.min(CapacityPolicy.MAX_CAPACITY, Math.ceil(expectedSize / loadFactor))));
+		heads = new int[buckets];
+		Arrays.fill(heads, NIL);
+		mask = buckets - 1;
+		threshold = threshold(buckets);
+		int nodes = Math.max(expectedSize, 1);
+		next = new int[nodes];
+		hashes = new int[nodes];
+		keys = new Object[nodes];
+		values = new Object[nodes];
+	}
+
+	@Override
+	public void put(K key, V value) {
+		int h = hash(key);
+		int b = h & mask;
+		for (int n = heads[b]; n != NIL; n = next[n]) {
+			if (hashes[n] == h && keys[n].equals(key)) {
+				values[n] = value;
+				return;
+			}
+		}
+		int n = newNode();
+		hashes[n] = h;
+		keys[n] = key;
+		values[n] = value;
+		next[n] = heads[b];
+		heads[b] = n;
+		if (++size > threshold)
+			rehash(heads.length << 1);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(Object key) {
+		int n = indexOf(key);
+		if (n == NIL)
+			throw new RuntimeException("key not found");
+		return (V) values[n];
+	}
+
+	@Override
+	public boolean containsKey(K key) {
+		return indexOf(key) != NIL;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V remove(Object key) {
+		int h = hash(key);
+		int b = h & mask;
+		int prev = NIL;
+		int probes = 0;
+		for (int n = heads[b]; n != NIL; prev = n, n = next[n]) {
+			probes++;
+			if (hashes[n] == h && keys[n].equals(key)) {
+				if (stats != null)
+					stats.probe(true, probes);
+				if (prev == NIL)
+					heads[b] = next[n];
+				else
+					next[prev] = next[n];
+				V ret = (V) values[n];
+				keys[n] = null;
+				values[n] = null;
+				next[n] = free;
+				free = n;
+				size--;
+				return ret;
+			}
+		}
+		if (stats != null)
+			stats.probe(false, probes);
+		return null;
+	}
+
+	/**
+	 * Grows the buckets and node arrays once to fit every key as a new one,
+	 * then puts the pairs grouped by bucket. Pairs that share a key keep
+	 * their order.
+	 */
+	@Override
+	public void putAll(K[] ks, V[] vs) {
+		if (ks.length != vs.length)
+			throw new IllegalArgumentException("keys and values differ in length");
+		long needed = (long) size + ks.length;
+		int buckets = heads.length;
+		while (threshold(buckets) < needed && buckets < CapacityPolicy.MAX_CAPACITY)
+			buckets <<= 1;
+		if (buckets != heads.length)
+			rehash(buckets);
+		// nodes in use are size, everything else in the arrays is top or free
+		if (needed > next.length)
+			growNodes((int) Math.min(Integer.MAX_VALUE - 8, needed));
+		int[] hs = new int[ks.length];
+		for (int i = 0; i < ks.length; i++)
+			hs[i] = hash(ks[i]);
+		for (int i : bucketOrder(hs)) {
+			int h = hs[i];
+			int b = h & mask;
+			int n = heads[b];
+			while (n != NIL && !(hashes[n] == h && keys[n].equals(ks[i])))
+				n = next[n];
+			if (n != NIL) {
+				values[n] = vs[i];
+				continue;
+			}
+			n = newNode();
+			hashes[n] = h;
+			keys[n] = ks[i];
+			values[n] = vs[i];
+			next[n] = heads[b];
+			heads[b] = n;
+			size++;
+		}
+		if (size > threshold)
+			rehash(heads.length << 1);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void getAll(Object[] ks, V[] out) {
+		if (out.length < ks.length)
+			throw new IllegalArgumentException("out is shorter than keys");
+		int[] hs = new int[ks.length];
+		for (int i = 0; i < ks.length; i++)
+			hs[i] = hash(ks[i]);
+		for (int i : bucketOrder(hs)) {
+			int n = heads[hs[i] & mask];
+			while (n != NIL && !(hashes[n] == hs[i] && keys[n].equals(ks[i])))
+				n = next[n];
+			if (n == NIL)
+				throw new RuntimeException("key not found");
+			out[i] = (V) values[n];
+		}
+	}
+
+	@Override
+	public int removeAll(Object[] ks) {
+		int[] hs = new int[ks.length];
+		for (int i = 0; i < ks.length; i++)
+			hs[i] = hash(ks[i]);
+		int removed = 0;
+		for (int i : bucketOrder(hs)) {
+			if (remove(ks[i]) != null)
+				removed++;
+		}
+		return removed;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Empties the map but keeps its arrays for reuse.
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(heads, NIL);
+		Arrays.fill(keys, 0, top, null);
+		Arrays.fill(values, 0, top, null);
+		top = 0;
+		free = NIL;
+		size = 0;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return number of buckets
+	 */
+	public int capacity() {
+		return heads.length;
+	}
+
+	/**
+	 * @return number of nodes the map can hold before its node arrays grow
+	 */
+	public int nodeCapacity() {
+		return next.length;
+	}
+
+	/**
+	 * Starts or stops collecting statistics on get, containsKey and remove,
+	 * counting the nodes compared; stopping drops what was collected.
+	 */
+	public void trackStats(boolean on) {
+		if (!on)
+			stats = null;
+		else if (stats == null)
+			stats = new StatsRecorder();
+	}
+
+	/**
+	 * @return statistics collected since tracking started, or null when it is off
+	 */
+	public HashStats stats() {
+		StatsRecorder recorder = stats;
+		if (recorder == null)
+			return null;
+		long[] histogram = new long[StatsRecorder.HISTOGRAM_SIZE];
+		for (int b = 0; b < heads.length; b++) {
+			int length = 0;
+			for (int n = heads[b]; n != NIL; n = next[n])
+				length++;
+			StatsRecorder.countLength(histogram, length);
+		}
+		return recorder.snapshot(size, heads.length, histogram);
+	}
+
+	public void display() {
+		for (int b = 0; b < heads.length; b++) {
+			System.out.print(b + ": ");
+			for (int n = heads[b]; n != NIL; n = next[n])
+				System.out.print(keys[n] + ":" + values[n] + ", ");
+			System.out.println();
+		}
+	}
+
+	public Set<Object> keySet() {
+		Set<Object> res = new HashSet<Object>();
+		for (int b = 0; b < heads.length; b++) {
+			for (int n = heads[b]; n != NIL; n = next[n])
+				res.add(keys[n]);
+		}
+		return res;
+	}
+
+	/**
+	 * Walks the node arrays rather than the chains; free nodes have no key.
+	 */
+	@Override
+	public MapCursor<K,V> cursor() {
+		return new Cursor(0, top);
+	}
+
+	@Override
+	public Spliterator<K> keySpliterator() {
+		return new Cursor(0, top);
+	}
+
+	// 	PRIVATE HELPERS
+
+	private int indexOf(Object key) {
+		int h = hash(key);
+		int probes = 0;
+		for (int n = heads[h & mask]; n != NIL; n = next[n]) {
+			probes++;
+			if (hashes[n] == h && keys[n].equals(key)) {
+				if (stats != null)
+					stats.probe(true, probes);
+				return n;
+			}
+		}
+		if (stats != null)
+			stats.probe(false, probes);
+		return NIL;
+	}
+
+	/**
+	 * Indexes into hs sorted by the bucket of each hash.
+	 */
+	private int[] bucketOrder(int[] hs) {
+		long[] packed = new long[hs.length];
+		for (int i = 0; i < hs.length; i++)
+			packed[i] = ((long) (hs[i] & mask) << 32) | i;
+		Arrays.sort(packed);
+		int[] order = new int[hs.length];
+		for (int i = 0; i < hs.length; i++)
+			order[i] = (int) packed[i];
+		return order;
+	}
+
+	private int newNode() {
+		if (free != NIL) {
+			int n = free;
+			free = next[n];
+			return n;
+		}
+		if (top == next.length)
+			growNodes(next.length << 1);
+		return top++;
+	}
+
+	private void growNodes(int nodes) {
+		next = Arrays.copyOf(next, nodes);
+		hashes = Arrays.copyOf(hashes, nodes);
+		keys = Arrays.copyOf(keys, nodes);
+		values = Arrays.copyOf(values, nodes);
+	}
+
+	/**
+	 * Doubles the bucket array and relinks every chain in place.
+	 */
+	private void rehash(int buckets) {
+		if (buckets > CapacityPolicy.MAX_CAPACITY)
+			throw new IllegalStateException("ArrayChainedHashMap cannot grow beyond " + CapacityPolicy.MAX_CAPACITY + " buckets");
+		long start = stats != null ? System.nanoTime() : 0;
+		int[] oldHeads = heads;
+		heads = new int[buckets];
+		Arrays.fill(heads, NIL);
+		mask = buckets - 1;
+		threshold = threshold(buckets);
+		for (int b = 0; b < oldHeads.length; b++) {
+			int n = oldHeads[b];
+			while (n != NIL) {
+				int following = next[n];
+				int nb = hashes[n] & mask;
+				next[n] = heads[nb];
+				heads[nb] = n;
+				n = following;
+			}
+		}
+		if (stats != null)
+			stats.resized(System.nanoTime() - start);
+	}
+
+	private int threshold(int buckets) {
+		return (int) Math.min(Integer.MAX_VALUE, (long) buckets * loadFactor);
+	}
+
+	private int hash(Object key) {
+		return hashStrategy.hash(key);
+	}
+
+	private final class Cursor extends SlotCursor<K,V> {
+		Cursor(int origin, int fence) {
+			super(origin, fence);
+		}
+
+		@Override
+		boolean occupied(int slot) {
+			return keys[slot] != null;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		K keyAt(int slot) {
+			return (K) keys[slot];
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		V valueAt(int slot) {
+			return (V) values[slot];
+		}
+
+		@Override
+		SlotCursor<K,V> slice(int origin, int fence) {
+			return new Cursor(origin, fence);
+		}
+	}
+}
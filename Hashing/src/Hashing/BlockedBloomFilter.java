@@ -0,0 +1,105 @@
+package Hashing;
+
+import java.util.Arrays;
+
+/**
+ * Bloom filter whose bits for one key all lie in a single 512 bit block, the
+ * size of a cache line, so a query reads one line whatever k is.
+ *
+ * The block comes from the low bits of the hash and the k bit positions from
+ * a remix of it. Confining the bits to a block makes the false positive rate
+ * somewhat worse than a plain filter of the same size; the sizing below is the
+ * plain formula, so expect a little above the target rate.
+ */
+public class BlockedBloomFilter {
+	private static final int BLOCK_WORDS = 8;
+	private static final int BLOCK_BITS = BLOCK_WORDS * Long.SIZE;
+	private static final int MAX_HASHES = 16;
+
+	private final long[] words;
+	private final int blockMask;
+	private final int hashes;
+	private final int expected;
+	private final double fpp;
+
+	/**
+	 *
+	 * @param expected : number of keys the filter is sized for
+	 * @param fpp      : false positive rate at that many keys, in (0, 1)
+	 */
+	public BlockedBloomFilter(int expected, double fpp) {
+		if (expected < 0)
+			throw new IllegalArgumentException("expected must be non-negative");
+		if (!(fpp > 0 && fpp < 1))
+			throw new IllegalArgumentException("fpp must be in (0, 1)");
+		this.expected = expected;
+		this.fpp = fpp;
+		double ln2 = Math.log(2);
+		double bits = -Math.max(expected, 1) * Math.log(fpp) / (ln2 * ln2);
+		int blocks = CapacityPolicy.tableSizeFor((int) Math.min(CapacityPolicy.MAX_CAPACITY / BLOCK_WORDS, Math.ceil(bits / BLOCK_BITS)));
+		words = new long[blocks * BLOCK_WORDS];
+		blockMask = blocks - 1;
+		hashes = (int) Math.max(1, Math.min(MAX_HASHES, Math.round(-Math.log(fpp) / ln2)));
+	}
+
+	public void add(int hash) {
+		int base = (hash & blockMask) * BLOCK_WORDS;
+		long x = mix(hash);
+		for (int i = 0; i < hashes; i++) {
+			int bit = (int) (x >>> 55);
+			words[base + (bit >>> 6)] |= 1L << bit;
+			x = remix(x);
+		}
+	}
+
+	/**
+	 * @return false only if hash was never added since the last clear
+	 */
+	public boolean mightContain(int hash) {
+		int base = (hash & blockMask) * BLOCK_WORDS;
+		long x = mix(hash);
+		for (int i = 0; i < hashes; i++) {
+			int bit = (int) (x >>> 55);
+			if ((words[base + (bit >>> 6)] & (1L << bit)) == 0)
+				return false;
+			x = remix(x);
+		}
+		return true;
+	}
+
+	public void clear() {
+		Arrays.fill(words, 0);
+	}
+
+	public int expected() {
+		return expected;
+	}
+
+	public double fpp() {
+		return fpp;
+	}
+
+	public int hashes() {
+		return hashes;
+	}
+
+	/**
+	 * @return size of the filter in bits
+	 */
+	public long bitSize() {
+		return (long) words.length * Long.SIZE;
+	}
+
+	// 	PRIVATE HELPERS
+
+	// the top 9 bits pick a bit of the block, so spread the hash up there
+	private static long mix(int hash) {
+		long x = (hash & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L;
+		return x ^ (x >>> 32);
+	}
+
+	private static long remix(long x) {
+		x ^= x >>> 29;
+		return x * 0xBF58476D1CE4E5B9L;
+	}
+}
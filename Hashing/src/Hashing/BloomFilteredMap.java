@@ -0,0 +1,134 @@
+package Hashing;
+
+/**
+ * A Map behind a BlockedBloomFilter that answers most lookups of absent keys
+ * without touching the map.
+ *
+ * Every put adds the key to the filter. A filter cannot forget keys, so after
+ * removes it holds stale ones, which only cost false positives; it is rebuilt
+ * from the map once the removes since the last rebuild reach the number of
+ * live keys. It is also rebuilt at twice the size when the map outgrows the
+ * count it was sized for. The backing map must not be changed except through
+ * this one.
+ */
+public class BloomFilteredMap<K,V> implements Map<K,V> {
+	private final Map<K,V> map;
+	private final double fpp;
+	private final HashStrategy hashStrategy;
+	private BlockedBloomFilter filter;
+	private int removedSinceRebuild;
+	private long rejected;
+
+	public BloomFilteredMap(Map<K,V> map, int expected, double fpp) {
+		this(map, expected, fpp, HashStrategy.MURMUR3);
+	}
+
+	/**
+	 *
+	 * @param map          : the map lookups fall through to, may already hold keys
+	 * @param expected     : number of keys the filter is sized for at first
+	 * @param fpp          : target false positive rate of the filter
+	 * @param hashStrategy : mixer the filter applies to key hash codes
+	 */
+	public BloomFilteredMap(Map<K,V> map, int expected, double fpp, HashStrategy hashStrategy) {
+		if (map == null || hashStrategy == null)
+			throw new IllegalArgumentException("map and hashStrategy must not be null");
+		this.map = map;
+		this.fpp = fpp;
+		this.hashStrategy = hashStrategy;
+		filter = new BlockedBloomFilter(Math.max(expected, map.size()), fpp);
+		MapCursor<K,V> c = map.cursor();
+		while (c.advance())
+			filter.add(hashStrategy.hash(c.key()));
+	}
+
+	@Override
+	public void put(K key, V value) {
+		map.put(key, value);
+		if (map.size() > filter.expected())
+			rebuild(2 * map.size());
+		else
+			filter.add(hashStrategy.hash(key));
+	}
+
+	@Override
+	public V get(Object key) {
+		if (!filter.mightContain(hashStrategy.hash(key))) {
+			rejected++;
+			throw new RuntimeException("key not found");
+		}
+		return map.get(key);
+	}
+
+	@Override
+	public boolean containsKey(K key) {
+		if (!filter.mightContain(hashStrategy.hash(key))) {
+			rejected++;
+			return false;
+		}
+		return map.containsKey(key);
+	}
+
+	@Override
+	public V remove(Object key) {
+		if (!filter.mightContain(hashStrategy.hash(key))) {
+			rejected++;
+			return null;
+		}
+		V ret = map.remove(key);
+		if (ret != null && ++removedSinceRebuild >= map.size())
+			rebuild(filter.expected());
+		return ret;
+	}
+
+	@Override
+	public int size() {
+		return map.size();
+	}
+
+	@Override
+	public void clear() {
+		map.clear();
+		filter.clear();
+		removedSinceRebuild = 0;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return map.isEmpty();
+	}
+
+	@Override
+	public MapCursor<K,V> cursor() {
+		return map.cursor();
+	}
+
+	/**
+	 * @return lookups, including removes, the filter answered without the map
+	 */
+	public long rejected() {
+		return rejected;
+	}
+
+	public BlockedBloomFilter filter() {
+		return filter;
+	}
+
+	/**
+	 * Refills the filter from the map's keys, dropping the stale ones.
+	 */
+	public void rebuild() {
+		rebuild(Math.max(filter.expected(), map.size()));
+	}
+
+	// 	PRIVATE HELPERS
+
+	private void rebuild(int expected) {
+		BlockedBloomFilter fresh = new BlockedBloomFilter(expected, fpp);
+		MapCursor<K,V> c = map.cursor();
+		while (c.advance())
+			fresh.add(hashStrategy.hash(c.key()));
+		filter = fresh;
+		removedSinceRebuild = 0;
+	}
+}
@@ -0,0 +1,359 @@
+package Hashing;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Spliterator;
+
+/**
+ * Cuckoo hashing with 4 slots per bucket.
+ *
+ * A key may live in any slot of its two candidate buckets. The slots of a
+ * bucket sit next to each other in the keys / values / hashes arrays, so a
+ * lookup reads at most two short contiguous runs. With four slots to choose
+ * from, evictions rarely fail and the table only grows once it is 95% full.
+ */
+public class BucketizedCuckooHashMap<K,V> implements Map<K,V> {
+	private static final int SLOTS_PER_BUCKET = 4;
+	private static final int DEFAULT_BUCKETS = 4;
+	private static final double MAX_LOAD_FACTOR = 0.95;
+	private static final int MAX_KICKS = 500;
+	private static final int MAX_BUCKETS = 1 << 28;
+
+	private Object[] keys;
+	private Object[] values;
+	private int[] hashes;
+	private int numBuckets;
+	private int mask;
+	private int size;
+	private int threshold;
+	// xorshift state for picking the slot to evict
+	private int seed = 0x2545F491;
+	// entry dropped by an eviction walk that ran out of kicks
+	private Object homelessKey, homelessValue;
+	private int homelessHash;
+	private final HashStrategy hashStrategy;
+	// null unless trackStats(true)
+	private StatsRecorder stats;
+
+	public BucketizedCuckooHashMap() {
+		this(DEFAULT_BUCKETS * SLOTS_PER_BUCKET);
+	}
+
+	public BucketizedCuckooHashMap(int expectedSize) {
+		this(expectedSize, HashStrategy.FIBONACCI);
+	}
+
+	public BucketizedCuckooHashMap(int expectedSize, HashStrategy hashStrategy) {
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("expectedSize must be non-negative");
+		if (hashStrategy == null)
+			throw new IllegalArgumentException("hashStrategy must not be null");
+		this.hashStrategy = hashStrategy;
+		int buckets = DEFAULT_BUCKETS;
+		while (buckets * SLOTS_PER_BUCKET * MAX_LOAD_FACTOR < expectedSize && buckets < MAX_BUCKETS)
+			buckets <<= 1;
+		allocate(buckets);
+	}
+
+	@Override
+	public void put(K key, V value) {
+		int h = hash(key);
+		int slot = find(key, h);
+		if (slot >= 0) {
+			values[slot] = value;
+			return;
+		}
+		if (size >= threshold)
+			resize();
+		if (!insert(h, key, value)) {
+			if (stats != null)
+				stats.cycle();
+			// grow until the entry left over by the failed eviction walk finds a slot
+			do {
+				Object k = homelessKey, v = homelessValue;
+				h = homelessHash;
+				resize();
+				homelessKey = k;
+				homelessValue = v;
+				homelessHash = h;
+			} while (!insert(homelessHash, homelessKey, homelessValue));
+			homelessKey = null;
+			homelessValue = null;
+		}
+		size++;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(Object key) {
+		int slot = find(key, hash(key));
+		if (slot < 0)
+			throw new RuntimeException("Element not found");
+		return (V) values[slot];
+	}
+
+	@Override
+	public boolean containsKey(K key) {
+		return find(key, hash(key)) >= 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V remove(Object key) {
+		int slot = find(key, hash(key));
+		if (slot < 0)
+			return null;
+		V ret = (V) values[slot];
+		keys[slot] = null;
+		values[slot] = null;
+		size--;
+		return ret;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		allocate(numBuckets);
+		size = 0;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int capacity() {
+		return numBuckets * SLOTS_PER_BUCKET;
+	}
+
+	public double loadFactor() {
+		return size * 1.0 / capacity();
+	}
+
+	/**
+	 * Starts or stops collecting statistics. Key searches, including the one
+	 * each put makes, count one probe per bucket read; evictions count as
+	 * displacements, and an eviction walk that runs out of kicks as a cycle.
+	 * Stopping drops what was collected.
+	 */
+	public void trackStats(boolean on) {
+		if (!on)
+			stats = null;
+		else if (stats == null)
+			stats = new StatsRecorder();
+	}
+
+	/**
+	 * @return statistics collected since tracking started, or null when it is off
+	 */
+	public HashStats stats() {
+		StatsRecorder recorder = stats;
+		return recorder == null ? null : recorder.snapshot(size, capacity(), new long[0]);
+	}
+
+	public void display() {
+		for (int b = 0; b < numBuckets; b++) {
+			System.out.print("[");
+			for (int s = 0; s < SLOTS_PER_BUCKET; s++) {
+				int i = b * SLOTS_PER_BUCKET + s;
+				if (keys[i] != null)
+					System.out.print(keys[i] + ":" + values[i] + ", ");
+				else
+					System.out.print("null, ");
+			}
+			System.out.print("] ");
+		}
+		System.out.println();
+	}
+
+	public Set<Object> keySet() {
+		Set<Object> res = new HashSet<Object>();
+		for (Object k : keys) {
+			if (k != null)
+				res.add(k);
+		}
+		return res;
+	}
+
+	@Override
+	public MapCursor<K,V> cursor() {
+		return new Cursor(0, keys.length);
+	}
+
+	@Override
+	public Spliterator<K> keySpliterator() {
+		return new Cursor(0, keys.length);
+	}
+
+	// 	PRIVATE HELPERS
+
+	private int find(Object key, int h) {
+		int b1 = firstBucket(h);
+		for (int i = b1 * SLOTS_PER_BUCKET, end = i + SLOTS_PER_BUCKET; i < end; i++) {
+			if (keys[i] != null && hashes[i] == h && keys[i].equals(key)) {
+				if (stats != null)
+					stats.probe(true, 1);
+				return i;
+			}
+		}
+		int b2 = secondBucket(h, b1);
+		for (int i = b2 * SLOTS_PER_BUCKET, end = i + SLOTS_PER_BUCKET; i < end; i++) {
+			if (keys[i] != null && hashes[i] == h && keys[i].equals(key)) {
+				if (stats != null)
+					stats.probe(true, 2);
+				return i;
+			}
+		}
+		if (stats != null)
+			stats.probe(false, 2);
+		return -1;
+	}
+
+	private int freeSlot(int bucket) {
+		for (int i = bucket * SLOTS_PER_BUCKET, end = i + SLOTS_PER_BUCKET; i < end; i++) {
+			if (keys[i] == null)
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Places an entry known to be absent, evicting residents along a random
+	 * walk when both buckets are full.
+	 *
+	 * @return false if MAX_KICKS evictions were not enough, the entry left
+	 *         without a slot is then kept in the homeless fields
+	 */
+	private boolean insert(int h, Object key, Object value) {
+		int b1 = firstBucket(h);
+		int b2 = secondBucket(h, b1);
+		int slot = freeSlot(b1);
+		if (slot < 0)
+			slot = freeSlot(b2);
+		if (slot >= 0) {
+			store(slot, h, key, value);
+			return true;
+		}
+		int bucket = (nextRandom() & 1) == 0 ? b1 : b2;
+		for (int kick = 0; kick < MAX_KICKS; kick++) {
+			int victim = bucket * SLOTS_PER_BUCKET + (nextRandom() & (SLOTS_PER_BUCKET - 1));
+			Object vk = keys[victim], vv = values[victim];
+			int vh = hashes[victim];
+			store(victim, h, key, value);
+			key = vk;
+			value = vv;
+			h = vh;
+			int first = firstBucket(h);
+			bucket = bucket == first ? secondBucket(h, first) : first;
+			slot = freeSlot(bucket);
+			if (slot >= 0) {
+				store(slot, h, key, value);
+				if (stats != null)
+					stats.displaced(kick + 1);
+				return true;
+			}
+		}
+		if (stats != null)
+			stats.displaced(MAX_KICKS);
+		homelessKey = key;
+		homelessValue = value;
+		homelessHash = h;
+		return false;
+	}
+
+	private void store(int slot, int h, Object key, Object value) {
+		keys[slot] = key;
+		values[slot] = value;
+		hashes[slot] = h;
+	}
+
+	private void resize() {
+		long start = stats != null ? System.nanoTime() : 0;
+		Object[] oldKeys = keys;
+		Object[] oldValues = values;
+		int[] oldHashes = hashes;
+		int buckets = numBuckets;
+		boolean placed;
+		do {
+			buckets <<= 1;
+			if (buckets > MAX_BUCKETS)
+				throw new IllegalStateException("BucketizedCuckooHashMap cannot grow beyond " + MAX_BUCKETS + " buckets");
+			allocate(buckets);
+			placed = true;
+			for (int i = 0; i < oldKeys.length && placed; i++) {
+				if (oldKeys[i] != null)
+					placed = insert(oldHashes[i], oldKeys[i], oldValues[i]);
+			}
+		} while (!placed);
+		if (stats != null)
+			stats.resized(System.nanoTime() - start);
+	}
+
+	private void allocate(int buckets) {
+		numBuckets = buckets;
+		mask = buckets - 1;
+		keys = new Object[buckets * SLOTS_PER_BUCKET];
+		values = new Object[buckets * SLOTS_PER_BUCKET];
+		hashes = new int[buckets * SLOTS_PER_BUCKET];
+		threshold = (int) (buckets * SLOTS_PER_BUCKET * MAX_LOAD_FACTOR);
+	}
+
+	private int firstBucket(int h) {
+		return h & mask;
+	}
+
+	/**
+	 * Alternate bucket, mixed from the upper half of the hash so that keys
+	 * sharing a first bucket spread over different second buckets.
+	 */
+	private int secondBucket(int h, int first) {
+		int g = Integer.rotateLeft(h, 16) * 0x85EBCA6B;
+		int b = (g ^ (g >>> 13)) & mask;
+		return b != first ? b : (first + 1) & mask;
+	}
+
+	private int nextRandom() {
+		int x = seed;
+		x ^= x << 13;
+		x ^= x >>> 17;
+		x ^= x << 5;
+		seed = x;
+		return x;
+	}
+
+	private int hash(Object key) {
+		return hashStrategy.hash(key);
+	}
+
+	private final class Cursor extends SlotCursor<K,V> {
+		Cursor(int origin, int fence) {
+			super(origin, fence);
+		}
+
+		@Override
+		boolean occupied(int slot) {
+			return keys[slot] != null;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		K keyAt(int slot) {
+			return (K) keys[slot];
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		V valueAt(int slot) {
+			return (V) values[slot];
+		}
+
+		@Override
+		SlotCursor<K,V> slice(int origin, int fence) {
+			return new Cursor(origin, fence);
+		}
+	}
+}
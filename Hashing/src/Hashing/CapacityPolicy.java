@@ -0,0 +1,46 @@
+package Hashing;
+
+/**
+ * Table sizing shared by LinearHashMap, DoubleHashMap, CuckooHashTable and
+ * the AbstractMap family.
+ *
+ * Capacities are powers of two, so an index is hash & (capacity - 1)
+ * instead of an integer division per probe. Masking keeps only the low bits
+ * of the hash, which is why these maps default to a mixing HashStrategy.
+ */
+public final class CapacityPolicy {
+	public static final int MAX_CAPACITY = 1 << 30;
+
+	private CapacityPolicy() {
+	}
+
+	/**
+	 * @return the smallest power of two that is at least n and at least 1
+	 */
+	public static int tableSizeFor(int n) {
+		if (n > MAX_CAPACITY)
+			throw new IllegalArgumentException("capacity " + n + " exceeds " + MAX_CAPACITY);
+		return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+	}
+
+	public static int indexFor(int hash, int capacity) {
+		return hash & (capacity - 1);
+	}
+
+	/**
+	 * A second hash drawn mostly from the bits indexFor ignores, for the
+	 * second table of a cuckoo map or the step of double hashing.
+	 */
+	public static int secondHash(int hash) {
+		int g = Integer.rotateLeft(hash, 16) * 0x85EBCA6B;
+		return g ^ (g >>> 13);
+	}
+
+	/**
+	 * Probe step for double hashing. An odd step is coprime with a power of
+	 * two capacity, so the probe sequence visits every slot exactly once.
+	 */
+	public static int oddStep(int hash, int capacity) {
+		return (secondHash(hash) | 1) & (capacity - 1);
+	}
+}
@@ -2,9 +2,9 @@ package Hashing;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
-public class ChainedHashMap<K,V> extends AbstractMap {
-	private Object[] keys, values;
+public class ChainedHashMap<K,V> extends AbstractMap<K,V> {
 	public ChainedHashMap(){
 		size = 0;
 		for(int i=0;i<numBuckets;i++)
@@ -12,16 +12,46 @@ public class ChainedHashMap<K,V> extends AbstractMap {
 			bucket.add(null);
 		}
 	}
+	/**
+	 * 
+	 * @param incremental : spread each resize over later operations instead of rehashing everything at once
+	 */
+	public ChainedHashMap(boolean incremental){
+		this();
+		this.incremental = incremental;
+	}
+	public ChainedHashMap(HashStrategy hashStrategy){
+		this();
+		this.hashStrategy = hashStrategy;
+	}
+	public ChainedHashMap(boolean incremental, HashStrategy hashStrategy){
+		this(incremental);
+		this.hashStrategy = hashStrategy;
+	}
+	/**
+	 * 
+	 * @param pool : pool that resizes of large tables run on, null to resize on the calling thread
+	 */
+	public void setResizePool(ForkJoinPool pool){
+		this.resizePool = pool;
+	}
 	@Override
 	public void display() {
 		// TODO Auto-generated method stub
 		
 	}
 	@Override
-	public Set keySet() {
+	public Set<Object> keySet() {
 		Set<Object> res = new HashSet<Object>();
 		for(int i = 0; i < numBuckets; i++) {
-			Entry<K,V> entry = (Entry<K, V>) bucket.get(i);
+			Entry<K,V> entry = chainOf(bucket.get(i));
+			while(entry!=null) {
+				res.add(entry.key);
+				entry = entry.next;
+			}
+		}
+		for(int i = 0; oldBucket != null && i < oldNumBuckets; i++) {
+			Entry<K,V> entry = chainOf(oldBucket.get(i));
 			while(entry!=null) {
 				res.add(entry.key);
 				entry = entry.next;
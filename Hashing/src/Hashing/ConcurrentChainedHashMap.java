@@ -0,0 +1,425 @@
+package Hashing;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe chained hash map split into independently locked stripes.
+ *
+ * The upper bits of a key's hash pick its stripe and the lower bits its
+ * bucket inside that stripe's own table. put and remove lock only that
+ * stripe, and a stripe grows or shrinks its table on its own without
+ * stopping the others. get and containsKey take no lock: buckets are read
+ * through an AtomicReferenceArray and chains through the volatile
+ * Node.next, and a node's key and value are final (an update links in a
+ * replacement node), so a reader always sees fully built entries. The
+ * volatile link is kept to this map's own node class, so the single-threaded
+ * maps that share Entry do not pay for it.
+ */
+public class ConcurrentChainedHashMap<K,V> implements Map<K,V> {
+	private static final int DEFAULT_STRIPES = 16;
+	private static final int MIN_STRIPE_BUCKETS = 4;
+	private static final int MAX_STRIPE_BUCKETS = 1 << 30;
+
+	private static final class Node<K,V> {
+		final K key;
+		final V value;
+		volatile Node<K,V> next;
+
+		Node(K key, V value, Node<K,V> next) {
+			this.key = key;
+			this.value = value;
+			this.next = next;
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static final class Stripe<K,V> extends ReentrantLock {
+		volatile AtomicReferenceArray<Node<K,V>> table;
+		volatile int count;
+
+		Stripe(int buckets) {
+			table = new AtomicReferenceArray<>(buckets);
+		}
+	}
+
+	private final Stripe<K,V>[] stripes;
+	private final int stripeShift;
+	private final HashStrategy hashStrategy;
+	// one per stripe, null unless trackStats(true)
+	private volatile StatsRecorder[] stats;
+
+	public ConcurrentChainedHashMap() {
+		this(DEFAULT_STRIPES);
+	}
+
+	public ConcurrentChainedHashMap(int concurrency) {
+		this(concurrency, HashStrategy.FIBONACCI);
+	}
+
+	/**
+	 *
+	 * @param concurrency  : number of stripes, rounded up to a power of two
+	 * @param hashStrategy : mixer applied to key hash codes
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public ConcurrentChainedHashMap(int concurrency, HashStrategy hashStrategy) {
+		if (concurrency <= 0 || hashStrategy == null)
+			throw new IllegalArgumentException();
+		this.hashStrategy = hashStrategy;
+		int n = 1, shift = 0;
+		while (n < concurrency) {
+			n <<= 1;
+			shift++;
+		}
+		stripes = new Stripe[n];
+		for (int i = 0; i < n; i++)
+			stripes[i] = new Stripe<>(MIN_STRIPE_BUCKETS);
+		// stripe index comes from the top bits, bucket index from the bottom bits
+		stripeShift = 32 - shift;
+	}
+
+	@Override
+	public void put(K key, V value) {
+		int h = hash(key);
+		int s = stripeIndex(h);
+		Stripe<K,V> stripe = stripes[s];
+		stripe.lock();
+		try {
+			AtomicReferenceArray<Node<K,V>> tab = stripe.table;
+			int index = h & (tab.length() - 1);
+			Node<K,V> head = tab.get(index);
+			Node<K,V> prev = null;
+			int probes = 0;
+			for (Node<K,V> e = head; e != null; prev = e, e = e.next) {
+				probes++;
+				if (e.key.equals(key)) {
+					record(s, true, probes);
+					// replace rather than mutate so readers never see a half-written value
+					Node<K,V> toAdd = new Node<>(key, value, e.next);
+					if (prev == null)
+						tab.set(index, toAdd);
+					else
+						prev.next = toAdd;
+					return;
+				}
+			}
+			record(s, false, probes);
+			tab.set(index, new Node<>(key, value, head));
+			int count = stripe.count + 1;
+			stripe.count = count;
+			if (count > tab.length() * 3 / 4 && tab.length() < MAX_STRIPE_BUCKETS)
+				rehash(s, tab.length() << 1);
+		} finally {
+			stripe.unlock();
+		}
+	}
+
+	@Override
+	public V get(Object key) {
+		Node<K,V> e = find(key);
+		if (e == null)
+			throw new RuntimeException("Key not found");
+		return e.value;
+	}
+
+	@Override
+	public boolean containsKey(K key) {
+		return find(key) != null;
+	}
+
+	@Override
+	public V remove(Object key) {
+		int h = hash(key);
+		int s = stripeIndex(h);
+		Stripe<K,V> stripe = stripes[s];
+		stripe.lock();
+		try {
+			AtomicReferenceArray<Node<K,V>> tab = stripe.table;
+			int index = h & (tab.length() - 1);
+			Node<K,V> prev = null;
+			for (Node<K,V> e = tab.get(index); e != null; prev = e, e = e.next) {
+				if (e.key.equals(key)) {
+					if (prev == null)
+						tab.set(index, e.next);
+					else
+						prev.next = e.next;
+					int count = stripe.count - 1;
+					stripe.count = count;
+					if (count <= tab.length() / 4 && tab.length() > MIN_STRIPE_BUCKETS)
+						rehash(s, tab.length() >> 1);
+					return e.value;
+				}
+			}
+			return null;
+		} finally {
+			stripe.unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+		int total = 0;
+		for (Stripe<K,V> stripe : stripes)
+			total += stripe.count;
+		return total;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		for (Stripe<K,V> stripe : stripes) {
+			if (stripe.count != 0)
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		for (Stripe<K,V> stripe : stripes) {
+			stripe.lock();
+			try {
+				stripe.table = new AtomicReferenceArray<>(MIN_STRIPE_BUCKETS);
+				stripe.count = 0;
+			} finally {
+				stripe.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Starts or stops collecting statistics. Each stripe has its own recorder,
+	 * which put fills under the stripe's lock; get and containsKey take no
+	 * lock, so their counts are approximate while several threads read one
+	 * stripe. Stopping drops what was collected.
+	 */
+	public void trackStats(boolean on) {
+		if (!on) {
+			stats = null;
+		} else if (stats == null) {
+			StatsRecorder[] recorders = new StatsRecorder[stripes.length];
+			for (int i = 0; i < recorders.length; i++)
+				recorders[i] = new StatsRecorder();
+			stats = recorders;
+		}
+	}
+
+	/**
+	 * @return statistics of all stripes added together, or null when tracking is off
+	 */
+	public HashStats stats() {
+		StatsRecorder[] recorders = stats;
+		if (recorders == null)
+			return null;
+		StatsRecorder total = new StatsRecorder();
+		long[] chainLengths = new long[StatsRecorder.HISTOGRAM_SIZE];
+		int buckets = 0;
+		for (int s = 0; s < stripes.length; s++) {
+			total.add(recorders[s]);
+			AtomicReferenceArray<Node<K,V>> tab = stripes[s].table;
+			buckets += tab.length();
+			for (int i = 0; i < tab.length(); i++) {
+				int length = 0;
+				for (Node<K,V> e = tab.get(i); e != null; e = e.next)
+					length++;
+				StatsRecorder.countLength(chainLengths, length);
+			}
+		}
+		return total.snapshot(size(), buckets, chainLengths);
+	}
+
+	public void display() {
+		for (Stripe<K,V> stripe : stripes) {
+			AtomicReferenceArray<Node<K,V>> tab = stripe.table;
+			for (int i = 0; i < tab.length(); i++) {
+				for (Node<K,V> e = tab.get(i); e != null; e = e.next)
+					System.out.print(e.key + ":" + e.value + ", ");
+			}
+		}
+		System.out.println();
+	}
+
+	/**
+	 * Weakly consistent: reflects each stripe as it was when it was visited.
+	 */
+	public Set<Object> keySet() {
+		Set<Object> res = new HashSet<Object>();
+		for (Stripe<K,V> stripe : stripes) {
+			AtomicReferenceArray<Node<K,V>> tab = stripe.table;
+			for (int i = 0; i < tab.length(); i++) {
+				for (Node<K,V> e = tab.get(i); e != null; e = e.next)
+					res.add(e.key);
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Weakly consistent like keySet.
+	 */
+	@Override
+	public MapCursor<K,V> cursor() {
+		return new StripeCursor(0, stripes.length);
+	}
+
+	/**
+	 * Splits by stripe.
+	 */
+	@Override
+	public Spliterator<K> keySpliterator() {
+		return new StripeCursor(0, stripes.length);
+	}
+
+	private final class StripeCursor implements MapCursor<K,V>, Spliterator<K> {
+		private int nextStripe;
+		private final int fence;
+		private AtomicReferenceArray<Node<K,V>> tab;
+		private int nextBucket;
+		private Node<K,V> entry;
+		private Node<K,V> pending;
+
+		StripeCursor(int origin, int fence) {
+			this.nextStripe = origin;
+			this.fence = fence;
+		}
+
+		@Override
+		public boolean advance() {
+			while (pending == null) {
+				if (tab == null || nextBucket == tab.length()) {
+					if (nextStripe >= fence)
+						return false;
+					tab = stripes[nextStripe++].table;
+					nextBucket = 0;
+					continue;
+				}
+				pending = tab.get(nextBucket++);
+			}
+			entry = pending;
+			pending = pending.next;
+			return true;
+		}
+
+		@Override
+		public K key() {
+			return entry.key;
+		}
+
+		@Override
+		public V value() {
+			return entry.value;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super K> action) {
+			if (!advance())
+				return false;
+			action.accept(entry.key);
+			return true;
+		}
+
+		@Override
+		public Spliterator<K> trySplit() {
+			int mid = nextStripe + ((fence - nextStripe) >>> 1);
+			if (mid <= nextStripe)
+				return null;
+			StripeCursor prefix = new StripeCursor(nextStripe, mid);
+			nextStripe = mid;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			long n = 0;
+			for (int i = nextStripe; i < fence; i++)
+				n += stripes[i].count;
+			return n;
+		}
+
+		@Override
+		public int characteristics() {
+			return DISTINCT | NONNULL | CONCURRENT;
+		}
+	}
+
+	// 	PRIVATE HELPERS
+
+	private Node<K,V> find(Object key) {
+		int h = hash(key);
+		int s = stripeIndex(h);
+		AtomicReferenceArray<Node<K,V>> tab = stripes[s].table;
+		int probes = 0;
+		for (Node<K,V> e = tab.get(h & (tab.length() - 1)); e != null; e = e.next) {
+			probes++;
+			if (e.key.equals(key)) {
+				record(s, true, probes);
+				return e;
+			}
+		}
+		record(s, false, probes);
+		return null;
+	}
+
+	private int stripeIndex(int h) {
+		return stripes.length == 1 ? 0 : h >>> stripeShift;
+	}
+
+	private void record(int stripe, boolean found, int probes) {
+		StatsRecorder[] recorders = stats;
+		if (recorders != null)
+			recorders[stripe].probe(found, probes);
+	}
+
+	/**
+	 * Builds a new table for one stripe while holding its lock. Entries are
+	 * copied instead of relinked because readers may still be walking the old
+	 * chains; only the trailing run of a chain that lands in a single new
+	 * bucket is reused as is.
+	 */
+	private void rehash(int s, int newLength) {
+		StatsRecorder[] recorders = stats;
+		long start = recorders != null ? System.nanoTime() : 0;
+		Stripe<K,V> stripe = stripes[s];
+		AtomicReferenceArray<Node<K,V>> old = stripe.table;
+		AtomicReferenceArray<Node<K,V>> tab = new AtomicReferenceArray<>(newLength);
+		int mask = newLength - 1;
+		for (int i = 0; i < old.length(); i++) {
+			Node<K,V> head = old.get(i);
+			if (head == null)
+				continue;
+			Node<K,V> lastRun = head;
+			int lastIndex = hash(head.key) & mask;
+			for (Node<K,V> e = head.next; e != null; e = e.next) {
+				int index = hash(e.key) & mask;
+				if (index != lastIndex) {
+					lastIndex = index;
+					lastRun = e;
+				}
+			}
+			// when shrinking two old buckets merge, so the run goes in front of what is there
+			Node<K,V> tail = tab.get(lastIndex);
+			if (tail == null) {
+				tab.set(lastIndex, lastRun);
+			} else {
+				for (Node<K,V> e = lastRun; e != null; e = e.next)
+					tail = new Node<>(e.key, e.value, tail);
+				tab.set(lastIndex, tail);
+			}
+			for (Node<K,V> e = head; e != lastRun; e = e.next) {
+				int index = hash(e.key) & mask;
+				tab.set(index, new Node<>(e.key, e.value, tab.get(index)));
+			}
+		}
+		stripe.table = tab;
+		if (recorders != null)
+			recorders[s].resized(System.nanoTime() - start);
+	}
+
+	private int hash(Object key) {
+		return hashStrategy.hash(key);
+	}
+}
@@ -0,0 +1,558 @@
+package Hashing;
+
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Thread-safe cuckoo hash table.
+ *
+ * Keys live in one of two candidate buckets of 4 slots. Buckets map onto a
+ * fixed set of lock stripes, each with a version counter that is odd while a
+ * writer is changing one of its buckets.
+ *
+ * Readers take no locks: they read the versions of both stripes, scan the two
+ * buckets and retry if either version moved, which catches a key being
+ * displaced between the buckets mid-read. Writers lock the two stripes in
+ * index order. A full pair of buckets is handled by searching a cuckoo path
+ * without locks and then performing its moves one at a time, each under the
+ * locks of the two buckets involved and re-validated before it is applied.
+ */
+public class ConcurrentCuckooHashTable<Key, Value> {
+	private static final int SLOTS_PER_BUCKET = 4;
+	private static final int DEFAULT_BUCKETS = 16;
+	private static final int DEFAULT_STRIPES = 256;
+	private static final double MAX_LOAD_FACTOR = 0.95;
+	private static final int MAX_PATH_DEPTH = 5;
+	private static final int MAX_PATH_NODES = 1024;
+	private static final int MAX_BUCKETS = 1 << 28;
+
+	private static final class Table {
+		final AtomicReferenceArray<Object> keys;
+		final AtomicReferenceArray<Object> values;
+		final int[] hashes;
+		final int numBuckets;
+		final int mask;
+
+		Table(int numBuckets) {
+			this.numBuckets = numBuckets;
+			this.mask = numBuckets - 1;
+			keys = new AtomicReferenceArray<>(numBuckets * SLOTS_PER_BUCKET);
+			values = new AtomicReferenceArray<>(numBuckets * SLOTS_PER_BUCKET);
+			hashes = new int[numBuckets * SLOTS_PER_BUCKET];
+		}
+
+		int first(int h) {
+			return h & mask;
+		}
+
+		int second(int h, int first) {
+			int g = Integer.rotateLeft(h, 16) * 0x85EBCA6B;
+			int b = (g ^ (g >>> 13)) & mask;
+			return b != first ? b : (first + 1) & mask;
+		}
+
+		int alternate(int h, int bucket) {
+			int first = first(h);
+			return bucket == first ? second(h, first) : first;
+		}
+	}
+
+	// arrays of the breadth-first search in makeRoom, one set per thread
+	private static final class PathScratch {
+		final int[] bucketOf = new int[MAX_PATH_NODES];
+		final int[] parentOf = new int[MAX_PATH_NODES];
+		// slot of the parent bucket whose key moves into this node's bucket
+		final int[] slotOf = new int[MAX_PATH_NODES];
+		final int[] depthOf = new int[MAX_PATH_NODES];
+	}
+
+	private static final ThreadLocal<PathScratch> SCRATCH = ThreadLocal.withInitial(PathScratch::new);
+
+	private volatile Table table;
+	private final ReentrantLock[] locks;
+	private final AtomicLongArray versions;
+	private final int stripeMask;
+	private final LongAdder size = new LongAdder();
+	private final HashStrategy hashStrategy;
+	// one per lock stripe, null unless trackStats(true)
+	private volatile StatsRecorder[] stats;
+
+	public ConcurrentCuckooHashTable() {
+		this(DEFAULT_BUCKETS * SLOTS_PER_BUCKET, DEFAULT_STRIPES);
+	}
+
+	public ConcurrentCuckooHashTable(int capacity) {
+		this(capacity, DEFAULT_STRIPES);
+	}
+
+	public ConcurrentCuckooHashTable(int capacity, int stripes) {
+		this(capacity, stripes, HashStrategy.FIBONACCI);
+	}
+
+	/**
+	 *
+	 * @param capacity     : number of slots to start with
+	 * @param stripes      : number of lock stripes, rounded up to a power of two
+	 * @param hashStrategy : mixer applied to key hash codes
+	 */
+	public ConcurrentCuckooHashTable(int capacity, int stripes, HashStrategy hashStrategy) {
+		if (capacity < 0 || stripes <= 0 || hashStrategy == null)
+			throw new IllegalArgumentException();
+		this.hashStrategy = hashStrategy;
+		int buckets = 2;
+		while (buckets * SLOTS_PER_BUCKET < capacity && buckets < MAX_BUCKETS)
+			buckets <<= 1;
+		int n = 1;
+		while (n < stripes)
+			n <<= 1;
+		table = new Table(buckets);
+		locks = new ReentrantLock[n];
+		for (int i = 0; i < n; i++)
+			locks[i] = new ReentrantLock();
+		versions = new AtomicLongArray(n);
+		stripeMask = n - 1;
+	}
+
+	public int size() {
+		return size.intValue();
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public int capacity() {
+		return table.numBuckets * SLOTS_PER_BUCKET;
+	}
+
+	public double loadFactor() {
+		return size() * 1.0 / capacity();
+	}
+
+	@SuppressWarnings("unchecked")
+	public Value get(Key key) {
+		if (key == null)
+			throw new IllegalArgumentException();
+		int h = hash(key);
+		while (true) {
+			Table t = table;
+			int b1 = t.first(h);
+			int b2 = t.second(h, b1);
+			int s1 = b1 & stripeMask, s2 = b2 & stripeMask;
+			long v1 = versions.get(s1), v2 = versions.get(s2);
+			if (((v1 | v2) & 1) != 0) {
+				// a writer is in one of the buckets
+				Thread.onSpinWait();
+				continue;
+			}
+			Object value = null;
+			int probes = 1;
+			int slot = slotOf(t, b1, key, h);
+			if (slot < 0) {
+				probes = 2;
+				slot = slotOf(t, b2, key, h);
+			}
+			if (slot >= 0)
+				value = t.values.get(slot);
+			if (versions.get(s1) == v1 && versions.get(s2) == v2 && table == t) {
+				StatsRecorder[] recorders = stats;
+				if (recorders != null)
+					recorders[s1].probe(value != null, probes);
+				return (Value) value;
+			}
+		}
+	}
+
+	public boolean containsKey(Key key) {
+		return get(key) != null;
+	}
+
+	public void put(Key key, Value val) {
+		if (key == null || val == null)
+			throw new IllegalArgumentException();
+		int h = hash(key);
+		// a put that has to make room searches again, but counts as one lookup
+		boolean counted = false;
+		while (true) {
+			Table t = table;
+			int b1 = t.first(h);
+			int b2 = t.second(h, b1);
+			lockPair(b1, b2);
+			try {
+				if (t != table)
+					continue;
+				int probes = 1;
+				int slot = slotOf(t, b1, key, h);
+				if (slot < 0) {
+					probes = 2;
+					slot = slotOf(t, b2, key, h);
+				}
+				StatsRecorder[] recorders = stats;
+				if (recorders != null && !counted)
+					recorders[b1 & stripeMask].probe(slot >= 0, probes);
+				counted = true;
+				if (slot >= 0) {
+					t.values.set(slot, val);
+					return;
+				}
+				slot = freeSlot(t, b1);
+				if (slot < 0)
+					slot = freeSlot(t, b2);
+				if (slot >= 0) {
+					int s = (slot / SLOTS_PER_BUCKET) & stripeMask;
+					versions.incrementAndGet(s);
+					t.hashes[slot] = h;
+					t.values.set(slot, val);
+					t.keys.set(slot, key);
+					versions.incrementAndGet(s);
+					size.increment();
+					return;
+				}
+			} finally {
+				unlockPair(b1, b2);
+			}
+			// both buckets are full
+			boolean loaded = size.sum() >= t.numBuckets * SLOTS_PER_BUCKET * MAX_LOAD_FACTOR;
+			if (loaded || !makeRoom(t, b1, b2))
+				resize(t, !loaded);
+		}
+	}
+
+	public void remove(Key key) {
+		if (key == null)
+			throw new IllegalArgumentException();
+		int h = hash(key);
+		while (true) {
+			Table t = table;
+			int b1 = t.first(h);
+			int b2 = t.second(h, b1);
+			lockPair(b1, b2);
+			try {
+				if (t != table)
+					continue;
+				int slot = slotOf(t, b1, key, h);
+				if (slot < 0)
+					slot = slotOf(t, b2, key, h);
+				if (slot >= 0) {
+					int s = (slot / SLOTS_PER_BUCKET) & stripeMask;
+					versions.incrementAndGet(s);
+					t.keys.set(slot, null);
+					t.values.set(slot, null);
+					versions.incrementAndGet(s);
+					size.decrement();
+				}
+				return;
+			} finally {
+				unlockPair(b1, b2);
+			}
+		}
+	}
+
+	/**
+	 * Weakly consistent cursor over the table current at the call. Each slot
+	 * is read under its stripe's version like get, so a key always comes with
+	 * its own value; entries moved by concurrent writers may be missed or seen
+	 * twice, and after a resize the cursor goes on over the old table.
+	 */
+	public MapCursor<Key, Value> cursor() {
+		Table t = table;
+		return new Cursor(t, 0, t.keys.length());
+	}
+
+	public void forEach(BiConsumer<? super Key, ? super Value> action) {
+		MapCursor<Key, Value> c = cursor();
+		while (c.advance())
+			action.accept(c.key(), c.value());
+	}
+
+	public Spliterator<Key> keySpliterator() {
+		Table t = table;
+		return new Cursor(t, 0, t.keys.length());
+	}
+
+	/**
+	 * Starts or stops collecting statistics. Key searches, including the one
+	 * each put makes, count one probe per bucket read; moves along a cuckoo
+	 * path count as displacements, and a resize forced by a missing path as
+	 * a cycle. Each lock stripe has its own recorder, filled under its lock
+	 * by writers; lock-free reads make the lookup counts approximate while
+	 * several threads use the table. Stopping drops what was collected.
+	 */
+	public void trackStats(boolean on) {
+		if (!on) {
+			stats = null;
+		} else if (stats == null) {
+			StatsRecorder[] recorders = new StatsRecorder[stripeMask + 1];
+			for (int i = 0; i < recorders.length; i++)
+				recorders[i] = new StatsRecorder();
+			stats = recorders;
+		}
+	}
+
+	/**
+	 * @return statistics of all stripes added together, or null when tracking is off
+	 */
+	public HashStats stats() {
+		StatsRecorder[] recorders = stats;
+		if (recorders == null)
+			return null;
+		StatsRecorder total = new StatsRecorder();
+		for (StatsRecorder recorder : recorders)
+			total.add(recorder);
+		return total.snapshot(size(), capacity(), new long[0]);
+	}
+
+	// 	PRIVATE HELPERS
+
+	private static int slotOf(Table t, int bucket, Object key, int h) {
+		for (int i = bucket * SLOTS_PER_BUCKET, end = i + SLOTS_PER_BUCKET; i < end; i++) {
+			Object k = t.keys.get(i);
+			if (k != null && t.hashes[i] == h && k.equals(key))
+				return i;
+		}
+		return -1;
+	}
+
+	private static int freeSlot(Table t, int bucket) {
+		for (int i = bucket * SLOTS_PER_BUCKET, end = i + SLOTS_PER_BUCKET; i < end; i++) {
+			if (t.keys.get(i) == null)
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Breadth-first search, without locks, for a chain of displacements that
+	 * frees a slot in b1 or b2, then performs it from the far end back. Every
+	 * move locks its two buckets and checks the slot still holds the key the
+	 * search saw, so a racing writer only makes the caller retry.
+	 *
+	 * @return false if no path exists within MAX_PATH_DEPTH moves
+	 */
+	private boolean makeRoom(Table t, int b1, int b2) {
+		PathScratch scratch = SCRATCH.get();
+		int[] bucketOf = scratch.bucketOf;
+		int[] parentOf = scratch.parentOf;
+		int[] slotOf = scratch.slotOf;
+		int[] depthOf = scratch.depthOf;
+		int head = 0, tail = 0;
+		bucketOf[tail] = b1; parentOf[tail] = -1; depthOf[tail++] = 0;
+		bucketOf[tail] = b2; parentOf[tail] = -1; depthOf[tail++] = 0;
+		while (head < tail) {
+			int node = head++;
+			int bucket = bucketOf[node];
+			if (freeSlot(t, bucket) >= 0) {
+				if (parentOf[node] < 0)
+					return true;
+				return performPath(t, node, bucketOf, parentOf, slotOf);
+			}
+			if (depthOf[node] == MAX_PATH_DEPTH)
+				continue;
+			for (int i = bucket * SLOTS_PER_BUCKET, end = i + SLOTS_PER_BUCKET; i < end && tail < MAX_PATH_NODES; i++) {
+				if (t.keys.get(i) == null)
+					continue;
+				bucketOf[tail] = t.alternate(t.hashes[i], bucket);
+				parentOf[tail] = node;
+				slotOf[tail] = i;
+				depthOf[tail++] = depthOf[node] + 1;
+			}
+		}
+		return false;
+	}
+
+	private boolean performPath(Table t, int node, int[] bucketOf, int[] parentOf, int[] slotOf) {
+		while (parentOf[node] >= 0) {
+			int from = slotOf[node];
+			int fromBucket = bucketOf[parentOf[node]];
+			int toBucket = bucketOf[node];
+			lockPair(fromBucket, toBucket);
+			try {
+				Object k = t.keys.get(from);
+				if (t != table || k == null || t.alternate(t.hashes[from], fromBucket) != toBucket)
+					return true;
+				int to = freeSlot(t, toBucket);
+				if (to < 0)
+					return true;
+				int sFrom = fromBucket & stripeMask, sTo = toBucket & stripeMask;
+				versions.incrementAndGet(sFrom);
+				if (sTo != sFrom)
+					versions.incrementAndGet(sTo);
+				t.hashes[to] = t.hashes[from];
+				t.values.set(to, t.values.get(from));
+				t.keys.set(to, k);
+				t.keys.set(from, null);
+				t.values.set(from, null);
+				versions.incrementAndGet(sFrom);
+				if (sTo != sFrom)
+					versions.incrementAndGet(sTo);
+				StatsRecorder[] recorders = stats;
+				if (recorders != null)
+					recorders[sFrom].displaced(1);
+			} finally {
+				unlockPair(fromBucket, toBucket);
+			}
+			node = parentOf[node];
+		}
+		return true;
+	}
+
+	/**
+	 * Doubles the table while holding every stripe, unless another thread
+	 * already replaced it.
+	 *
+	 * @param cycle : true when no cuckoo path was found, rather than the table being full
+	 */
+	private void resize(Table expected, boolean cycle) {
+		for (ReentrantLock lock : locks)
+			lock.lock();
+		try {
+			if (table != expected)
+				return;
+			StatsRecorder[] recorders = stats;
+			long start = recorders != null ? System.nanoTime() : 0;
+			for (int s = 0; s <= stripeMask; s++)
+				versions.incrementAndGet(s);
+			Table bigger = null;
+			int buckets = expected.numBuckets;
+			while (bigger == null) {
+				buckets <<= 1;
+				if (buckets > MAX_BUCKETS)
+					throw new IllegalStateException("ConcurrentCuckooHashTable cannot grow beyond " + MAX_BUCKETS + " buckets");
+				bigger = rehash(expected, buckets);
+			}
+			table = bigger;
+			for (int s = 0; s <= stripeMask; s++)
+				versions.incrementAndGet(s);
+			// every lock is held, so any stripe's recorder will do
+			if (recorders != null) {
+				if (cycle)
+					recorders[0].cycle();
+				recorders[0].resized(System.nanoTime() - start);
+			}
+		} finally {
+			for (int i = locks.length - 1; i >= 0; i--)
+				locks[i].unlock();
+		}
+	}
+
+	/**
+	 * Single threaded copy into a fresh table with random-walk eviction.
+	 *
+	 * @return null if some key could not be placed
+	 */
+	private static Table rehash(Table old, int buckets) {
+		Table t = new Table(buckets);
+		int seed = 0x2545F491;
+		for (int i = 0; i < old.keys.length(); i++) {
+			Object k = old.keys.get(i);
+			if (k == null)
+				continue;
+			Object v = old.values.get(i);
+			int h = old.hashes[i];
+			int bucket = t.first(h);
+			boolean placed = false;
+			for (int kick = 0; kick < 500 && !placed; kick++) {
+				int slot = freeSlot(t, bucket);
+				if (slot < 0)
+					slot = freeSlot(t, bucket = t.alternate(h, bucket));
+				if (slot >= 0) {
+					t.keys.set(slot, k);
+					t.values.set(slot, v);
+					t.hashes[slot] = h;
+					placed = true;
+					break;
+				}
+				seed ^= seed << 13;
+				seed ^= seed >>> 17;
+				seed ^= seed << 5;
+				int victim = bucket * SLOTS_PER_BUCKET + (seed & (SLOTS_PER_BUCKET - 1));
+				Object vk = t.keys.get(victim), vv = t.values.get(victim);
+				int vh = t.hashes[victim];
+				t.keys.set(victim, k);
+				t.values.set(victim, v);
+				t.hashes[victim] = h;
+				k = vk;
+				v = vv;
+				h = vh;
+				bucket = t.alternate(h, bucket);
+			}
+			if (!placed)
+				return null;
+		}
+		return t;
+	}
+
+	private void lockPair(int b1, int b2) {
+		int s1 = b1 & stripeMask, s2 = b2 & stripeMask;
+		if (s1 == s2) {
+			locks[s1].lock();
+		} else if (s1 < s2) {
+			locks[s1].lock();
+			locks[s2].lock();
+		} else {
+			locks[s2].lock();
+			locks[s1].lock();
+		}
+	}
+
+	private void unlockPair(int b1, int b2) {
+		int s1 = b1 & stripeMask, s2 = b2 & stripeMask;
+		locks[s1].unlock();
+		if (s1 != s2)
+			locks[s2].unlock();
+	}
+
+	private int hash(Object key) {
+		return hashStrategy.hash(key);
+	}
+
+	private final class Cursor extends SlotCursor<Key, Value> {
+		private final Table t;
+		// entry read by the last occupied call, which advance then reports
+		private Object key, value;
+
+		Cursor(Table t, int origin, int fence) {
+			super(origin, fence);
+			this.t = t;
+		}
+
+		@Override
+		boolean occupied(int slot) {
+			int s = (slot / SLOTS_PER_BUCKET) & stripeMask;
+			while (true) {
+				long v = versions.get(s);
+				if ((v & 1) != 0) {
+					Thread.onSpinWait();
+					continue;
+				}
+				Object k = t.keys.get(slot), val = t.values.get(slot);
+				if (versions.get(s) == v) {
+					key = k;
+					value = val;
+					return k != null && val != null;
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		Key keyAt(int slot) {
+			return (Key) key;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		Value valueAt(int slot) {
+			return (Value) value;
+		}
+
+		@Override
+		SlotCursor<Key, Value> slice(int origin, int fence) {
+			return new Cursor(t, origin, fence);
+		}
+	}
+}
@@ -0,0 +1,269 @@
+package Hashing;
+
+import java.util.Arrays;
+
+/**
+ * Approximate set membership with deletes, storing a short fingerprint of each
+ * key instead of the key.
+ *
+ * A key has two buckets of four fingerprint slots. The first comes from its
+ * hash; the second is the first xor a hash of the fingerprint, so a
+ * fingerprint can be moved to its other bucket without knowing its key. An
+ * add that finds both buckets full searches breadth first, as
+ * CuckooHashTable does, for the shortest chain of moves that frees a slot,
+ * and fails without changing the filter if there is none within
+ * MAX_PATH_NODES buckets.
+ *
+ * Fingerprints are bit-packed, so the table takes 4 * fingerprintBits bits
+ * per bucket. Adding a key twice stores it twice, and only keys that were
+ * added may be removed: removing anything else can remove another key's
+ * fingerprint and make it look absent.
+ */
+public class CuckooFilter {
+	private static final int SLOTS = 4;
+	private static final int MAX_PATH_NODES = 256;
+	// buckets are sized so that expected keys fill this share of the slots
+	private static final double TARGET_LOAD = 0.95;
+
+	private final long[] words;
+	private final int fingerprintBits;
+	private final int bucketBits;
+	private final long fingerprintMask;
+	private final int mask;
+	private final HashStrategy hashStrategy;
+	private int size;
+
+	// breadth-first search queue: bucket, parent node and the parent's slot moved into it
+	private final int[] pathBucket = new int[MAX_PATH_NODES];
+	private final int[] pathParent = new int[MAX_PATH_NODES];
+	private final int[] pathSlot = new int[MAX_PATH_NODES];
+
+	public CuckooFilter(int expected) {
+		this(expected, 12);
+	}
+
+	public CuckooFilter(int expected, int fingerprintBits) {
+		this(expected, fingerprintBits, HashStrategy.MURMUR3);
+	}
+
+	/**
+	 *
+	 * @param expected        : number of keys the filter should hold
+	 * @param fingerprintBits : bits stored per key, 8 to 16
+	 * @param hashStrategy    : mixer applied to key hash codes
+	 */
+	public CuckooFilter(int expected, int fingerprintBits, HashStrategy hashStrategy) {
+		if (expected < 0)
+			throw new IllegalArgumentException("expected must be non-negative");
+		if (fingerprintBits < 8 || fingerprintBits > 16)
+			throw new IllegalArgumentException("fingerprintBits must be between 8 and 16");
+		if (hashStrategy == null)
+			throw new IllegalArgumentException("hashStrategy must not be null");
+		this.fingerprintBits = fingerprintBits;
+		this.hashStrategy = hashStrategy;
+		bucketBits = SLOTS * fingerprintBits;
+		fingerprintMask = (1L << fingerprintBits) - 1;
+		int buckets = CapacityPolicy.tableSizeFor(Math.max(2, (int) Math.min(CapacityPolicy.MAX_CAPACITY, Math.ceil(expected / (SLOTS * TARGET_LOAD)))));
+		mask = buckets - 1;
+		// one spare word so a bucket can always be read as a two word window
+		words = new long[(int) (((long) buckets * bucketBits + 63) >>> 6) + 1];
+	}
+
+	/**
+	 * @return false if the filter is too full to take the key; it is unchanged then
+	 */
+	public boolean add(Object key) {
+		int h = hashStrategy.hash(key);
+		int fp = fingerprint(h);
+		int b1 = h & mask;
+		int b2 = alternate(b1, fp);
+		if (!insert(b1, fp) && !insert(b2, fp) && !insertAlongPath(b1, b2, fp))
+			return false;
+		size++;
+		return true;
+	}
+
+	/**
+	 * @return false only if key is not in the filter
+	 */
+	public boolean mightContain(Object key) {
+		int h = hashStrategy.hash(key);
+		int fp = fingerprint(h);
+		int b1 = h & mask;
+		return find(b1, fp) >= 0 || find(alternate(b1, fp), fp) >= 0;
+	}
+
+	/**
+	 * Removes one copy of a key that was added.
+	 *
+	 * @return false if no matching fingerprint was found
+	 */
+	public boolean remove(Object key) {
+		int h = hashStrategy.hash(key);
+		int fp = fingerprint(h);
+		int b = h & mask;
+		int slot = find(b, fp);
+		if (slot < 0) {
+			b = alternate(b, fp);
+			slot = find(b, fp);
+			if (slot < 0)
+				return false;
+		}
+		set(b, slot, 0);
+		size--;
+		return true;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return number of fingerprint slots
+	 */
+	public int capacity() {
+		return (mask + 1) * SLOTS;
+	}
+
+	public double loadFactor() {
+		return size * 1.0 / capacity();
+	}
+
+	public int fingerprintBits() {
+		return fingerprintBits;
+	}
+
+	/**
+	 * @return bits of table per key held, including the empty slots
+	 */
+	public double bitsPerItem() {
+		return size == 0 ? Double.POSITIVE_INFINITY : (double) (mask + 1) * bucketBits / size;
+	}
+
+	/**
+	 * Expected false positive rate at the current load: a lookup compares
+	 * against the occupied slots of two buckets, each matching a random
+	 * fingerprint with probability 1 / (2^fingerprintBits - 1).
+	 */
+	public double falsePositiveRate() {
+		double compared = 2 * SLOTS * loadFactor();
+		return 1 - Math.pow(1 - 1.0 / fingerprintMask, compared);
+	}
+
+	public void clear() {
+		Arrays.fill(words, 0);
+		size = 0;
+	}
+
+	// 	PRIVATE HELPERS
+
+	// never 0, which marks an empty slot; remixed so it does not follow the bucket index bits
+	private int fingerprint(int h) {
+		int g = h * 0x85EBCA6B;
+		g ^= g >>> 13;
+		g *= 0xC2B2AE35;
+		g ^= g >>> 16;
+		int fp = g >>> (32 - fingerprintBits);
+		return fp == 0 ? 1 : fp;
+	}
+
+	// an involution for a given fingerprint: alternate(alternate(b, fp), fp) == b
+	private int alternate(int bucket, int fp) {
+		return (bucket ^ (fp * 0x5BD1E995)) & mask;
+	}
+
+	private boolean insert(int bucket, int fp) {
+		int slot = find(bucket, 0);
+		if (slot < 0)
+			return false;
+		set(bucket, slot, fp);
+		return true;
+	}
+
+	private int find(int bucket, int fp) {
+		long fps = read(bucket);
+		for (int s = 0; s < SLOTS; s++) {
+			if (((fps >>> (s * fingerprintBits)) & fingerprintMask) == fp)
+				return s;
+		}
+		return -1;
+	}
+
+	/**
+	 * Breadth-first search over buckets, each step moving one fingerprint of
+	 * a full bucket to its other bucket, until a bucket with a free slot is
+	 * found; then shifts the fingerprints along that path.
+	 */
+	private boolean insertAlongPath(int b1, int b2, int fp) {
+		int head = 0, tail = 0;
+		tail = enqueue(tail, b1, -1, -1);
+		tail = enqueue(tail, b2, -1, -1);
+		while (head < tail) {
+			int node = head++;
+			int bucket = pathBucket[node];
+			int free = find(bucket, 0);
+			if (free >= 0) {
+				while (pathParent[node] >= 0) {
+					int parent = pathParent[node];
+					set(bucket, free, get(pathBucket[parent], pathSlot[node]));
+					free = pathSlot[node];
+					node = parent;
+					bucket = pathBucket[node];
+				}
+				set(bucket, free, fp);
+				return true;
+			}
+			for (int s = 0; s < SLOTS && tail < MAX_PATH_NODES; s++) {
+				int next = alternate(bucket, get(bucket, s));
+				boolean seen = false;
+				for (int i = 0; i < tail && !seen; i++)
+					seen = pathBucket[i] == next;
+				if (!seen)
+					tail = enqueue(tail, next, node, s);
+			}
+		}
+		return false;
+	}
+
+	private int enqueue(int tail, int bucket, int parent, int slot) {
+		pathBucket[tail] = bucket;
+		pathParent[tail] = parent;
+		pathSlot[tail] = slot;
+		return tail + 1;
+	}
+
+	private int get(int bucket, int slot) {
+		return (int) ((read(bucket) >>> (slot * fingerprintBits)) & fingerprintMask);
+	}
+
+	private void set(int bucket, int slot, int fp) {
+		long fps = read(bucket);
+		int shift = slot * fingerprintBits;
+		write(bucket, (fps & ~(fingerprintMask << shift)) | ((long) fp << shift));
+	}
+
+	// the bucketBits bits of a bucket, which may straddle two words
+	private long read(int bucket) {
+		long bit = (long) bucket * bucketBits;
+		int word = (int) (bit >>> 6), shift = (int) (bit & 63);
+		long fps = words[word] >>> shift;
+		if (shift + bucketBits > 64)
+			fps |= words[word + 1] << (64 - shift);
+		return bucketBits == 64 ? fps : fps & ((1L << bucketBits) - 1);
+	}
+
+	private void write(int bucket, long fps) {
+		long bit = (long) bucket * bucketBits;
+		int word = (int) (bit >>> 6), shift = (int) (bit & 63);
+		long low = bucketBits == 64 ? -1L : (1L << bucketBits) - 1;
+		words[word] = (words[word] & ~(low << shift)) | (fps << shift);
+		if (shift + bucketBits > 64) {
+			int spill = 64 - shift;
+			words[word + 1] = (words[word + 1] & ~(low >>> spill)) | (fps >>> spill);
+		}
+	}
+}
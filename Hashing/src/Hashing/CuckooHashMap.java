@@ -1,72 +1,97 @@
 package Hashing;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 
 public class CuckooHashMap<K,V> extends AbstractMap<K,V> {
 	protected ArrayList<Entry<K, V>> bucket2 = new ArrayList<>();
+	// keys whose eviction path is longer than maxEvictionDepth wait here until the next resize
+	protected ArrayList<Entry<K, V>> stash = new ArrayList<>();
+	protected int maxEvictionDepth = 32;
+	protected int stashCapacity = 4;
+	
+	// breadth-first search queue: table side, cell, parent node and depth of each node
+	private int[] pathSide, pathCell, pathParent, pathDepth;
 	
 	public CuckooHashMap() {
 		for(int i = 0; i < numBuckets;i++) {
 			bucket.add(null);
 			bucket2.add(null);
 		}
+		allocatePath();
 	}
+	/**
+	 * 
+	 * @param n : number of cells in each table, rounded up to a power of two
+	 */
 	public CuckooHashMap(int n) {
-		numBuckets = n;
+		numBuckets = CapacityPolicy.tableSizeFor(n);
 		for(int i = 0; i < numBuckets;i++) {
 			bucket.add(null);
 			bucket2.add(null);
 		}
+		allocatePath();
+	}
+	/**
+	 * 
+	 * @param n                : number of cells in each table
+	 * @param maxEvictionDepth : longest chain of evictions an insert may perform
+	 * @param stashCapacity    : keys kept aside before a full resize is forced
+	 */
+	public CuckooHashMap(int n, int maxEvictionDepth, int stashCapacity) {
+		this(n);
+		if(maxEvictionDepth < 0 || stashCapacity < 0)
+			throw new IllegalArgumentException();
+		this.maxEvictionDepth = maxEvictionDepth;
+		this.stashCapacity = stashCapacity;
+		allocatePath();
+	}
+	public CuckooHashMap(int n, HashStrategy hashStrategy) {
+		this(n);
+		this.hashStrategy = hashStrategy;
 	}
 	
 	@Override
 	public void put(K key, V value) {
-		int side = 0;
+		int index1 = getBucketIndex(key);
+		Entry<K,V> first = bucket.get(index1);
+		if(first != null && first.key.equals(key)) {
+			first.value = value;
+			return;
+		}
+		int index2 = getSecondBucketIndex(key);
+		Entry<K,V> second = bucket2.get(index2);
+		if(second != null && second.key.equals(key)) {
+			second.value = value;
+			return;
+		}
+		Entry<K,V> stashed = findInStash(key);
+		if(stashed != null) {
+			stashed.value = value;
+			return;
+		}
+		
 		Entry<K, V>toAdd=new Entry<>();	
 		toAdd.key=key;
 		toAdd.value=value;
-		int i = 0;
-		
-		int index = getBucketIndex(key);
-		Entry<K,V> entry = bucket.get(index);
-		if(entry == null) {
-			bucket.set(index, toAdd);
-		}
-		else if(entry!=null && entry.key == key) {
-			bucket.set(index, toAdd);
-			return ;
-		} else {
-			bucket.set(index, toAdd);
-			i++;
-			while(entry != null) {
-				if(entry.key.equals(key)) {
-					if(i==2) {
-						System.out.println("Cycle Detected");
-						boolean downScale = false;
-						resize(downScale);
-						put(key,value);
-						return;
-					}
-					i++;
-				}
-				if(side == 0) {
-					int index2 = getSecondBucketIndex(entry.key);
-					Entry<K,V> tmp = bucket2.get(index2);
-					bucket2.set(index2, entry);
-					entry = tmp; 
-				}
-				else {
-					int index2 = getBucketIndex(entry.key);
-					Entry<K,V> tmp = bucket.get(index2);
-					bucket.set(index2, entry);
-					entry = tmp;
-				}
-				side = 1 - side;
+		if(!insertAlongPath(toAdd, index1, index2)) {
+			if(stash.size() < stashCapacity) {
+				stash.add(toAdd);
+			}
+			else {
+				if(stats != null)
+					stats.cycle();
+				boolean downScale = false;
+				resize(downScale);
+				put(key,value);
+				return;
 			}
-			
 		}
 			
 		if(!resize) size++;
@@ -77,17 +102,114 @@ public class CuckooHashMap<K,V> extends AbstractMap<K,V> {
 		}
 	}
 	
+	/**
+	 * Breadth-first search from both cells of the new key for the shortest
+	 * chain of evictions that ends in an empty cell, then shifts the entries
+	 * along that chain. Each occupied cell has exactly one way out (the other
+	 * cell of its key), so the search follows two chains in lock step.
+	 * 
+	 * @return false if no chain of at most maxEvictionDepth moves exists
+	 */
+	private boolean insertAlongPath(Entry<K,V> toAdd, int index1, int index2) {
+		int head = 0, tail = 0;
+		tail = enqueue(tail, 0, index1, -1, 0);
+		tail = enqueue(tail, 1, index2, -1, 0);
+		while(head < tail) {
+			int node = head++;
+			Entry<K,V> occupant = table(pathSide[node]).get(pathCell[node]);
+			if(occupant == null) {
+				shiftAlongPath(node, toAdd);
+				return true;
+			}
+			if(pathDepth[node] == maxEvictionDepth) continue;
+			int side = 1 - pathSide[node];
+			int cell = side == 0 ? getBucketIndex(occupant.key) : getSecondBucketIndex(occupant.key);
+			if(!visited(tail, side, cell))
+				tail = enqueue(tail, side, cell, node, pathDepth[node] + 1);
+		}
+		return false;
+	}
+	
+	private void shiftAlongPath(int node, Entry<K,V> toAdd) {
+		int moves = 0;
+		while(pathParent[node] >= 0) {
+			int parent = pathParent[node];
+			table(pathSide[node]).set(pathCell[node], table(pathSide[parent]).get(pathCell[parent]));
+			node = parent;
+			moves++;
+		}
+		table(pathSide[node]).set(pathCell[node], toAdd);
+		if(stats != null)
+			stats.displaced(moves);
+	}
+	
+	private int enqueue(int tail, int side, int cell, int parent, int depth) {
+		pathSide[tail] = side;
+		pathCell[tail] = cell;
+		pathParent[tail] = parent;
+		pathDepth[tail] = depth;
+		return tail + 1;
+	}
+	
+	private boolean visited(int tail, int side, int cell) {
+		for(int i = 0; i < tail; i++) {
+			if(pathSide[i] == side && pathCell[i] == cell) return true;
+		}
+		return false;
+	}
+	
+	private ArrayList<Entry<K, V>> table(int side) {
+		return side == 0 ? bucket : bucket2;
+	}
+	
+	private void allocatePath() {
+		int nodes = 2 * (maxEvictionDepth + 1);
+		pathSide = new int[nodes];
+		pathCell = new int[nodes];
+		pathParent = new int[nodes];
+		pathDepth = new int[nodes];
+	}
+	
+	private Entry<K,V> findInStash(Object key) {
+		for(Entry<K,V> entry: stash) {
+			if(entry.key.equals(key)) return entry;
+		}
+		return null;
+	}
+	
+	/**
+	 * 
+	 * @param pool : pool that resizes of large tables run on, null to resize on the calling thread
+	 */
+	public void setResizePool(ForkJoinPool pool) {
+		this.resizePool = pool;
+	}
+	
 	@Override
-	public void resize(boolean downScale) {
+	protected int bucketsFor(int entries) {
+		// two tables share the entries, see put
+		int n = numBuckets;
+		while((1.0* (entries/2))/n > 0.75 && n < CapacityPolicy.MAX_CAPACITY)
+			n *= 2;
+		return n;
+	}
+
+	@Override
+	protected void resizeTo(int n) {
+		if(resizePool != null && size >= PARALLEL_RESIZE_MIN) {
+			parallelResizeTo(n);
+			return;
+		}
+		// a stash overflow while re-inserting resizes again from inside this call
+		boolean outerResize = resize;
 		resize = true;
 		ArrayList<Entry<K, V>>tmp=bucket;
 		ArrayList<Entry<K, V>>tmp2=bucket2;
+		ArrayList<Entry<K, V>>tmp3=stash;
 		bucket = new ArrayList<>();
 		bucket2 = new ArrayList<>();
-		if(downScale)
-			numBuckets = numBuckets/2;
-		else
-			numBuckets=2*numBuckets;
+		stash = new ArrayList<>();
+		numBuckets = n;
 		for(int i=0;i<numBuckets;i++)
 		{
 			bucket.add(null);
@@ -103,7 +225,131 @@ public class CuckooHashMap<K,V> extends AbstractMap<K,V> {
 			if(entry!=null)
 				put(entry.key, entry.value);
 		}
-		resize = false;
+		for(Entry<K, V> entry:tmp3)
+		{
+			put(entry.key, entry.value);
+		}
+		resize = outerResize;
+	}
+	
+	/**
+	 * Places the entries region by region on resizePool, first in the first
+	 * table, where an entry whose cell is free takes it, then the entries
+	 * left over in the second table the same way. That covers all but the
+	 * true collisions at the usual load. Regions are disjoint ranges of
+	 * cells, so no two tasks write the same cell. The collisions go through
+	 * put afterwards, on the calling thread.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void parallelResizeTo(int n) {
+		boolean outerResize = resize;
+		resize = true;
+		Entry<K,V>[] all = new Entry[size];
+		int count = 0;
+		for(Entry<K,V> entry: bucket) {
+			if(entry != null)
+				all[count++] = entry;
+		}
+		for(Entry<K,V> entry: bucket2) {
+			if(entry != null)
+				all[count++] = entry;
+		}
+		for(Entry<K,V> entry: stash)
+			all[count++] = entry;
+		bucket = new ArrayList<>(n);
+		bucket2 = new ArrayList<>(n);
+		stash = new ArrayList<>();
+		numBuckets = n;
+		for(int i=0;i<numBuckets;i++)
+		{
+			bucket.add(null);
+			bucket2.add(null);
+		}
+		
+		count = scatter(all, count, 0);
+		count = scatter(all, count, 1);
+		// all is ours, so a put below that resizes again cannot disturb what is left in it
+		for(int i = 0; i < count; i++)
+			put(all[i].key, all[i].value);
+		resize = outerResize;
+	}
+	
+	/**
+	 * Places entries [0, count) of all in their cells of one table where
+	 * those are free, then moves the entries that were not placed to the
+	 * front of all.
+	 * 
+	 * @return number of entries not placed
+	 */
+	private int scatter(Entry<K,V>[] all, int count, int side) {
+		int[] cell = new int[count];
+		resizePool.invoke(new ScatterTask(all, cell, side, null, null, 0, count));
+		int regionShift = Math.min(Integer.numberOfTrailingZeros(numBuckets), Integer.numberOfTrailingZeros(RESIZE_CHUNK));
+		int regions = numBuckets >>> regionShift;
+		// counting sort of the entries by region
+		int[] start = new int[regions + 1];
+		for(int i = 0; i < count; i++)
+			start[(cell[i] >>> regionShift) + 1]++;
+		for(int r = 0; r < regions; r++)
+			start[r + 1] += start[r];
+		int[] order = new int[count];
+		int[] fill = Arrays.copyOf(start, regions);
+		for(int i = 0; i < count; i++)
+			order[fill[cell[i] >>> regionShift]++] = i;
+		resizePool.invoke(new ScatterTask(all, cell, side, order, start, 0, regions));
+		
+		ArrayList<Entry<K,V>> t = table(side);
+		int left = 0;
+		for(int i = 0; i < count; i++) {
+			if(t.get(cell[i]) != all[i])
+				all[left++] = all[i];
+		}
+		return left;
+	}
+	
+	/**
+	 * Without an order, computes the cells of entries [lo, hi) in table side.
+	 * With one, places the entries of regions [lo, hi) that find their cell
+	 * free.
+	 */
+	@SuppressWarnings("serial")
+	private final class ScatterTask extends RecursiveAction {
+		private final Entry<K,V>[] all;
+		private final int[] cell, order, start;
+		private final int side, lo, hi;
+		
+		ScatterTask(Entry<K,V>[] all, int[] cell, int side, int[] order, int[] start, int lo, int hi) {
+			this.all = all;
+			this.cell = cell;
+			this.side = side;
+			this.order = order;
+			this.start = start;
+			this.lo = lo;
+			this.hi = hi;
+		}
+		
+		@Override
+		protected void compute() {
+			int grain = order == null ? RESIZE_CHUNK : 1;
+			if(hi - lo > grain) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new ScatterTask(all, cell, side, order, start, lo, mid), new ScatterTask(all, cell, side, order, start, mid, hi));
+				return;
+			}
+			if(order == null) {
+				for(int i = lo; i < hi; i++)
+					cell[i] = side == 0 ? getBucketIndex(all[i].key) : getSecondBucketIndex(all[i].key);
+				return;
+			}
+			ArrayList<Entry<K,V>> t = table(side);
+			for(int r = lo; r < hi; r++) {
+				for(int j = start[r]; j < start[r + 1]; j++) {
+					Entry<K,V> entry = all[order[j]];
+					if(t.get(cell[order[j]]) == null)
+						t.set(cell[order[j]], entry);
+				}
+			}
+		}
 	}
 	
 	@Override
@@ -112,8 +358,18 @@ public class CuckooHashMap<K,V> extends AbstractMap<K,V> {
 		int index2 = getSecondBucketIndex(key);
 		Entry<K,V> first = bucket.get(index1);
 		Entry<K,V> second = bucket2.get(index2);
-		if(first!=null && first.key.equals(key)) return first.value;
-		if(second!=null && second.key.equals(key)) return second.value;
+		if(first!=null && first.key.equals(key)) {
+			if(stats != null) stats.probe(true, 1);
+			return first.value;
+		}
+		if(second!=null && second.key.equals(key)) {
+			if(stats != null) stats.probe(true, 2);
+			return second.value;
+		}
+		Entry<K,V> stashed = findInStash(key);
+		// the stash is small, so a search there counts as scanning all of it
+		if(stats != null) stats.probe(stashed != null, 2 + stash.size());
+		if(stashed!=null) return stashed.value;
 		throw new RuntimeException("Element not found");
 	}
 
@@ -123,15 +379,28 @@ public class CuckooHashMap<K,V> extends AbstractMap<K,V> {
 		int index2 = getSecondBucketIndex(key);
 		Entry<K,V> first = bucket.get(index1);
 		Entry<K,V> second = bucket2.get(index2);
-		if((first!=null && first.key.equals(key)) || (second!=null && second.key.equals(key))) return true;;
-		return false;
+		if(first!=null && first.key.equals(key)) {
+			if(stats != null) stats.probe(true, 1);
+			return true;
+		}
+		if(second!=null && second.key.equals(key)) {
+			if(stats != null) stats.probe(true, 2);
+			return true;
+		}
+		boolean stashed = findInStash(key) != null;
+		if(stats != null) stats.probe(stashed, 2 + stash.size());
+		return stashed;
 	}
 
 	
 	@Override
 	public void clear() {
-		bucket.clear();
-		bucket2.clear();
+		for(int i = 0; i < numBuckets; i++) {
+			bucket.set(i, null);
+			bucket2.set(i, null);
+		}
+		stash.clear();
+		size = 0;
 	}
 	
 	@Override
@@ -145,20 +414,26 @@ public class CuckooHashMap<K,V> extends AbstractMap<K,V> {
 		int index2 = getSecondBucketIndex(key);
 		Entry<K,V> first = bucket.get(index1);
 		Entry<K,V> second = bucket2.get(index2);
-		if(first.key.equals(key)) {
+		if(first!=null && first.key.equals(key)) {
 			V ret = bucket.get(index1).value;
 			bucket.set(index1, null);
 			size--;
 			//checkResize();
 			return ret;
 		}
-		if(second.key.equals(key)) {
+		if(second!=null && second.key.equals(key)) {
 			V ret = bucket2.get(index2).value;
 			bucket2.set(index2, null);
 			size--;
 			//checkResize();
 			return ret;
 		}
+		Entry<K,V> stashed = findInStash(key);
+		if(stashed!=null) {
+			stash.remove(stashed);
+			size--;
+			return stashed.value;
+		}
 		return  null;
 		
 	}
@@ -169,6 +444,17 @@ public class CuckooHashMap<K,V> extends AbstractMap<K,V> {
 			resize(downScale);
 		}
 	}
+	@Override
+	protected long[] chainLengths() {
+		return new long[0];
+	}
+	
+	@Override
+	protected List<ArrayList<Entry<K, V>>> tables() {
+		// stashed entries have no next, so the stash reads like a table of one-entry buckets
+		return Arrays.asList(bucket, bucket2, stash);
+	}
+	
 	@Override
 	public void display() {
 		System.out.println("HashTable 1:");
@@ -186,6 +472,11 @@ public class CuckooHashMap<K,V> extends AbstractMap<K,V> {
 			else
 				System.out.print("null, ");
 		}
+		System.out.println();
+		System.out.println("Stash:");
+		for(Entry<K,V> en: stash) {
+			System.out.print(en.key + ":" + en.value + ", ");
+		}
 	}
 
 
@@ -203,6 +494,9 @@ public class CuckooHashMap<K,V> extends AbstractMap<K,V> {
 				res.add(entry.key);
 			}
 		}
+		for(Entry<K,V> entry: stash) {
+			res.add(entry.key);
+		}
 		return res;
 	}
 
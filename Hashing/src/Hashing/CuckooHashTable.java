@@ -1,31 +1,75 @@
 package Hashing;
 
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
 
 public class CuckooHashTable<Key, Value> {
 
 	protected Key[] keys;
 	protected Value[] values;
-	protected int PRIME_NUMBER = 11;
-	protected int capacity = PRIME_NUMBER * 2;
+	private static final int DEFAULT_CAPACITY = 32;
+	// removes, as a share of size, after which a blocked insert rebuilds the cycle data
+	private static final int REBUILD_FRACTION = 8;
+	protected int capacity;
 	protected UnionFind cellSet;
 	protected boolean[] cycleList;
 	private int size = 0;
+	protected HashStrategy hashStrategy = HashStrategy.FIBONACCI;
+
+	// keys whose eviction path is longer than maxEvictionDepth wait here until the next resize
+	protected Key[] stashKeys;
+	protected Value[] stashValues;
+	protected int stashSize = 0;
+	protected int maxEvictionDepth = 32;
+
+	// breadth-first search queue: cell, parent node and depth of each node
+	private int[] pathCell, pathParent, pathDepth;
+
+	// table removes since cellSet and cycleList were last rebuilt
+	private int removedSinceRebuild;
+
+	// null unless trackStats(true)
+	private StatsRecorder stats;
 
-	@SuppressWarnings("unchecked")
 	public CuckooHashTable() {
-		keys = (Key[]) new Object[capacity];
-		values = (Value[]) new Object[capacity];
-		cellSet = new UnionFind(capacity);
-		cycleList = new boolean[capacity];
+		this(DEFAULT_CAPACITY);
 	}
 
-	@SuppressWarnings("unchecked")
 	public CuckooHashTable(int capacity) {
+		this(capacity, 32, 4);
+	}
+
+	public CuckooHashTable(int capacity, HashStrategy hashStrategy) {
+		this(capacity);
+		if (hashStrategy == null)
+			throw new IllegalArgumentException();
+		this.hashStrategy = hashStrategy;
+	}
+
+	/**
+	 * 
+	 * @param capacity         : total number of cells of both tables, rounded up to a power of two
+	 * @param maxEvictionDepth : longest chain of evictions an insert may perform
+	 * @param stashCapacity    : keys kept aside before a full resize is forced
+	 */
+	@SuppressWarnings("unchecked")
+	public CuckooHashTable(int capacity, int maxEvictionDepth, int stashCapacity) {
+		if (maxEvictionDepth < 0 || stashCapacity < 0)
+			throw new IllegalArgumentException();
+		capacity = CapacityPolicy.tableSizeFor(Math.max(2, capacity));
 		this.capacity = capacity;
+		this.maxEvictionDepth = maxEvictionDepth;
 		keys = (Key[]) new Object[capacity];
 		values = (Value[]) new Object[capacity];
 		cellSet = new UnionFind(capacity);
 		cycleList = new boolean[capacity];
+		stashKeys = (Key[]) new Object[stashCapacity];
+		stashValues = (Value[]) new Object[stashCapacity];
+		int nodes = 2 * (maxEvictionDepth + 1);
+		pathCell = new int[nodes];
+		pathParent = new int[nodes];
+		pathDepth = new int[nodes];
 	}
 
 	public int size() {
@@ -46,62 +90,176 @@ public class CuckooHashTable<Key, Value> {
 		if (i < 0 || i > 1 || key == null)
 			throw new IllegalArgumentException();
 
-		int cell = key.hashCode();
-		cell = cell < 0 ? -1 * cell : cell;
-
+		int cell = hashStrategy.hash(key);
 		int half = capacity / 2;
-		int cellNo = cell % half;
-		cellNo = i == 0 ? cell % half : (cell / PRIME_NUMBER) % half + half;
-
-		return cellNo;
+		return i == 0 ? CapacityPolicy.indexFor(cell, half) : CapacityPolicy.indexFor(CapacityPolicy.secondHash(cell), half) + half;
 	}
 	public void put(Key key, Value val) {
 
 		int cell1 = hash(key, 0);
 		int cell2 = hash(key, 1);
-		int parent1 = cellSet.find(cell1);
-		int parent2 = cellSet.find(cell2);
+		if (key.equals(keys[cell1])) {
+			values[cell1] = val;
+			return;
+		}
+		if (key.equals(keys[cell2])) {
+			values[cell2] = val;
+			return;
+		}
+		int stashed = stashIndex(key);
+		if (stashed >= 0) {
+			stashValues[stashed] = val;
+			return;
+		}
 
-		if (cycleList[parent1] && cycleList[parent2]) {
+		if (!place(key, val, cell1, cell2)) {
+			// cycles left behind by removes may be what blocks the key; waiting for
+			// size / REBUILD_FRACTION removes spreads the rebuild over them
+			if (removedSinceRebuild > 0 && removedSinceRebuild >= size / REBUILD_FRACTION) {
+				rebuildCycles();
+				if (place(key, val, cell1, cell2)) {
+					size++;
+					return;
+				}
+			}
+			if (stashSize < stashKeys.length) {
+				stashKeys[stashSize] = key;
+				stashValues[stashSize] = val;
+				stashSize++;
+				size++;
+				return;
+			}
+			long start = 0;
+			if (stats != null) {
+				stats.cycle();
+				start = System.nanoTime();
+			}
 			resize(capacity * 2);
+			if (stats != null)
+				stats.resized(System.nanoTime() - start);
 			put(key, val);
 			return;
-
 		}
+		size++;
+	}
+
+	/**
+	 * Puts a new key into the table and records its edge between its two
+	 * cells in cellSet.
+	 *
+	 * @return false if it has to go to the stash or force a resize
+	 */
+	private boolean place(Key key, Value val, int cell1, int cell2) {
+		int parent1 = cellSet.find(cell1);
+		int parent2 = cellSet.find(cell2);
 
-		int newparent = cellSet.union(cell1, cell2);
-		if (parent1 == parent2) {
+		// with a cycle in both components no eviction path can end in an empty cell
+		if ((cycleList[parent1] && cycleList[parent2]) || !insertAlongPath(key, val, cell1, cell2))
+			return false;
+		link(parent1, parent2);
+		return true;
+	}
+
+	/**
+	 * Joins the components rooted at parent1 and parent2. An edge inside one
+	 * component closes a cycle, and a component keeps the cycle of either part.
+	 */
+	private void link(int parent1, int parent2) {
+		int newparent = cellSet.union(parent1, parent2);
+		if (parent1 == parent2 || cycleList[parent1] || cycleList[parent2]) {
 			cycleList[parent1] = false;
 			cycleList[parent2] = false;
 			cycleList[newparent] = true;
-		} else if (cycleList[parent1] || cycleList[parent2]) {
-			cycleList[parent2] = false;
-			cycleList[parent1] = false;
-			cycleList[newparent] = true;
 		}
+	}
 
-		int t, cellNo;
-		for (t = 0; (cellNo = hash(key, t)) >= 0 && !key.equals(keys[cellNo])
-				&& values[cellNo] != null; t = t ^ 1) {
-			Key tempkey = keys[cellNo];
-			Value tempval = values[cellNo];
-			keys[cellNo] = key;
-			values[cellNo] = val;
-			key = tempkey;
-			val = tempval;
+	/**
+	 * Removes only take edges away, so until this runs cellSet and cycleList
+	 * can report cycles that are gone but never miss one. Recomputes both from
+	 * the keys in the table, then moves stashed keys back in where they now fit.
+	 */
+	private void rebuildCycles() {
+		cellSet.reset();
+		Arrays.fill(cycleList, false);
+		for (int c = 0; c < capacity; c++) {
+			if (keys[c] != null)
+				link(cellSet.find(hash(keys[c], 0)), cellSet.find(hash(keys[c], 1)));
+		}
+		removedSinceRebuild = 0;
+		for (int i = stashSize - 1; i >= 0; i--) {
+			if (place(stashKeys[i], stashValues[i], hash(stashKeys[i], 0), hash(stashKeys[i], 1))) {
+				stashSize--;
+				stashKeys[i] = stashKeys[stashSize];
+				stashValues[i] = stashValues[stashSize];
+				stashKeys[stashSize] = null;
+				stashValues[stashSize] = null;
+			}
+		}
+	}
+
+	/**
+	 * Breadth-first search from both cells of the new key for the shortest
+	 * chain of evictions that ends in an empty cell, then shifts the keys
+	 * along that chain.
+	 * 
+	 * @return false if no chain of at most maxEvictionDepth moves exists
+	 */
+	private boolean insertAlongPath(Key key, Value val, int cell1, int cell2) {
+		int head = 0, tail = 0;
+		tail = enqueue(tail, cell1, -1, 0);
+		tail = enqueue(tail, cell2, -1, 0);
+		while (head < tail) {
+			int node = head++;
+			Key occupant = keys[pathCell[node]];
+			if (occupant == null) {
+				if (stats != null)
+					stats.displaced(pathDepth[node]);
+				while (pathParent[node] >= 0) {
+					int parent = pathParent[node];
+					keys[pathCell[node]] = keys[pathCell[parent]];
+					values[pathCell[node]] = values[pathCell[parent]];
+					node = parent;
+				}
+				keys[pathCell[node]] = key;
+				values[pathCell[node]] = val;
+				return true;
+			}
+			if (pathDepth[node] == maxEvictionDepth)
+				continue;
+			int cell = hash(occupant, pathCell[node] < capacity / 2 ? 1 : 0);
+			boolean seen = false;
+			for (int i = 0; i < tail && !seen; i++)
+				seen = pathCell[i] == cell;
+			if (!seen)
+				tail = enqueue(tail, cell, node, pathDepth[node] + 1);
+		}
+		return false;
+	}
+
+	private int enqueue(int tail, int cell, int parent, int depth) {
+		pathCell[tail] = cell;
+		pathParent[tail] = parent;
+		pathDepth[tail] = depth;
+		return tail + 1;
+	}
+
+	private int stashIndex(Key key) {
+		for (int i = 0; i < stashSize; i++) {
+			if (key.equals(stashKeys[i]))
+				return i;
 		}
-		if (!key.equals(keys[cellNo]))
-			size++;
-		keys[cellNo] = key;
-		values[cellNo] = val;
+		return -1;
 	}
 
 	private void resize(int cap) {
 //		System.out.println("Calling resize");
-		CuckooHashTable<Key, Value> newTable = new CuckooHashTable<>(cap);
+		CuckooHashTable<Key, Value> newTable = new CuckooHashTable<>(cap, maxEvictionDepth, stashKeys.length);
+		newTable.hashStrategy = hashStrategy;
 		for (int i = 0; i < keys.length; i++)
 			if (keys[i] != null)
 				newTable.put(keys[i], values[i]);
+		for (int i = 0; i < stashSize; i++)
+			newTable.put(stashKeys[i], stashValues[i]);
 
 		this.capacity = newTable.capacity;
 		this.cellSet = newTable.cellSet;
@@ -109,6 +267,10 @@ public class CuckooHashTable<Key, Value> {
 		this.keys = (Key[]) newTable.keys;
 		this.values = (Value[]) newTable.values;
 		this.size = newTable.size;
+		this.stashKeys = newTable.stashKeys;
+		this.stashValues = newTable.stashValues;
+		this.stashSize = newTable.stashSize;
+		this.removedSinceRebuild = 0;
 
 	}
 
@@ -118,9 +280,17 @@ public class CuckooHashTable<Key, Value> {
 
 		int cellNo;
 		for (int t = 0; t < 2 && (cellNo = hash(key, t)) >= 0; t++) {
-			if (key.equals(keys[cellNo]))
+			if (key.equals(keys[cellNo])) {
+				if (stats != null)
+					stats.probe(true, t + 1);
 				return values[cellNo];
+			}
 		}
+		int stashed = stashIndex(key);
+		if (stats != null)
+			stats.probe(stashed >= 0, 2 + stashSize);
+		if (stashed >= 0)
+			return stashValues[stashed];
 
 		return null;
 	}
@@ -135,10 +305,37 @@ public class CuckooHashTable<Key, Value> {
 				keys[cellNo] = null;
 				values[cellNo] = null;
 				size--;
-				break;
+				removedSinceRebuild++;
+				return;
 			}
 		}
+		int stashed = stashIndex(key);
+		if (stashed >= 0) {
+			stashSize--;
+			stashKeys[stashed] = stashKeys[stashSize];
+			stashValues[stashed] = stashValues[stashSize];
+			stashKeys[stashSize] = null;
+			stashValues[stashSize] = null;
+			size--;
+		}
+
+	}
+
+	/**
+	 * Cursor over both tables, then the stash.
+	 */
+	public MapCursor<Key, Value> cursor() {
+		return new Cursor(0, capacity + stashSize);
+	}
+
+	public void forEach(BiConsumer<? super Key, ? super Value> action) {
+		MapCursor<Key, Value> c = cursor();
+		while (c.advance())
+			action.accept(c.key(), c.value());
+	}
 
+	public Spliterator<Key> keySpliterator() {
+		return new Cursor(0, capacity + stashSize);
 	}
 
 	public String toString() {
@@ -158,14 +355,66 @@ public class CuckooHashTable<Key, Value> {
 		return repr.toString();
 	}
 
+	/**
+	 * Starts or stops collecting statistics; stopping drops what was collected.
+	 */
+	public void trackStats(boolean on) {
+		if (!on)
+			stats = null;
+		else if (stats == null)
+			stats = new StatsRecorder();
+	}
+
+	/**
+	 * @return statistics collected since tracking started, or null when it is off
+	 */
+	public HashStats stats() {
+		StatsRecorder recorder = stats;
+		return recorder == null ? null : recorder.snapshot(size, capacity, new long[0]);
+	}
+
 	public double loadFactor() {
 		return size * 1.0 / capacity;
 	}
 	public boolean containsKey(Key k) {
 		int cell1 = hash(k, 0);
 		int cell2 = hash(k, 1);
-		if(k.equals(keys[cell1]) || k.equals(keys[cell2])) return true;
-		return false;
+		if(k.equals(keys[cell1])) {
+			if(stats != null) stats.probe(true, 1);
+			return true;
+		}
+		if(k.equals(keys[cell2])) {
+			if(stats != null) stats.probe(true, 2);
+			return true;
+		}
+		boolean stashed = stashIndex(k) >= 0;
+		if(stats != null) stats.probe(stashed, 2 + stashSize);
+		return stashed;
 	}
 
+	private final class Cursor extends SlotCursor<Key, Value> {
+		Cursor(int origin, int fence) {
+			super(origin, fence);
+		}
+
+		@Override
+		boolean occupied(int slot) {
+			return slot >= capacity || keys[slot] != null;
+		}
+
+		@Override
+		Key keyAt(int slot) {
+			return slot < capacity ? keys[slot] : stashKeys[slot - capacity];
+		}
+
+		@Override
+		Value valueAt(int slot) {
+			return slot < capacity ? values[slot] : stashValues[slot - capacity];
+		}
+
+		@Override
+		SlotCursor<Key, Value> slice(int origin, int fence) {
+			return new Cursor(origin, fence);
+		}
+	}
 }
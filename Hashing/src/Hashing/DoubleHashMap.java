@@ -14,6 +14,10 @@ public class DoubleHashMap<K,V> extends AbstractMap<K,V> {
 			bucket.add(null);
 		}
 	}
+	public DoubleHashMap(HashStrategy hashStrategy) {
+		this();
+		this.hashStrategy = hashStrategy;
+	}
 	@Override
 	public void put(K key, V value) {
 		int h1 = getBucketIndex(key);
@@ -23,7 +27,6 @@ public class DoubleHashMap<K,V> extends AbstractMap<K,V> {
 		toAdd.value = value;
 		
 		int i = h1;	
-		int count  = 1;
 		boolean success = false;
 		do
         {
@@ -40,8 +43,7 @@ public class DoubleHashMap<K,V> extends AbstractMap<K,V> {
                 success = true;
                 return; 
             }            
-            i = (h1 + h2 * count) % numBuckets;
-            count++;
+            i = (i + h2) & (numBuckets - 1);
         } while (i != h1);
 //		if(!success) {
 //			boolean downScale = false;
@@ -61,15 +63,18 @@ public class DoubleHashMap<K,V> extends AbstractMap<K,V> {
 		int h1 = getBucketIndex(key);
 		int h2 = getSecondBucketIndex(key);
 		int i = h1;
-		int count = 1;
+		int probes = 0;
 		do
 	    {
+			probes++;
 			Entry<K,V> entry = bucket.get(i);
-            if (entry!=null && entry.key.equals(key))
+            if (entry!=null && entry.key.equals(key)) {
+            	if(stats != null) stats.probe(true, probes);
                 return entry.value;
-            i = (h1 + count*h2) % numBuckets;
-            count++;
+            }
+            i = (i + h2) & (numBuckets - 1);
 	    } while(i!=h1);   
+		if(stats != null) stats.probe(false, probes);
 	    throw new RuntimeException("key not found");
 	}
 
@@ -78,15 +83,18 @@ public class DoubleHashMap<K,V> extends AbstractMap<K,V> {
 		int h1 = getBucketIndex(key);
 		int h2 = getSecondBucketIndex(key);
 		int i = h1;
-		int count = 1;
+		int probes = 0;
 		do
 	    {
+			probes++;
 			Entry<K,V> tmp = bucket.get(i);
-            if (tmp!=null && tmp.key.equals(key))
+            if (tmp!=null && tmp.key.equals(key)) {
+            	if(stats != null) stats.probe(true, probes);
                 return true;
-            i = (h1 + h2*count) % numBuckets;
-            count++;
+            }
+            i = (i + h2) & (numBuckets - 1);
 	    } while(i!=h1);   
+		if(stats != null) stats.probe(false, probes);
 	    return false;
 	}
 	
@@ -97,7 +105,6 @@ public class DoubleHashMap<K,V> extends AbstractMap<K,V> {
 		int h1 = getBucketIndex(key);
 		int h2 = getSecondBucketIndex(key);
 		int i = h1;
-		int count = 1;
 		V ret = null;
 		boolean success = false;
 		do
@@ -109,10 +116,10 @@ public class DoubleHashMap<K,V> extends AbstractMap<K,V> {
                 success = true;
                 break;
             }
-            i = (h1 + count*h2) % numBuckets;
-            count++;
+            i = (i + h2) & (numBuckets - 1);
 	    } while(i!=h1);   
-	    if(!success) throw new RuntimeException("key not found");
+	    // a missing key is not removed, as in the other maps
+	    if(!success) return null;
 	    size--;    
 	    double loadFactor = (1.0 * size/numBuckets);
 	    if(loadFactor <= 0.25) {
@@ -146,10 +153,16 @@ public class DoubleHashMap<K,V> extends AbstractMap<K,V> {
 		return res;
 	}
 	@Override
+	protected long[] chainLengths() {
+		return new long[0];
+	}
+	/**
+	 * Probe step: odd, so with a power of two table every probe sequence
+	 * visits all the buckets.
+	 */
+	@Override
 	protected int getSecondBucketIndex(Object key) {
-		int prime = 7;
-		int hashCode=key.hashCode();
-		return prime - (hashCode%prime);
+		return CapacityPolicy.oddStep(hashCode(key), numBuckets);
 	}
 
 }
@@ -0,0 +1,121 @@
+package Hashing;
+
+import java.util.Arrays;
+
+/**
+ * Snapshot of a map's statistics, taken by stats() on a map that tracks them.
+ *
+ * Probe histograms are indexed by the number of slots or chain entries a
+ * lookup examined, the last slot counting that many or more. A chained map
+ * adds the distribution of its bucket lengths at the time of the snapshot.
+ * Cuckoo maps count the entries moved by inserts and the resizes forced by an
+ * insert that found no eviction path.
+ */
+public final class HashStats {
+	private final int size;
+	private final int capacity;
+	private final long[] hits;
+	private final long[] misses;
+	private final long[] chainLengths;
+	private final long displacements;
+	private final long cycleResizes;
+	private final long resizes;
+	private final long resizeNanos;
+	private final long maxResizeNanos;
+
+	HashStats(int size, int capacity, long[] hits, long[] misses, long[] chainLengths, long displacements,
+			long cycleResizes, long resizes, long resizeNanos, long maxResizeNanos) {
+		this.size = size;
+		this.capacity = capacity;
+		this.hits = hits;
+		this.misses = misses;
+		this.chainLengths = chainLengths;
+		this.displacements = displacements;
+		this.cycleResizes = cycleResizes;
+		this.resizes = resizes;
+		this.resizeNanos = resizeNanos;
+		this.maxResizeNanos = maxResizeNanos;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	public long[] successfulProbes() {
+		return hits.clone();
+	}
+
+	public long[] unsuccessfulProbes() {
+		return misses.clone();
+	}
+
+	public long successfulLookups() {
+		return total(hits);
+	}
+
+	public long unsuccessfulLookups() {
+		return total(misses);
+	}
+
+	public double meanSuccessfulProbes() {
+		return mean(hits);
+	}
+
+	public double meanUnsuccessfulProbes() {
+		return mean(misses);
+	}
+
+	public long[] chainLengths() {
+		return chainLengths.clone();
+	}
+
+	public long displacements() {
+		return displacements;
+	}
+
+	public long cycleResizes() {
+		return cycleResizes;
+	}
+
+	public long resizes() {
+		return resizes;
+	}
+
+	public long totalResizeNanos() {
+		return resizeNanos;
+	}
+
+	public long maxResizeNanos() {
+		return maxResizeNanos;
+	}
+
+	@Override
+	public String toString() {
+		return "size=" + size + ", capacity=" + capacity
+				+ ", hits=" + successfulLookups() + " (mean probes " + String.format("%.2f", meanSuccessfulProbes()) + ")"
+				+ ", misses=" + unsuccessfulLookups() + " (mean probes " + String.format("%.2f", meanUnsuccessfulProbes()) + ")"
+				+ ", chainLengths=" + Arrays.toString(chainLengths)
+				+ ", displacements=" + displacements + ", cycleResizes=" + cycleResizes
+				+ ", resizes=" + resizes + " (" + resizeNanos + " ns, max " + maxResizeNanos + " ns)";
+	}
+
+	private static long total(long[] histogram) {
+		long n = 0;
+		for (long c : histogram)
+			n += c;
+		return n;
+	}
+
+	private static double mean(long[] histogram) {
+		long n = 0, probes = 0;
+		for (int i = 0; i < histogram.length; i++) {
+			n += histogram[i];
+			probes += i * histogram[i];
+		}
+		return n == 0 ? 0 : probes * 1.0 / n;
+	}
+}
@@ -0,0 +1,115 @@
+package Hashing;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * HashStatsMXBean that takes a fresh snapshot for every attribute read. The
+ * snapshot is taken on the JMX thread while the map may be changing, so the
+ * numbers are approximate. While the map is not tracking statistics its
+ * stats() is null and every attribute reads as zero.
+ */
+public class HashStatsBean implements HashStatsMXBean {
+	private static final HashStats NONE = new StatsRecorder().snapshot(0, 0, new long[0]);
+
+	private final Supplier<HashStats> source;
+
+	public HashStatsBean(Supplier<HashStats> source) {
+		if (source == null)
+			throw new IllegalArgumentException("source must not be null");
+		this.source = source;
+	}
+
+	/**
+	 * Registers source, typically map::stats, with the platform MBean server
+	 * as Hashing:type=HashStats,name=<name>.
+	 */
+	public static ObjectName register(String name, Supplier<HashStats> source) throws JMException {
+		ObjectName objectName = new ObjectName("Hashing:type=HashStats,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(new HashStatsBean(source), objectName);
+		return objectName;
+	}
+
+	public static void unregister(ObjectName objectName) throws JMException {
+		ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+	}
+
+	@Override
+	public int getSize() {
+		return snapshot().size();
+	}
+
+	@Override
+	public int getCapacity() {
+		return snapshot().capacity();
+	}
+
+	@Override
+	public long getSuccessfulLookups() {
+		return snapshot().successfulLookups();
+	}
+
+	@Override
+	public long getUnsuccessfulLookups() {
+		return snapshot().unsuccessfulLookups();
+	}
+
+	@Override
+	public double getMeanSuccessfulProbes() {
+		return snapshot().meanSuccessfulProbes();
+	}
+
+	@Override
+	public double getMeanUnsuccessfulProbes() {
+		return snapshot().meanUnsuccessfulProbes();
+	}
+
+	@Override
+	public long[] getSuccessfulProbeHistogram() {
+		return snapshot().successfulProbes();
+	}
+
+	@Override
+	public long[] getUnsuccessfulProbeHistogram() {
+		return snapshot().unsuccessfulProbes();
+	}
+
+	@Override
+	public long[] getChainLengthHistogram() {
+		return snapshot().chainLengths();
+	}
+
+	@Override
+	public long getDisplacements() {
+		return snapshot().displacements();
+	}
+
+	@Override
+	public long getCycleResizes() {
+		return snapshot().cycleResizes();
+	}
+
+	@Override
+	public long getResizes() {
+		return snapshot().resizes();
+	}
+
+	@Override
+	public long getTotalResizeNanos() {
+		return snapshot().totalResizeNanos();
+	}
+
+	@Override
+	public long getMaxResizeNanos() {
+		return snapshot().maxResizeNanos();
+	}
+
+	// one snapshot per attribute read, so a getter never sees it turn null halfway
+	private HashStats snapshot() {
+		HashStats stats = source.get();
+		return stats == null ? NONE : stats;
+	}
+}
@@ -0,0 +1,21 @@
+package Hashing;
+
+/**
+ * JMX view of a map's HashStats, registered through HashStatsBean.register.
+ */
+public interface HashStatsMXBean {
+	public int getSize();
+	public int getCapacity();
+	public long getSuccessfulLookups();
+	public long getUnsuccessfulLookups();
+	public double getMeanSuccessfulProbes();
+	public double getMeanUnsuccessfulProbes();
+	public long[] getSuccessfulProbeHistogram();
+	public long[] getUnsuccessfulProbeHistogram();
+	public long[] getChainLengthHistogram();
+	public long getDisplacements();
+	public long getCycleResizes();
+	public long getResizes();
+	public long getTotalResizeNanos();
+	public long getMaxResizeNanos();
+}
@@ -0,0 +1,88 @@
+package Hashing;
+
+import java.security.SecureRandom;
+
+/**
+ * Turns a key's hashCode into the hash a map derives its indexes from.
+ *
+ * IDENTITY is what the original maps did and keeps sequential keys in
+ * sequential slots. The mixers spread every input bit over the whole result,
+ * so strided keys and keys that differ only in their high bits stop landing
+ * in the same few buckets. A seeded strategy maps the same keys to different
+ * buckets in every map built with a different seed, which stops precomputed
+ * colliding key sets; keys with equal hashCodes still collide whatever the
+ * seed is.
+ */
+public interface HashStrategy {
+
+	int hash(int h);
+
+	default int hash(Object key) {
+		return hash(key.hashCode());
+	}
+
+	default int hash(long key) {
+		return hash(Long.hashCode(key));
+	}
+
+	HashStrategy IDENTITY = h -> h;
+
+	/**
+	 * Multiply by 2^32 / golden ratio, then fold the high half into the low
+	 * half so that mask-based indexing sees the well mixed bits.
+	 */
+	HashStrategy FIBONACCI = fibonacci(0);
+
+	HashStrategy MURMUR3 = murmur3(0);
+
+	HashStrategy XXHASH = xxHash(0);
+
+	static HashStrategy fibonacci(int seed) {
+		return h -> {
+			int x = (h ^ seed) * 0x9E3779B9;
+			return x ^ (x >>> 16);
+		};
+	}
+
+	/**
+	 * MurmurHash3 (x86, 32 bit) of the 4 bytes of the hashCode.
+	 */
+	static HashStrategy murmur3(int seed) {
+		return h -> {
+			int k = h * 0xCC9E2D51;
+			k = Integer.rotateLeft(k, 15) * 0x1B873593;
+			int x = seed ^ k;
+			x = Integer.rotateLeft(x, 13) * 5 + 0xE6546B64;
+			x ^= 4;
+			x ^= x >>> 16;
+			x *= 0x85EBCA6B;
+			x ^= x >>> 13;
+			x *= 0xC2B2AE35;
+			return x ^ (x >>> 16);
+		};
+	}
+
+	/**
+	 * xxHash32 of the 4 bytes of the hashCode.
+	 */
+	static HashStrategy xxHash(int seed) {
+		return h -> {
+			int x = seed + 0x165667B1 + 4;
+			x += h * 0xC2B2AE3D;
+			x = Integer.rotateLeft(x, 17) * 0x27D4EB2F;
+			x ^= x >>> 15;
+			x *= 0x85EBCA77;
+			x ^= x >>> 13;
+			x *= 0xC2B2AE3D;
+			return x ^ (x >>> 16);
+		};
+	}
+
+	/**
+	 * Murmur3 with a seed drawn from a SecureRandom, for maps fed with
+	 * untrusted keys.
+	 */
+	static HashStrategy randomized() {
+		return murmur3(new SecureRandom().nextInt());
+	}
+}
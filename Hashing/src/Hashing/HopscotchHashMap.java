@@ -0,0 +1,455 @@
+package Hashing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Spliterator;
+
+/**
+ * Hopscotch hashing map.
+ *
+ * Every entry lives within NEIGHBORHOOD slots of its home bucket, and each
+ * home bucket keeps a bitmap of which of those slots hold its entries. A
+ * lookup only visits the slots flagged in one bitmap, all of them inside a
+ * short contiguous window. When the free slot found by an insert is too far
+ * away, entries are hopped towards it until it falls inside the window. The
+ * rare key that cannot be hopped in before the table reaches its load factor
+ * goes to a small overflow list, flagged in its home bucket's bitmap so other
+ * lookups never look there; once that list fills up the table doubles. The
+ * overflowed keys of one home are chained together, so a flagged lookup only
+ * walks the keys that share its home.
+ */
+public class HopscotchHashMap<K,V> implements Map<K,V> {
+	private static final int NEIGHBORHOOD = 63;
+	// top bit of a bitmap, set when some key of that home bucket is in overflow
+	private static final long OVERFLOW_FLAG = 1L << 63;
+	private static final long FULL_NEIGHBORHOOD = OVERFLOW_FLAG - 1;
+	private static final int MIN_OVERFLOW = 8;
+	// how far an insert looks for a free slot before giving up and growing
+	private static final int ADD_RANGE = 512;
+	private static final int DEFAULT_CAPACITY = 64;
+	private static final float DEFAULT_LOAD_FACTOR = 0.9f;
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private Object[] keys;
+	private Object[] values;
+	private int[] hashes;
+	// bit j of hopInfo[b] is set when slot b + j holds an entry whose home is b
+	private long[] hopInfo;
+	private ArrayList<Spill<K, V>> overflow = new ArrayList<>();
+	// first overflowed entry of each flagged home bucket
+	private HashMap<Integer, Spill<K, V>> spillHeads = new HashMap<>();
+	private int capacity;
+	private int mask;
+	private int size;
+	private int threshold;
+	private final float loadFactor;
+	private final HashStrategy hashStrategy;
+	// null unless trackStats(true)
+	private StatsRecorder stats;
+
+	public HopscotchHashMap() {
+		this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+	}
+
+	public HopscotchHashMap(int expectedSize) {
+		this(expectedSize, DEFAULT_LOAD_FACTOR);
+	}
+
+	public HopscotchHashMap(int expectedSize, float loadFactor) {
+		this(expectedSize, loadFactor, HashStrategy.FIBONACCI);
+	}
+
+	public HopscotchHashMap(int expectedSize, float loadFactor, HashStrategy hashStrategy) {
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("expectedSize must be non-negative");
+		if (!(loadFactor > 0 && loadFactor < 1))
+			throw new IllegalArgumentException("loadFactor must be in (0, 1)");
+		if (hashStrategy == null)
+			throw new IllegalArgumentException("hashStrategy must not be null");
+		this.loadFactor = loadFactor;
+		this.hashStrategy = hashStrategy;
+		allocate(tableSizeFor((int) Math.ceil(expectedSize / loadFactor)));
+	}
+
+	@Override
+	public void put(K key, V value) {
+		int h = hash(key);
+		int slot = find(key, h);
+		if (slot >= 0) {
+			values[slot] = value;
+			return;
+		}
+		if (hopInfo[h & mask] < 0) {
+			Spill<K, V> spill = findOverflow(key, h);
+			if (spill != null) {
+				spill.value = value;
+				return;
+			}
+		}
+		if (size >= threshold)
+			resize();
+		while (!insert(h, key, value)) {
+			// a neighborhood taken entirely by its own keys does not improve by growing
+			if (neighborhoodFull(h) || size < threshold && overflow.size() < Math.max(MIN_OVERFLOW, capacity >>> 12)) {
+				addOverflow(h, key, value);
+				break;
+			}
+			resize();
+		}
+		size++;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(Object key) {
+		int h = hash(key);
+		int slot = find(key, h);
+		if (slot >= 0)
+			return (V) values[slot];
+		if (hopInfo[h & mask] < 0) {
+			Spill<K, V> spill = findOverflow(key, h);
+			if (spill != null)
+				return spill.value;
+		}
+		throw new RuntimeException("key not found");
+	}
+
+	@Override
+	public boolean containsKey(K key) {
+		int h = hash(key);
+		if (find(key, h) >= 0)
+			return true;
+		return hopInfo[h & mask] < 0 && findOverflow(key, h) != null;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V remove(Object key) {
+		int h = hash(key);
+		int slot = find(key, h);
+		if (slot < 0)
+			return removeOverflow(key, h);
+		V ret = (V) values[slot];
+		int home = h & mask;
+		hopInfo[home] &= ~(1L << ((slot - home) & mask));
+		keys[slot] = null;
+		values[slot] = null;
+		size--;
+		return ret;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		allocate(capacity);
+		overflow.clear();
+		spillHeads.clear();
+		size = 0;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	public double loadFactor() {
+		return size * 1.0 / capacity;
+	}
+
+	/**
+	 * Starts or stops collecting statistics on key searches, counting the
+	 * neighborhood slots and overflow entries compared; stopping drops what
+	 * was collected.
+	 */
+	public void trackStats(boolean on) {
+		if (!on)
+			stats = null;
+		else if (stats == null)
+			stats = new StatsRecorder();
+	}
+
+	/**
+	 * @return statistics collected since tracking started, or null when it is off
+	 */
+	public HashStats stats() {
+		StatsRecorder recorder = stats;
+		return recorder == null ? null : recorder.snapshot(size, capacity, new long[0]);
+	}
+
+	public void display() {
+		for (int i = 0; i < capacity; i++) {
+			if (keys[i] != null)
+				System.out.print(keys[i] + ":" + values[i] + ", ");
+			else
+				System.out.print("null, ");
+		}
+	}
+
+	public Set<Object> keySet() {
+		Set<Object> res = new HashSet<Object>();
+		for (int i = 0; i < capacity; i++) {
+			if (keys[i] != null)
+				res.add(keys[i]);
+		}
+		for (Entry<K, V> entry : overflow)
+			res.add(entry.key);
+		return res;
+	}
+
+	/**
+	 * Slots past the table are the overflow list.
+	 */
+	@Override
+	public MapCursor<K,V> cursor() {
+		return new Cursor(0, capacity + overflow.size());
+	}
+
+	@Override
+	public Spliterator<K> keySpliterator() {
+		return new Cursor(0, capacity + overflow.size());
+	}
+
+	// 	PRIVATE HELPERS
+
+	private int find(Object key, int h) {
+		int home = h & mask;
+		int probes = 0;
+		for (long bits = hopInfo[home] & ~OVERFLOW_FLAG; bits != 0; bits &= bits - 1) {
+			probes++;
+			int slot = (home + Long.numberOfTrailingZeros(bits)) & mask;
+			if (hashes[slot] == h && keys[slot].equals(key)) {
+				if (stats != null)
+					stats.probe(true, probes);
+				return slot;
+			}
+		}
+		// a flagged bucket goes on to the overflow list, which records the search
+		if (stats != null && hopInfo[home] >= 0)
+			stats.probe(false, probes);
+		return -1;
+	}
+
+	private Spill<K, V> findOverflow(Object key, int h) {
+		int home = h & mask;
+		int probes = Long.bitCount(hopInfo[home] & ~OVERFLOW_FLAG);
+		Spill<K, V> spill = spillHeads.get(home);
+		while (spill != null) {
+			probes++;
+			if (spill.hash == h && spill.key.equals(key))
+				break;
+			spill = (Spill<K, V>) spill.next;
+		}
+		if (stats != null)
+			stats.probe(spill != null, probes);
+		return spill;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void addOverflow(int h, Object key, Object value) {
+		int home = h & mask;
+		Spill<K, V> toAdd = new Spill<>(h, overflow.size());
+		toAdd.key = (K) key;
+		toAdd.value = (V) value;
+		toAdd.next = spillHeads.put(home, toAdd);
+		overflow.add(toAdd);
+		hopInfo[home] |= OVERFLOW_FLAG;
+	}
+
+	private V removeOverflow(Object key, int h) {
+		int home = h & mask;
+		if (hopInfo[home] >= 0)
+			return null;
+		Spill<K, V> spill = findOverflow(key, h);
+		if (spill == null)
+			return null;
+		// unlink from the chain of its home
+		Spill<K, V> head = spillHeads.get(home);
+		if (head == spill) {
+			if (spill.next == null) {
+				spillHeads.remove(home);
+				hopInfo[home] &= ~OVERFLOW_FLAG;
+			} else {
+				spillHeads.put(home, (Spill<K, V>) spill.next);
+			}
+		} else {
+			Entry<K, V> prev = head;
+			while (prev.next != spill)
+				prev = prev.next;
+			prev.next = spill.next;
+		}
+		// and from the list, moving its last entry into the gap
+		Spill<K, V> last = overflow.remove(overflow.size() - 1);
+		if (last != spill) {
+			last.index = spill.index;
+			overflow.set(spill.index, last);
+		}
+		size--;
+		return spill.value;
+	}
+
+	/**
+	 * Places a key known to be absent. Returns false when no free slot can be
+	 * brought into the home bucket's neighborhood.
+	 */
+	private boolean insert(int h, Object key, Object value) {
+		int home = h & mask;
+		int range = Math.min(ADD_RANGE, capacity);
+		int dist = 0;
+		while (dist < range && keys[(home + dist) & mask] != null)
+			dist++;
+		if (dist == range)
+			return false;
+		int free = (home + dist) & mask;
+		while (dist >= NEIGHBORHOOD) {
+			free = hopCloser(free);
+			if (free < 0)
+				return false;
+			dist = (free - home) & mask;
+		}
+		keys[free] = key;
+		values[free] = value;
+		hashes[free] = h;
+		hopInfo[home] |= 1L << dist;
+		return true;
+	}
+
+	/**
+	 * Moves an entry from one of the NEIGHBORHOOD - 1 slots before free into
+	 * free, choosing the entry closest to its own home.
+	 *
+	 * @return the slot that was vacated, or -1 if no entry can move
+	 */
+	private int hopCloser(int free) {
+		for (int d = NEIGHBORHOOD - 1; d > 0; d--) {
+			int b = (free - d) & mask;
+			// entries of b that sit before free, any of them may jump to free
+			long movable = hopInfo[b] & ((1L << d) - 1);
+			if (movable == 0)
+				continue;
+			int j = Long.numberOfTrailingZeros(movable);
+			int from = (b + j) & mask;
+			keys[free] = keys[from];
+			values[free] = values[from];
+			hashes[free] = hashes[from];
+			hopInfo[b] = (hopInfo[b] & ~(1L << j)) | (1L << d);
+			keys[from] = null;
+			values[from] = null;
+			return from;
+		}
+		return -1;
+	}
+
+	private void resize() {
+		long start = stats != null ? System.nanoTime() : 0;
+		Object[] oldKeys = keys;
+		Object[] oldValues = values;
+		int[] oldHashes = hashes;
+		ArrayList<Spill<K, V>> oldOverflow = overflow;
+		int newCapacity = capacity;
+		boolean placed;
+		do {
+			newCapacity <<= 1;
+			if (newCapacity > MAX_CAPACITY)
+				throw new IllegalStateException("HopscotchHashMap cannot grow beyond " + MAX_CAPACITY + " slots");
+			// a failed attempt may have overflowed some entries already
+			overflow = new ArrayList<>();
+			spillHeads = new HashMap<>();
+			allocate(newCapacity);
+			placed = true;
+			for (int i = 0; i < oldKeys.length && placed; i++) {
+				if (oldKeys[i] != null)
+					placed = place(oldHashes[i], oldKeys[i], oldValues[i]);
+			}
+			for (int i = 0; i < oldOverflow.size() && placed; i++) {
+				Spill<K, V> spill = oldOverflow.get(i);
+				placed = place(spill.hash, spill.key, spill.value);
+			}
+		} while (!placed);
+		if (stats != null)
+			stats.resized(System.nanoTime() - start);
+	}
+
+	private boolean place(int h, Object key, Object value) {
+		if (insert(h, key, value))
+			return true;
+		if (!neighborhoodFull(h))
+			return false;
+		addOverflow(h, key, value);
+		return true;
+	}
+
+	private boolean neighborhoodFull(int h) {
+		return (hopInfo[h & mask] & FULL_NEIGHBORHOOD) == FULL_NEIGHBORHOOD;
+	}
+
+	private void allocate(int newCapacity) {
+		capacity = newCapacity;
+		mask = newCapacity - 1;
+		keys = new Object[newCapacity];
+		values = new Object[newCapacity];
+		hashes = new int[newCapacity];
+		hopInfo = new long[newCapacity];
+		threshold = Math.min(newCapacity - 1, (int) (newCapacity * loadFactor));
+	}
+
+	private static int tableSizeFor(int n) {
+		int cap = DEFAULT_CAPACITY;
+		while (cap < n && cap < MAX_CAPACITY)
+			cap <<= 1;
+		return cap;
+	}
+
+	private int hash(Object key) {
+		return hashStrategy.hash(key);
+	}
+
+	// an overflowed entry, chained through next to the others of its home
+	private static final class Spill<K, V> extends Entry<K, V> {
+		final int hash;
+		// position in overflow
+		int index;
+
+		Spill(int hash, int index) {
+			this.hash = hash;
+			this.index = index;
+		}
+	}
+
+	private final class Cursor extends SlotCursor<K,V> {
+		Cursor(int origin, int fence) {
+			super(origin, fence);
+		}
+
+		@Override
+		boolean occupied(int slot) {
+			return slot >= capacity || keys[slot] != null;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		K keyAt(int slot) {
+			return slot < capacity ? (K) keys[slot] : overflow.get(slot - capacity).key;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		V valueAt(int slot) {
+			return slot < capacity ? (V) values[slot] : overflow.get(slot - capacity).value;
+		}
+
+		@Override
+		SlotCursor<K,V> slice(int origin, int fence) {
+			return new Cursor(origin, fence);
+		}
+	}
+}
@@ -0,0 +1,6 @@
+package Hashing;
+
+@FunctionalInterface
+public interface IntIntConsumer {
+	public void accept(int key, int value);
+}
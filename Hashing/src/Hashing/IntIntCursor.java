@@ -0,0 +1,10 @@
+package Hashing;
+
+/**
+ * MapCursor for the int to int maps, without boxing.
+ */
+public interface IntIntCursor {
+	public boolean advance();
+	public int key();
+	public int value();
+}
@@ -0,0 +1,328 @@
+package Hashing;
+
+import java.util.Spliterator;
+
+/**
+ * Open addressing int to int map that grows on its own.
+ *
+ * Keys and values are packed side by side in one int array (key at 2*i,
+ * value at 2*i+1), so a probe reads the key and its value from the same
+ * cache line. Removal uses backward-shift deletion instead of tombstones or
+ * re-inserting the rest of the cluster.
+ */
+public class IntIntHashMap {
+	// slot marker for an empty cell, the key 0 itself is kept out of the table
+	private static final int FREE_KEY = 0;
+	private static final int DEFAULT_CAPACITY = 16;
+	private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+	private static final int MAX_CAPACITY = 1 << 29;
+
+	private int[] table;
+	private int capacity;
+	private int mask;
+	private int size;
+	private int threshold;
+	private final float loadFactor;
+
+	private boolean hasFreeKey;
+	private int freeValue;
+	private final int noEntryValue;
+	private final HashStrategy hashStrategy;
+	// null unless trackStats(true)
+	private StatsRecorder stats;
+
+	public IntIntHashMap() {
+		this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR, -1);
+	}
+
+	public IntIntHashMap(int expectedSize) {
+		this(expectedSize, DEFAULT_LOAD_FACTOR, -1);
+	}
+
+	public IntIntHashMap(int expectedSize, float loadFactor) {
+		this(expectedSize, loadFactor, -1);
+	}
+
+	public IntIntHashMap(int expectedSize, float loadFactor, int noEntryValue) {
+		this(expectedSize, loadFactor, noEntryValue, HashStrategy.FIBONACCI);
+	}
+
+	/**
+	 *
+	 * @param expectedSize : number of keys the map should hold without growing
+	 * @param loadFactor   : fill ratio in (0, 1) at which the table doubles
+	 * @param noEntryValue : value returned by get for a missing key
+	 * @param hashStrategy : mixer applied to keys before masking
+	 */
+	public IntIntHashMap(int expectedSize, float loadFactor, int noEntryValue, HashStrategy hashStrategy) {
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("expectedSize must be non-negative");
+		if (!(loadFactor > 0 && loadFactor < 1))
+			throw new IllegalArgumentException("loadFactor must be in (0, 1)");
+		if (hashStrategy == null)
+			throw new IllegalArgumentException("hashStrategy must not be null");
+		this.loadFactor = loadFactor;
+		this.hashStrategy = hashStrategy;
+		this.noEntryValue = noEntryValue;
+		allocate(tableSizeFor((int) Math.ceil(expectedSize / loadFactor)));
+	}
+
+	public void put(int key, int value) {
+		if (key == FREE_KEY) {
+			if (!hasFreeKey)
+				size++;
+			hasFreeKey = true;
+			freeValue = value;
+			return;
+		}
+		int i = hash(key) & mask;
+		int k;
+		while ((k = table[i << 1]) != FREE_KEY) {
+			if (k == key) {
+				table[(i << 1) + 1] = value;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		table[i << 1] = key;
+		table[(i << 1) + 1] = value;
+		if (++size > threshold)
+			rehash(capacity << 1);
+	}
+
+	/**
+	 * @return value mapped to key, or the no-entry value if key is absent
+	 */
+	public int get(int key) {
+		return getOrDefault(key, noEntryValue);
+	}
+
+	public int getOrDefault(int key, int defaultValue) {
+		if (key == FREE_KEY)
+			return hasFreeKey ? freeValue : defaultValue;
+		int i = indexOf(key);
+		return i < 0 ? defaultValue : table[(i << 1) + 1];
+	}
+
+	public boolean contains(int key) {
+		if (key == FREE_KEY)
+			return hasFreeKey;
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 * @return true if the key was present and has been removed
+	 */
+	public boolean remove(int key) {
+		if (key == FREE_KEY) {
+			if (!hasFreeKey)
+				return false;
+			hasFreeKey = false;
+			size--;
+			return true;
+		}
+		int i = indexOf(key);
+		if (i < 0)
+			return false;
+		shiftKeys(i);
+		size--;
+		return true;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		java.util.Arrays.fill(table, FREE_KEY);
+		hasFreeKey = false;
+		size = 0;
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	public int getNoEntryValue() {
+		return noEntryValue;
+	}
+
+	/**
+	 * Starts or stops collecting statistics on get, contains and remove;
+	 * stopping drops what was collected. The free key takes no probes and is
+	 * not counted.
+	 */
+	public void trackStats(boolean on) {
+		if (!on)
+			stats = null;
+		else if (stats == null)
+			stats = new StatsRecorder();
+	}
+
+	/**
+	 * @return statistics collected since tracking started, or null when it is off
+	 */
+	public HashStats stats() {
+		StatsRecorder recorder = stats;
+		return recorder == null ? null : recorder.snapshot(size, capacity, new long[0]);
+	}
+
+	public int[] keySet() {
+		int ks[] = new int[size];
+		int j = 0;
+		if (hasFreeKey)
+			ks[j++] = FREE_KEY;
+		for (int i = 0; i < capacity; i++) {
+			if (table[i << 1] != FREE_KEY)
+				ks[j++] = table[i << 1];
+		}
+		return ks;
+	}
+
+	public int[] valueSet() {
+		int vs[] = new int[size];
+		int j = 0;
+		if (hasFreeKey)
+			vs[j++] = freeValue;
+		for (int i = 0; i < capacity; i++) {
+			if (table[i << 1] != FREE_KEY)
+				vs[j++] = table[(i << 1) + 1];
+		}
+		return vs;
+	}
+
+	/**
+	 * Cursor over the entries in table order. Slot -1 is the free key, kept outside the table.
+	 */
+	public IntIntCursor cursor() {
+		return new Cursor(-1, capacity);
+	}
+
+	public void forEach(IntIntConsumer action) {
+		IntIntCursor c = cursor();
+		while (c.advance())
+			action.accept(c.key(), c.value());
+	}
+
+	/**
+	 * Keys for StreamSupport.intStream, split by slot range.
+	 */
+	public Spliterator.OfInt keySpliterator() {
+		return new Cursor(-1, capacity);
+	}
+
+	// 	PRIVATE HELPERS
+
+	// slot of a key other than FREE_KEY, or -1
+	private int indexOf(int key) {
+		int i = hash(key) & mask;
+		int probes = 1;
+		int k;
+		while ((k = table[i << 1]) != FREE_KEY) {
+			if (k == key) {
+				if (stats != null)
+					stats.probe(true, probes);
+				return i;
+			}
+			i = (i + 1) & mask;
+			probes++;
+		}
+		if (stats != null)
+			stats.probe(false, probes);
+		return -1;
+	}
+
+	/**
+	 * Closes the gap left at pos by moving back every following entry of the
+	 * cluster whose home slot lies at or before the gap.
+	 */
+	private void shiftKeys(int pos) {
+		int last, slot, k;
+		for (;;) {
+			last = pos;
+			pos = (pos + 1) & mask;
+			for (;;) {
+				if ((k = table[pos << 1]) == FREE_KEY) {
+					table[last << 1] = FREE_KEY;
+					return;
+				}
+				slot = hash(k) & mask;
+				if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos)
+					break;
+				pos = (pos + 1) & mask;
+			}
+			table[last << 1] = k;
+			table[(last << 1) + 1] = table[(pos << 1) + 1];
+		}
+	}
+
+	private void rehash(int newCapacity) {
+		if (newCapacity > MAX_CAPACITY)
+			throw new IllegalStateException("IntIntHashMap cannot grow beyond " + MAX_CAPACITY + " slots");
+		long start = stats != null ? System.nanoTime() : 0;
+		int[] old = table;
+		int oldCapacity = capacity;
+		allocate(newCapacity);
+		for (int j = 0; j < oldCapacity; j++) {
+			int k = old[j << 1];
+			if (k == FREE_KEY)
+				continue;
+			int i = hash(k) & mask;
+			while (table[i << 1] != FREE_KEY)
+				i = (i + 1) & mask;
+			table[i << 1] = k;
+			table[(i << 1) + 1] = old[(j << 1) + 1];
+		}
+		if (stats != null)
+			stats.resized(System.nanoTime() - start);
+	}
+
+	private void allocate(int newCapacity) {
+		capacity = newCapacity;
+		mask = newCapacity - 1;
+		table = new int[newCapacity << 1];
+		threshold = Math.min(newCapacity - 1, (int) (newCapacity * loadFactor));
+	}
+
+	private static int tableSizeFor(int n) {
+		int cap = DEFAULT_CAPACITY;
+		while (cap < n && cap < MAX_CAPACITY)
+			cap <<= 1;
+		return cap;
+	}
+
+	// the default Fibonacci mix keeps sequential keys from forming one long run
+	private int hash(int key) {
+		return hashStrategy.hash(key);
+	}
+
+	private final class Cursor extends IntSlotCursor {
+		Cursor(int origin, int fence) {
+			super(origin, fence);
+		}
+
+		@Override
+		boolean occupied(int slot) {
+			return slot < 0 ? hasFreeKey : table[slot << 1] != FREE_KEY;
+		}
+
+		@Override
+		int keyAt(int slot) {
+			return slot < 0 ? FREE_KEY : table[slot << 1];
+		}
+
+		@Override
+		int valueAt(int slot) {
+			return slot < 0 ? freeValue : table[(slot << 1) + 1];
+		}
+
+		@Override
+		IntSlotCursor slice(int origin, int fence) {
+			return new Cursor(origin, fence);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package Hashing;
+
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * SlotCursor for the int to int maps. Slot -1 may stand for an entry kept
+ * outside the table, such as the free key of IntIntHashMap.
+ */
+abstract class IntSlotCursor implements IntIntCursor, Spliterator.OfInt {
+	private int next;
+	private final int fence;
+	private int slot;
+
+	IntSlotCursor(int origin, int fence) {
+		this.next = origin;
+		this.fence = fence;
+	}
+
+	abstract boolean occupied(int slot);
+
+	abstract int keyAt(int slot);
+
+	abstract int valueAt(int slot);
+
+	abstract IntSlotCursor slice(int origin, int fence);
+
+	@Override
+	public boolean advance() {
+		while (next < fence) {
+			int i = next++;
+			if (occupied(i)) {
+				slot = i;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int key() {
+		return keyAt(slot);
+	}
+
+	@Override
+	public int value() {
+		return valueAt(slot);
+	}
+
+	@Override
+	public boolean tryAdvance(IntConsumer action) {
+		if (!advance())
+			return false;
+		action.accept(key());
+		return true;
+	}
+
+	@Override
+	public Spliterator.OfInt trySplit() {
+		int mid = next + ((fence - next) >>> 1);
+		if (mid <= next)
+			return null;
+		IntSlotCursor prefix = slice(next, mid);
+		next = mid;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return fence - next;
+	}
+
+	@Override
+	public int characteristics() {
+		return DISTINCT;
+	}
+}
@@ -1,23 +1,40 @@
 package Hashing;
 
+import java.util.Spliterator;
+
 public class LinearHashMap {
 	private int keys[];
 	private int values[];
 	private int maxSize;
+	private int mask;
 	private int currentSize;
 	private boolean occupied[];
+	private HashStrategy hashStrategy = HashStrategy.FIBONACCI;
+	// null unless trackStats(true)
+	private StatsRecorder stats;
 	
 	// MACROS
 	private int NOT_FOUND = -1;
 	
+	/**
+	 * 
+	 * @param n : number of slots, rounded up to a power of two
+	 */
 	public LinearHashMap(int n) {
+		n = CapacityPolicy.tableSizeFor(n);
 		keys = new int[n];
 		values= new int[n];
 		occupied = new boolean[n];
 		maxSize = n;
+		mask = n - 1;
 		currentSize = 0;
 	}
 	
+	public LinearHashMap(int n, HashStrategy hashStrategy) {
+		this(n);
+		this.hashStrategy = hashStrategy;
+	}
+	
 	public void put(int key, int value) throws Exception {
 		if(isFull()) throw new Exception("Hashmap is full."); 
 		int h = getHashValue(key);
@@ -38,22 +55,25 @@ public class LinearHashMap {
                 occupied[i] = true;
                 return; 
             }            
-            i = (i + 1) % maxSize;            
+            i = (i + 1) & mask;            
         } while (i != h);
 		
 	}
 	
+	/**
+	 * Puts the first count pairs of keys and values, in order.
+	 */
+	public void putAll(int[] keys, int[] values, int count) throws Exception {
+		if(count < 0 || count > keys.length || count > values.length)
+			throw new IllegalArgumentException("count out of range");
+		for(int j = 0; j < count; j++)
+			put(keys[j], values[j]);
+	}
+
 	public int get(int key) throws Exception {
-		int h = getHashValue(key);
-		if(!occupied[h]) throw new Exception("key not found");
-		int i = h;
-		do
-	    {
-            if (keys[i]==key)
-                return values[h];
-            i = (i + 1) % maxSize;
-	    } while(i!=h);   
-	    throw new Exception("key not found");
+		int i = find(key);
+		if(i < 0) throw new Exception("key not found");
+		return values[i];
 		//return NOT_FOUND;
 	}
 	
@@ -66,28 +86,16 @@ public class LinearHashMap {
 	}
 	
 	public boolean contains(int key) {
-		int h = getHashValue(key);
-		if(!occupied[h]) return false;
-		int i = h;
-		do
-	    {
-            if (keys[i]==key)
-                return true;
-            i = (i + 1) % maxSize;
-	    } while(i!=h);   
-	    return false;
+		return find(key) >= 0;
 	}
 	
 	public void remove(int key) throws Exception
 	{
-        if (!contains(key)) throw new Exception("key not found");
- 
-        int i = getHashValue(key);
-        while (key != keys[i]) 
-            i = (i + 1) % maxSize;        
+        int i = find(key);
+        if (i < 0) throw new Exception("key not found");
         occupied[i] = false;
  
-	    for (i = (i + 1) % maxSize; occupied[i] != false; i = (i + 1) % maxSize)
+	    for (i = (i + 1) & mask; occupied[i] != false; i = (i + 1) & mask)
 	    {
 	        int tmp1 = keys[i], tmp2 = values[i];
 	        occupied[i] = false;
@@ -109,14 +117,76 @@ public class LinearHashMap {
 		return currentSize == maxSize;
 	}
 	
+	/**
+	 * Starts or stops collecting statistics on get, contains and remove;
+	 * stopping drops what was collected.
+	 */
+	public void trackStats(boolean on) {
+		if(!on)
+			stats = null;
+		else if(stats == null)
+			stats = new StatsRecorder();
+	}
+	
+	/**
+	 * @return statistics collected since tracking started, or null when it is off
+	 */
+	public HashStats stats() {
+		StatsRecorder recorder = stats;
+		return recorder == null ? null : recorder.snapshot(currentSize, maxSize, new long[0]);
+	}
+	
+	/**
+	 * Cursor over the entries in table order.
+	 */
+	public IntIntCursor cursor() {
+		return new Cursor(0, maxSize);
+	}
+
+	public void forEach(IntIntConsumer action) {
+		IntIntCursor c = cursor();
+		while (c.advance())
+			action.accept(c.key(), c.value());
+	}
+
+	/**
+	 * Keys for StreamSupport.intStream, split by slot range.
+	 */
+	public Spliterator.OfInt keySpliterator() {
+		return new Cursor(0, maxSize);
+	}
+
 	// 	PRIVATE HELPERS
 	
 	private int getHashValue(int key) {
-		return hashCode(key) % maxSize;
+		return CapacityPolicy.indexFor(hashCode(key), maxSize);
+	}
+	
+	/**
+	 * Slot holding key, or -1. A run of occupied slots ends the search, since
+	 * remove re-inserts the rest of a run instead of leaving gaps in it.
+	 */
+	private int find(int key) {
+		int h = getHashValue(key);
+		int i = h;
+		int probes = 0;
+		do
+	    {
+			probes++;
+			if (!occupied[i])
+				break;
+            if (keys[i]==key) {
+            	if(stats != null) stats.probe(true, probes);
+                return i;
+            }
+            i = (i + 1) & mask;
+	    } while(i!=h);
+		if(stats != null) stats.probe(false, probes);
+		return -1;
 	}
 	
 	private int hashCode(int key) {
-		return key; //% hashFactor;
+		return hashStrategy.hash(key);
 	}
 
 	private int[] formKeySet() {
@@ -142,5 +212,30 @@ public class LinearHashMap {
 		}
 		return vs;
 	}
-	
+
+	private final class Cursor extends IntSlotCursor {
+		Cursor(int origin, int fence) {
+			super(origin, fence);
+		}
+
+		@Override
+		boolean occupied(int slot) {
+			return occupied[slot];
+		}
+
+		@Override
+		int keyAt(int slot) {
+			return keys[slot];
+		}
+
+		@Override
+		int valueAt(int slot) {
+			return values[slot];
+		}
+
+		@Override
+		IntSlotCursor slice(int origin, int fence) {
+			return new Cursor(origin, fence);
+		}
+	}
 }
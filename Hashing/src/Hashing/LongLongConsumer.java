@@ -0,0 +1,6 @@
+package Hashing;
+
+@FunctionalInterface
+public interface LongLongConsumer {
+	public void accept(long key, long value);
+}
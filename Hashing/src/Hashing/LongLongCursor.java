@@ -0,0 +1,10 @@
+package Hashing;
+
+/**
+ * MapCursor for the long to long maps, without boxing.
+ */
+public interface LongLongCursor {
+	public boolean advance();
+	public long key();
+	public long value();
+}
@@ -0,0 +1,77 @@
+package Hashing;
+
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * SlotCursor for the long to long maps. Slot -1 may stand for an entry kept
+ * outside the table, such as the free key of OffHeapLongLongHashMap.
+ */
+abstract class LongSlotCursor implements LongLongCursor, Spliterator.OfLong {
+	private int next;
+	private final int fence;
+	private int slot;
+
+	LongSlotCursor(int origin, int fence) {
+		this.next = origin;
+		this.fence = fence;
+	}
+
+	abstract boolean occupied(int slot);
+
+	abstract long keyAt(int slot);
+
+	abstract long valueAt(int slot);
+
+	abstract LongSlotCursor slice(int origin, int fence);
+
+	@Override
+	public boolean advance() {
+		while (next < fence) {
+			int i = next++;
+			if (occupied(i)) {
+				slot = i;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public long key() {
+		return keyAt(slot);
+	}
+
+	@Override
+	public long value() {
+		return valueAt(slot);
+	}
+
+	@Override
+	public boolean tryAdvance(LongConsumer action) {
+		if (!advance())
+			return false;
+		action.accept(key());
+		return true;
+	}
+
+	@Override
+	public Spliterator.OfLong trySplit() {
+		int mid = next + ((fence - next) >>> 1);
+		if (mid <= next)
+			return null;
+		LongSlotCursor prefix = slice(next, mid);
+		next = mid;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return fence - next;
+	}
+
+	@Override
+	public int characteristics() {
+		return DISTINCT;
+	}
+}
@@ -1,5 +1,11 @@
 package Hashing;
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+
 public interface Map<K, V> {
 	public void put(K key, V value);
 	public V get(Object key);
@@ -8,4 +14,80 @@ public interface Map<K, V> {
 	public int size();
 	public void clear();
 	public boolean isEmpty();
+
+	/**
+	 * Puts keys[i] to values[i] for every i, in order, so a later duplicate
+	 * key wins.
+	 */
+	public default void putAll(K[] keys, V[] values) {
+		if (keys.length != values.length)
+			throw new IllegalArgumentException("keys and values differ in length");
+		for (int i = 0; i < keys.length; i++)
+			put(keys[i], values[i]);
+	}
+
+	/**
+	 * Stores the value of keys[i] in out[i]; a missing key fails as in get.
+	 */
+	public default void getAll(Object[] keys, V[] out) {
+		if (out.length < keys.length)
+			throw new IllegalArgumentException("out is shorter than keys");
+		for (int i = 0; i < keys.length; i++)
+			out[i] = get(keys[i]);
+	}
+
+	/**
+	 * @return number of keys whose removal returned a value
+	 */
+	public default int removeAll(Object[] keys) {
+		int removed = 0;
+		for (Object key : keys) {
+			if (remove(key) != null)
+				removed++;
+		}
+		return removed;
+	}
+
+	/**
+	 * @return a cursor over the entries, reading the table in place
+	 */
+	public MapCursor<K, V> cursor();
+
+	public default void forEach(BiConsumer<? super K, ? super V> action) {
+		MapCursor<K, V> c = cursor();
+		while (c.advance())
+			action.accept(c.key(), c.value());
+	}
+
+	public default Iterator<K> keyIterator() {
+		MapCursor<K, V> c = cursor();
+		return new Iterator<K>() {
+			private boolean ready, more;
+
+			@Override
+			public boolean hasNext() {
+				if (!ready) {
+					more = c.advance();
+					ready = true;
+				}
+				return more;
+			}
+
+			@Override
+			public K next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				ready = false;
+				return c.key();
+			}
+		};
+	}
+
+	/**
+	 * Keys for StreamSupport.stream. Maps over flat tables split by slot range;
+	 * this default can only split by copying batches off the iterator.
+	 */
+	public default Spliterator<K> keySpliterator() {
+		return Spliterators.spliterator(keyIterator(), size(), Spliterator.DISTINCT | Spliterator.NONNULL);
+	}
 }
@@ -0,0 +1,12 @@
+package Hashing;
+
+/**
+ * Walks a map's entries in place. advance() moves to the next entry and
+ * returns false once there are none left; key() and value() then describe the
+ * current entry. A cursor is not valid across changes to its map.
+ */
+public interface MapCursor<K, V> {
+	public boolean advance();
+	public K key();
+	public V value();
+}
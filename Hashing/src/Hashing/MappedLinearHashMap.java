@@ -0,0 +1,345 @@
+package Hashing;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+
+/**
+ * LinearHashMap whose table lives in a memory-mapped file.
+ *
+ * File layout, little endian:
+ *   header (32 bytes): magic, format version, capacity, size, hash seed, 3 reserved ints
+ *   capacity slots of 12 bytes: occupied flag, key, value
+ *
+ * The header is kept current on every update, so open only maps the file and
+ * checks the header; pages are read in by the OS as queries touch them.
+ * Like LinearHashMap the capacity is fixed when the file is created.
+ * force writes changes through to disk, close also does this and unmaps.
+ */
+public class MappedLinearHashMap implements AutoCloseable {
+	public static final int MAGIC = 0x504D484C;
+	public static final int VERSION = 1;
+	private static final int HEADER_BYTES = 32;
+	private static final int SLOT_BYTES = 12;
+	private static final int MAGIC_OFFSET = 0;
+	private static final int VERSION_OFFSET = 4;
+	private static final int CAPACITY_OFFSET = 8;
+	private static final int SIZE_OFFSET = 12;
+	private static final int SEED_OFFSET = 16;
+	private static final int DEFAULT_SEED = 0x2545F491;
+	private static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_BYTES) / SLOT_BYTES;
+
+	private MappedByteBuffer buf;
+	private final int maxSize;
+	private final int seed;
+	private int currentSize;
+	// null unless trackStats(true)
+	private StatsRecorder stats;
+
+	private MappedLinearHashMap(MappedByteBuffer buf) {
+		this.buf = buf;
+		maxSize = buf.getInt(CAPACITY_OFFSET);
+		seed = buf.getInt(SEED_OFFSET);
+		currentSize = buf.getInt(SIZE_OFFSET);
+	}
+
+	public static MappedLinearHashMap create(Path file, int n) throws IOException {
+		return create(file, n, DEFAULT_SEED);
+	}
+
+	/**
+	 * Creates an empty map in file, replacing anything already there.
+	 *
+	 * @param n    : number of slots
+	 * @param seed : mixed into every key's hash
+	 */
+	public static MappedLinearHashMap create(Path file, int n, int seed) throws IOException {
+		if (n <= 0 || n > MAX_CAPACITY)
+			throw new IllegalArgumentException("capacity must be in [1, " + MAX_CAPACITY + "]");
+		long length = HEADER_BYTES + (long) n * SLOT_BYTES;
+		MappedByteBuffer buf;
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			// a freshly extended file reads as zeros, which is an empty table
+			buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, length);
+		}
+		buf.order(ByteOrder.LITTLE_ENDIAN);
+		buf.putInt(MAGIC_OFFSET, MAGIC);
+		buf.putInt(VERSION_OFFSET, VERSION);
+		buf.putInt(CAPACITY_OFFSET, n);
+		buf.putInt(SIZE_OFFSET, 0);
+		buf.putInt(SEED_OFFSET, seed);
+		return new MappedLinearHashMap(buf);
+	}
+
+	/**
+	 * Maps an existing map file without reading its slots.
+	 *
+	 * @throws IOException if the file is not a map file of this version
+	 */
+	public static MappedLinearHashMap open(Path file) throws IOException {
+		MappedByteBuffer buf;
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			long length = ch.size();
+			if (length < HEADER_BYTES)
+				throw new IOException(file + " is not a map file");
+			buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, length);
+		}
+		buf.order(ByteOrder.LITTLE_ENDIAN);
+		try {
+			if (buf.getInt(MAGIC_OFFSET) != MAGIC)
+				throw new IOException(file + " is not a map file");
+			if (buf.getInt(VERSION_OFFSET) != VERSION)
+				throw new IOException(file + " has format version " + buf.getInt(VERSION_OFFSET) + ", expected " + VERSION);
+			int n = buf.getInt(CAPACITY_OFFSET);
+			int size = buf.getInt(SIZE_OFFSET);
+			if (n <= 0 || n > MAX_CAPACITY || buf.capacity() != HEADER_BYTES + (long) n * SLOT_BYTES || size < 0 || size > n)
+				throw new IOException(file + " has a corrupt header");
+		} catch (IOException e) {
+			OffHeapArena.free(buf);
+			throw e;
+		}
+		return new MappedLinearHashMap(buf);
+	}
+
+	public void put(int key, int value) throws Exception {
+		checkOpen();
+		int h = getHashValue(key);
+		int i = h;
+		do {
+			if (!occupied(i)) {
+				setSlot(i, key, value);
+				setSize(currentSize + 1);
+				return;
+			}
+			if (key(i) == key) {
+				buf.putInt(offset(i) + 8, value);
+				return;
+			}
+			i = (i + 1) % maxSize;
+		} while (i != h);
+		throw new Exception("Hashmap is full.");
+	}
+
+	public int get(int key) throws Exception {
+		int i = find(key);
+		if (i < 0)
+			throw new Exception("key not found");
+		return buf.getInt(offset(i) + 8);
+	}
+
+	public boolean contains(int key) {
+		return find(key) >= 0;
+	}
+
+	public void remove(int key) throws Exception {
+		int i = find(key);
+		if (i < 0)
+			throw new Exception("key not found");
+		// backward shift: move later entries of the run into the gap instead of re-inserting them
+		int gap = i;
+		buf.putInt(offset(gap), 0);
+		for (int j = (i + 1) % maxSize; occupied(j); j = (j + 1) % maxSize) {
+			int home = getHashValue(key(j));
+			boolean movable = gap <= j ? home <= gap || home > j : home <= gap && home > j;
+			if (movable) {
+				setSlot(gap, key(j), buf.getInt(offset(j) + 8));
+				buf.putInt(offset(j), 0);
+				gap = j;
+			}
+		}
+		setSize(currentSize - 1);
+	}
+
+	public int size() {
+		return currentSize;
+	}
+
+	public boolean isEmpty() {
+		return currentSize == 0;
+	}
+
+	public boolean isFull() {
+		return currentSize == maxSize;
+	}
+
+	public int capacity() {
+		return maxSize;
+	}
+
+	public int seed() {
+		return seed;
+	}
+
+	/**
+	 * Starts or stops collecting statistics on get, contains and remove;
+	 * stopping drops what was collected. They are kept on the heap, not in
+	 * the file.
+	 */
+	public void trackStats(boolean on) {
+		if (!on)
+			stats = null;
+		else if (stats == null)
+			stats = new StatsRecorder();
+	}
+
+	/**
+	 * @return statistics collected since tracking started, or null when it is off
+	 */
+	public HashStats stats() {
+		StatsRecorder recorder = stats;
+		return recorder == null ? null : recorder.snapshot(currentSize, maxSize, new long[0]);
+	}
+
+	public int[] keySet() {
+		checkOpen();
+		int ks[] = new int[currentSize];
+		int j = 0;
+		for (int i = 0; i < maxSize; i++) {
+			if (occupied(i))
+				ks[j++] = key(i);
+		}
+		return ks;
+	}
+
+	public int[] valueSet() {
+		checkOpen();
+		int vs[] = new int[currentSize];
+		int j = 0;
+		for (int i = 0; i < maxSize; i++) {
+			if (occupied(i))
+				vs[j++] = buf.getInt(offset(i) + 8);
+		}
+		return vs;
+	}
+
+	/**
+	 * Cursor over the entries in slot order, reading the mapped file in place.
+	 */
+	public IntIntCursor cursor() {
+		checkOpen();
+		return new Cursor(0, maxSize);
+	}
+
+	public void forEach(IntIntConsumer action) {
+		IntIntCursor c = cursor();
+		while (c.advance())
+			action.accept(c.key(), c.value());
+	}
+
+	/**
+	 * Keys for StreamSupport.intStream, split by slot range.
+	 */
+	public Spliterator.OfInt keySpliterator() {
+		checkOpen();
+		return new Cursor(0, maxSize);
+	}
+
+	/**
+	 * Writes modified pages back to the file.
+	 */
+	public void force() {
+		checkOpen();
+		buf.force();
+	}
+
+	@Override
+	public void close() {
+		if (buf == null)
+			return;
+		buf.force();
+		OffHeapArena.free(buf);
+		buf = null;
+	}
+
+	// 	PRIVATE HELPERS
+
+	private int find(int key) {
+		checkOpen();
+		int h = getHashValue(key);
+		int i = h;
+		int probes = 0;
+		do {
+			probes++;
+			if (!occupied(i))
+				break;
+			if (key(i) == key) {
+				if (stats != null)
+					stats.probe(true, probes);
+				return i;
+			}
+			i = (i + 1) % maxSize;
+		} while (i != h);
+		if (stats != null)
+			stats.probe(false, probes);
+		return -1;
+	}
+
+	private int offset(int slot) {
+		return HEADER_BYTES + slot * SLOT_BYTES;
+	}
+
+	private boolean occupied(int slot) {
+		return buf.getInt(offset(slot)) != 0;
+	}
+
+	private int key(int slot) {
+		return buf.getInt(offset(slot) + 4);
+	}
+
+	private void setSlot(int slot, int key, int value) {
+		int off = offset(slot);
+		buf.putInt(off + 4, key);
+		buf.putInt(off + 8, value);
+		buf.putInt(off, 1);
+	}
+
+	private void setSize(int size) {
+		currentSize = size;
+		buf.putInt(SIZE_OFFSET, size);
+	}
+
+	private void checkOpen() {
+		if (buf == null)
+			throw new IllegalStateException("map is closed");
+	}
+
+	private int getHashValue(int key) {
+		int h = (key ^ seed) * 0x9E3779B9;
+		return ((h ^ (h >>> 16)) & 0x7FFFFFFF) % maxSize;
+	}
+
+	private final class Cursor extends IntSlotCursor {
+		Cursor(int origin, int fence) {
+			super(origin, fence);
+		}
+
+		// the buffer is unmapped on close, a cursor kept past it must not read it
+		@Override
+		boolean occupied(int slot) {
+			checkOpen();
+			return MappedLinearHashMap.this.occupied(slot);
+		}
+
+		@Override
+		int keyAt(int slot) {
+			checkOpen();
+			return MappedLinearHashMap.this.key(slot);
+		}
+
+		@Override
+		int valueAt(int slot) {
+			checkOpen();
+			return buf.getInt(offset(slot) + 8);
+		}
+
+		@Override
+		IntSlotCursor slice(int origin, int fence) {
+			return new Cursor(origin, fence);
+		}
+	}
+}
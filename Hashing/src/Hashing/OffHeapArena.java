@@ -0,0 +1,96 @@
+package Hashing;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Owner of the direct memory used by the off-heap maps.
+ *
+ * Every buffer handed out is tracked here; release frees one buffer right
+ * away and close frees whatever is still live. Freeing goes through the
+ * buffer's cleaner, so memory is returned without waiting for a GC to notice
+ * the ByteBuffer object is gone. One arena may be shared by several maps.
+ * The JVM caps direct memory with -XX:MaxDirectMemorySize, which defaults
+ * to the maximum heap size.
+ */
+public class OffHeapArena implements AutoCloseable {
+	private static final Object UNSAFE;
+	private static final Method INVOKE_CLEANER;
+
+	static {
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		try {
+			Class<?> cls = Class.forName("sun.misc.Unsafe");
+			Field f = cls.getDeclaredField("theUnsafe");
+			f.setAccessible(true);
+			unsafe = f.get(null);
+			invokeCleaner = cls.getMethod("invokeCleaner", ByteBuffer.class);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// no explicit free available, released buffers are then left to the GC
+		}
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+	}
+
+	private final Set<ByteBuffer> live = Collections.newSetFromMap(new IdentityHashMap<ByteBuffer, Boolean>());
+	private long allocatedBytes;
+	// read without the lock by every map operation, see OffHeapTable.checkOpen
+	private volatile boolean closed;
+
+	/**
+	 * @return a zeroed direct buffer in native byte order
+	 */
+	public synchronized ByteBuffer allocate(int bytes) {
+		if (closed)
+			throw new IllegalStateException("arena is closed");
+		ByteBuffer buf = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+		live.add(buf);
+		allocatedBytes += bytes;
+		return buf;
+	}
+
+	public synchronized void release(ByteBuffer buf) {
+		if (buf == null || !live.remove(buf))
+			return;
+		allocatedBytes -= buf.capacity();
+		free(buf);
+	}
+
+	/**
+	 * @return bytes currently held by live buffers
+	 */
+	public synchronized long allocatedBytes() {
+		return allocatedBytes;
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+	@Override
+	public synchronized void close() {
+		if (closed)
+			return;
+		closed = true;
+		for (ByteBuffer buf : live)
+			free(buf);
+		live.clear();
+		allocatedBytes = 0;
+	}
+
+	static void free(ByteBuffer buf) {
+		if (INVOKE_CLEANER == null)
+			return;
+		try {
+			INVOKE_CLEANER.invoke(UNSAFE, buf);
+		} catch (ReflectiveOperationException e) {
+			// fall back to the GC
+		}
+	}
+}
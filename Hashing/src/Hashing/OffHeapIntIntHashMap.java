@@ -0,0 +1,305 @@
+package Hashing;
+
+import java.nio.ByteBuffer;
+import java.util.Spliterator;
+
+/**
+ * IntIntHashMap with its slots in direct memory.
+ *
+ * The table is split into pages of direct ByteBuffers taken from an
+ * OffHeapArena, each slot being 8 bytes (key, then value). The GC sees a
+ * handful of page objects however large the table gets. Probing and
+ * backward-shift deletion work as in IntIntHashMap. A map must be closed,
+ * directly or through its arena, to give the memory back.
+ */
+public class OffHeapIntIntHashMap extends OffHeapTable {
+	private static final int FREE_KEY = 0;
+	private static final int SLOT_BYTES = 8;
+
+	private int size;
+	private boolean hasFreeKey;
+	private int freeValue;
+	private final int noEntryValue;
+
+	public OffHeapIntIntHashMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public OffHeapIntIntHashMap(int expectedSize) {
+		this(new OffHeapArena(), true, expectedSize, DEFAULT_LOAD_FACTOR, -1, HashStrategy.FIBONACCI);
+	}
+
+	/**
+	 *
+	 * @param arena        : arena the pages are allocated from, it stays open when the map is closed
+	 * @param expectedSize : number of keys the map should hold without growing
+	 * @param loadFactor   : fill ratio in (0, 1) at which the table doubles
+	 * @param noEntryValue : value returned by get for a missing key
+	 */
+	public OffHeapIntIntHashMap(OffHeapArena arena, int expectedSize, float loadFactor, int noEntryValue) {
+		this(arena, false, expectedSize, loadFactor, noEntryValue, HashStrategy.FIBONACCI);
+	}
+
+	public OffHeapIntIntHashMap(OffHeapArena arena, int expectedSize, float loadFactor, int noEntryValue, HashStrategy hashStrategy) {
+		this(arena, false, expectedSize, loadFactor, noEntryValue, hashStrategy);
+	}
+
+	private OffHeapIntIntHashMap(OffHeapArena arena, boolean ownsArena, int expectedSize, float loadFactor, int noEntryValue, HashStrategy hashStrategy) {
+		super(arena, ownsArena, SLOT_BYTES, expectedSize, loadFactor, hashStrategy);
+		this.noEntryValue = noEntryValue;
+	}
+
+	public void put(int key, int value) {
+		checkOpen();
+		if (key == FREE_KEY) {
+			if (!hasFreeKey)
+				size++;
+			hasFreeKey = true;
+			freeValue = value;
+			return;
+		}
+		int i = hash(key) & mask;
+		int k;
+		while ((k = key(i)) != FREE_KEY) {
+			if (k == key) {
+				setValue(i, value);
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		setKey(i, key);
+		setValue(i, value);
+		if (++size > threshold)
+			rehash(capacity << 1);
+	}
+
+	/**
+	 * @return value mapped to key, or the no-entry value if key is absent
+	 */
+	public int get(int key) {
+		return getOrDefault(key, noEntryValue);
+	}
+
+	public int getOrDefault(int key, int defaultValue) {
+		checkOpen();
+		if (key == FREE_KEY)
+			return hasFreeKey ? freeValue : defaultValue;
+		int i = indexOf(key);
+		return i < 0 ? defaultValue : value(i);
+	}
+
+	public boolean contains(int key) {
+		checkOpen();
+		if (key == FREE_KEY)
+			return hasFreeKey;
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 * @return true if the key was present and has been removed
+	 */
+	public boolean remove(int key) {
+		checkOpen();
+		if (key == FREE_KEY) {
+			if (!hasFreeKey)
+				return false;
+			hasFreeKey = false;
+			size--;
+			return true;
+		}
+		int i = indexOf(key);
+		if (i < 0)
+			return false;
+		shiftKeys(i);
+		size--;
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		checkOpen();
+		for (ByteBuffer page : pages) {
+			for (int i = 0; i < page.capacity(); i += SLOT_BYTES)
+				page.putInt(i, FREE_KEY);
+		}
+		hasFreeKey = false;
+		size = 0;
+	}
+
+	public int getNoEntryValue() {
+		return noEntryValue;
+	}
+
+	public int[] keySet() {
+		checkOpen();
+		int ks[] = new int[size];
+		int j = 0;
+		if (hasFreeKey)
+			ks[j++] = FREE_KEY;
+		for (int i = 0; i < capacity; i++) {
+			if (key(i) != FREE_KEY)
+				ks[j++] = key(i);
+		}
+		return ks;
+	}
+
+	public int[] valueSet() {
+		checkOpen();
+		int vs[] = new int[size];
+		int j = 0;
+		if (hasFreeKey)
+			vs[j++] = freeValue;
+		for (int i = 0; i < capacity; i++) {
+			if (key(i) != FREE_KEY)
+				vs[j++] = value(i);
+		}
+		return vs;
+	}
+
+	/**
+	 * Cursor over the entries in table order. Slot -1 is the free key, kept outside the table.
+	 */
+	public IntIntCursor cursor() {
+		checkOpen();
+		return new Cursor(-1, capacity);
+	}
+
+	public void forEach(IntIntConsumer action) {
+		checkOpen();
+		IntIntCursor c = cursor();
+		while (c.advance())
+			action.accept(c.key(), c.value());
+	}
+
+	/**
+	 * Keys for StreamSupport.intStream, split by slot range.
+	 */
+	public Spliterator.OfInt keySpliterator() {
+		checkOpen();
+		return new Cursor(-1, capacity);
+	}
+
+	// 	PRIVATE HELPERS
+
+	// slot of a key other than FREE_KEY, or -1
+	private int indexOf(int key) {
+		int i = hash(key) & mask;
+		int probes = 1;
+		int k;
+		while ((k = key(i)) != FREE_KEY) {
+			if (k == key) {
+				if (stats != null)
+					stats.probe(true, probes);
+				return i;
+			}
+			i = (i + 1) & mask;
+			probes++;
+		}
+		if (stats != null)
+			stats.probe(false, probes);
+		return -1;
+	}
+
+	private int key(int slot) {
+		return page(pages, slot).getInt(offset(slot));
+	}
+
+	private int value(int slot) {
+		return page(pages, slot).getInt(offset(slot) + 4);
+	}
+
+	private void setKey(int slot, int key) {
+		page(pages, slot).putInt(offset(slot), key);
+	}
+
+	private void setValue(int slot, int value) {
+		page(pages, slot).putInt(offset(slot) + 4, value);
+	}
+
+	/**
+	 * Closes the gap left at pos by moving back every following entry of the
+	 * cluster whose home slot lies at or before the gap.
+	 */
+	private void shiftKeys(int pos) {
+		int last, slot, k;
+		for (;;) {
+			last = pos;
+			pos = (pos + 1) & mask;
+			for (;;) {
+				if ((k = key(pos)) == FREE_KEY) {
+					setKey(last, FREE_KEY);
+					return;
+				}
+				slot = hash(k) & mask;
+				if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos)
+					break;
+				pos = (pos + 1) & mask;
+			}
+			setKey(last, k);
+			setValue(last, value(pos));
+		}
+	}
+
+	private void rehash(int newCapacity) {
+		long start = stats != null ? System.nanoTime() : 0;
+		int oldCapacity = capacity;
+		ByteBuffer[] old = reallocate(newCapacity);
+		for (int j = 0; j < oldCapacity; j++) {
+			ByteBuffer page = page(old, j);
+			int offset = offset(j);
+			int k = page.getInt(offset);
+			if (k == FREE_KEY)
+				continue;
+			int i = hash(k) & mask;
+			while (key(i) != FREE_KEY)
+				i = (i + 1) & mask;
+			setKey(i, k);
+			setValue(i, page.getInt(offset + 4));
+		}
+		releasePages(old);
+		if (stats != null)
+			stats.resized(System.nanoTime() - start);
+	}
+
+	private int hash(int key) {
+		return hashStrategy.hash(key);
+	}
+
+	private final class Cursor extends IntSlotCursor {
+		Cursor(int origin, int fence) {
+			super(origin, fence);
+		}
+
+		// a cursor can outlive the map or its arena, and must not read freed pages then
+		@Override
+		boolean occupied(int slot) {
+			checkOpen();
+			return slot < 0 ? hasFreeKey : OffHeapIntIntHashMap.this.key(slot) != FREE_KEY;
+		}
+
+		@Override
+		int keyAt(int slot) {
+			checkOpen();
+			return slot < 0 ? FREE_KEY : OffHeapIntIntHashMap.this.key(slot);
+		}
+
+		@Override
+		int valueAt(int slot) {
+			checkOpen();
+			return slot < 0 ? freeValue : OffHeapIntIntHashMap.this.value(slot);
+		}
+
+		@Override
+		IntSlotCursor slice(int origin, int fence) {
+			return new Cursor(origin, fence);
+		}
+	}
+}
@@ -0,0 +1,306 @@
+package Hashing;
+
+import java.nio.ByteBuffer;
+import java.util.Spliterator;
+
+/**
+ * Off-heap map from long keys to long values.
+ *
+ * The table is split into pages of direct ByteBuffers taken from an
+ * OffHeapArena, each slot being 16 bytes (key, then value). The GC sees a
+ * handful of page objects however large the table gets. Probing and
+ * backward-shift deletion work as in IntIntHashMap. A map must be closed,
+ * directly or through its arena, to give the memory back.
+ */
+public class OffHeapLongLongHashMap extends OffHeapTable {
+	private static final long FREE_KEY = 0L;
+	private static final int SLOT_BYTES = 16;
+
+	private int size;
+	private boolean hasFreeKey;
+	private long freeValue;
+	private final long noEntryValue;
+
+	public OffHeapLongLongHashMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public OffHeapLongLongHashMap(int expectedSize) {
+		this(new OffHeapArena(), true, expectedSize, DEFAULT_LOAD_FACTOR, -1, HashStrategy.FIBONACCI);
+	}
+
+	/**
+	 *
+	 * @param arena        : arena the pages are allocated from, it stays open when the map is closed
+	 * @param expectedSize : number of keys the map should hold without growing
+	 * @param loadFactor   : fill ratio in (0, 1) at which the table doubles
+	 * @param noEntryValue : value returned by get for a missing key
+	 */
+	public OffHeapLongLongHashMap(OffHeapArena arena, int expectedSize, float loadFactor, long noEntryValue) {
+		this(arena, false, expectedSize, loadFactor, noEntryValue, HashStrategy.FIBONACCI);
+	}
+
+	public OffHeapLongLongHashMap(OffHeapArena arena, int expectedSize, float loadFactor, long noEntryValue, HashStrategy hashStrategy) {
+		this(arena, false, expectedSize, loadFactor, noEntryValue, hashStrategy);
+	}
+
+	private OffHeapLongLongHashMap(OffHeapArena arena, boolean ownsArena, int expectedSize, float loadFactor, long noEntryValue, HashStrategy hashStrategy) {
+		super(arena, ownsArena, SLOT_BYTES, expectedSize, loadFactor, hashStrategy);
+		this.noEntryValue = noEntryValue;
+	}
+
+	public void put(long key, long value) {
+		checkOpen();
+		if (key == FREE_KEY) {
+			if (!hasFreeKey)
+				size++;
+			hasFreeKey = true;
+			freeValue = value;
+			return;
+		}
+		int i = hash(key) & mask;
+		long k;
+		while ((k = key(i)) != FREE_KEY) {
+			if (k == key) {
+				setValue(i, value);
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		setKey(i, key);
+		setValue(i, value);
+		if (++size > threshold)
+			rehash(capacity << 1);
+	}
+
+	/**
+	 * @return value mapped to key, or the no-entry value if key is absent
+	 */
+	public long get(long key) {
+		return getOrDefault(key, noEntryValue);
+	}
+
+	public long getOrDefault(long key, long defaultValue) {
+		checkOpen();
+		if (key == FREE_KEY)
+			return hasFreeKey ? freeValue : defaultValue;
+		int i = indexOf(key);
+		return i < 0 ? defaultValue : value(i);
+	}
+
+	public boolean contains(long key) {
+		checkOpen();
+		if (key == FREE_KEY)
+			return hasFreeKey;
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 * @return true if the key was present and has been removed
+	 */
+	public boolean remove(long key) {
+		checkOpen();
+		if (key == FREE_KEY) {
+			if (!hasFreeKey)
+				return false;
+			hasFreeKey = false;
+			size--;
+			return true;
+		}
+		int i = indexOf(key);
+		if (i < 0)
+			return false;
+		shiftKeys(i);
+		size--;
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		checkOpen();
+		for (ByteBuffer page : pages) {
+			for (int i = 0; i < page.capacity(); i += SLOT_BYTES)
+				page.putLong(i, FREE_KEY);
+		}
+		hasFreeKey = false;
+		size = 0;
+	}
+
+	public long getNoEntryValue() {
+		return noEntryValue;
+	}
+
+	public long[] keySet() {
+		checkOpen();
+		long ks[] = new long[size];
+		int j = 0;
+		if (hasFreeKey)
+			ks[j++] = FREE_KEY;
+		for (int i = 0; i < capacity; i++) {
+			if (key(i) != FREE_KEY)
+				ks[j++] = key(i);
+		}
+		return ks;
+	}
+
+	public long[] valueSet() {
+		checkOpen();
+		long vs[] = new long[size];
+		int j = 0;
+		if (hasFreeKey)
+			vs[j++] = freeValue;
+		for (int i = 0; i < capacity; i++) {
+			if (key(i) != FREE_KEY)
+				vs[j++] = value(i);
+		}
+		return vs;
+	}
+
+	/**
+	 * Cursor over the entries in table order. Slot -1 is the free key, kept outside the table.
+	 */
+	public LongLongCursor cursor() {
+		checkOpen();
+		return new Cursor(-1, capacity);
+	}
+
+	public void forEach(LongLongConsumer action) {
+		checkOpen();
+		LongLongCursor c = cursor();
+		while (c.advance())
+			action.accept(c.key(), c.value());
+	}
+
+	/**
+	 * Keys for StreamSupport.longStream, split by slot range.
+	 */
+	public Spliterator.OfLong keySpliterator() {
+		checkOpen();
+		return new Cursor(-1, capacity);
+	}
+
+	// 	PRIVATE HELPERS
+
+	// slot of a key other than FREE_KEY, or -1
+	private int indexOf(long key) {
+		int i = hash(key) & mask;
+		int probes = 1;
+		long k;
+		while ((k = key(i)) != FREE_KEY) {
+			if (k == key) {
+				if (stats != null)
+					stats.probe(true, probes);
+				return i;
+			}
+			i = (i + 1) & mask;
+			probes++;
+		}
+		if (stats != null)
+			stats.probe(false, probes);
+		return -1;
+	}
+
+	private long key(int slot) {
+		return page(pages, slot).getLong(offset(slot));
+	}
+
+	private long value(int slot) {
+		return page(pages, slot).getLong(offset(slot) + 8);
+	}
+
+	private void setKey(int slot, long key) {
+		page(pages, slot).putLong(offset(slot), key);
+	}
+
+	private void setValue(int slot, long value) {
+		page(pages, slot).putLong(offset(slot) + 8, value);
+	}
+
+	/**
+	 * Closes the gap left at pos by moving back every following entry of the
+	 * cluster whose home slot lies at or before the gap.
+	 */
+	private void shiftKeys(int pos) {
+		int last, slot;
+		long k;
+		for (;;) {
+			last = pos;
+			pos = (pos + 1) & mask;
+			for (;;) {
+				if ((k = key(pos)) == FREE_KEY) {
+					setKey(last, FREE_KEY);
+					return;
+				}
+				slot = hash(k) & mask;
+				if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos)
+					break;
+				pos = (pos + 1) & mask;
+			}
+			setKey(last, k);
+			setValue(last, value(pos));
+		}
+	}
+
+	private void rehash(int newCapacity) {
+		long start = stats != null ? System.nanoTime() : 0;
+		int oldCapacity = capacity;
+		ByteBuffer[] old = reallocate(newCapacity);
+		for (int j = 0; j < oldCapacity; j++) {
+			ByteBuffer page = page(old, j);
+			int offset = offset(j);
+			long k = page.getLong(offset);
+			if (k == FREE_KEY)
+				continue;
+			int i = hash(k) & mask;
+			while (key(i) != FREE_KEY)
+				i = (i + 1) & mask;
+			setKey(i, k);
+			setValue(i, page.getLong(offset + 8));
+		}
+		releasePages(old);
+		if (stats != null)
+			stats.resized(System.nanoTime() - start);
+	}
+
+	private int hash(long key) {
+		return hashStrategy.hash(key);
+	}
+
+	private final class Cursor extends LongSlotCursor {
+		Cursor(int origin, int fence) {
+			super(origin, fence);
+		}
+
+		// a cursor can outlive the map or its arena, and must not read freed pages then
+		@Override
+		boolean occupied(int slot) {
+			checkOpen();
+			return slot < 0 ? hasFreeKey : OffHeapLongLongHashMap.this.key(slot) != FREE_KEY;
+		}
+
+		@Override
+		long keyAt(int slot) {
+			checkOpen();
+			return slot < 0 ? FREE_KEY : OffHeapLongLongHashMap.this.key(slot);
+		}
+
+		@Override
+		long valueAt(int slot) {
+			checkOpen();
+			return slot < 0 ? freeValue : OffHeapLongLongHashMap.this.value(slot);
+		}
+
+		@Override
+		LongSlotCursor slice(int origin, int fence) {
+			return new Cursor(origin, fence);
+		}
+	}
+}
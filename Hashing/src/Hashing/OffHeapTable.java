@@ -0,0 +1,147 @@
+package Hashing;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Page and arena handling shared by the off-heap maps.
+ *
+ * The table is an array of direct ByteBuffer pages of fixed-size slots taken
+ * from an OffHeapArena. The pages belong to the arena, so closing the arena
+ * frees them under the map: a table counts as closed once either it or its
+ * arena is, and checkOpen must guard every access to the pages.
+ */
+abstract class OffHeapTable implements AutoCloseable {
+	static final int DEFAULT_CAPACITY = 16;
+	static final float DEFAULT_LOAD_FACTOR = 0.75f;
+	static final int MAX_CAPACITY = 1 << 30;
+	private static final int PAGE_BYTES = 1 << 20;
+
+	final OffHeapArena arena;
+	// true when the arena was created by this map and closes with it
+	private final boolean ownsArena;
+	private final int slotBytes;
+	// slots per page is 1 << pageShift
+	private final int pageShift;
+	private final int pageMask;
+	final float loadFactor;
+	final HashStrategy hashStrategy;
+	// null unless trackStats(true)
+	StatsRecorder stats;
+
+	ByteBuffer[] pages;
+	int capacity;
+	int mask;
+	int threshold;
+
+	OffHeapTable(OffHeapArena arena, boolean ownsArena, int slotBytes, int expectedSize, float loadFactor, HashStrategy hashStrategy) {
+		if (arena == null)
+			throw new IllegalArgumentException("arena must not be null");
+		if (hashStrategy == null)
+			throw new IllegalArgumentException("hashStrategy must not be null");
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("expectedSize must be non-negative");
+		if (!(loadFactor > 0 && loadFactor < 1))
+			throw new IllegalArgumentException("loadFactor must be in (0, 1)");
+		this.arena = arena;
+		this.ownsArena = ownsArena;
+		this.slotBytes = slotBytes;
+		this.pageShift = Integer.numberOfTrailingZeros(PAGE_BYTES / slotBytes);
+		this.pageMask = (1 << pageShift) - 1;
+		this.loadFactor = loadFactor;
+		this.hashStrategy = hashStrategy;
+		allocate(tableSizeFor((int) Math.min(MAX_CAPACITY, Math.ceil(expectedSize / loadFactor))));
+	}
+
+	public abstract int size();
+
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Starts or stops collecting statistics on get, contains and remove;
+	 * stopping drops what was collected. The free key takes no probes and is
+	 * not counted.
+	 */
+	public void trackStats(boolean on) {
+		if (!on)
+			stats = null;
+		else if (stats == null)
+			stats = new StatsRecorder();
+	}
+
+	/**
+	 * @return statistics collected since tracking started, or null when it is off
+	 */
+	public HashStats stats() {
+		StatsRecorder recorder = stats;
+		return recorder == null ? null : recorder.snapshot(size(), capacity, new long[0]);
+	}
+
+	public boolean isClosed() {
+		return pages == null || arena.isClosed();
+	}
+
+	/**
+	 * Frees the table; the map cannot be used afterwards.
+	 */
+	@Override
+	public void close() {
+		if (pages == null)
+			return;
+		releasePages(pages);
+		pages = null;
+		if (ownsArena)
+			arena.close();
+	}
+
+	final ByteBuffer page(ByteBuffer[] in, int slot) {
+		return in[slot >>> pageShift];
+	}
+
+	// byte offset of a slot within its page
+	final int offset(int slot) {
+		return (slot & pageMask) * slotBytes;
+	}
+
+	final void checkOpen() {
+		if (isClosed())
+			throw new IllegalStateException("map is closed");
+	}
+
+	/**
+	 * Swaps in an empty table of newCapacity slots.
+	 *
+	 * @return the old pages, for the caller to move the entries out of and then release
+	 */
+	final ByteBuffer[] reallocate(int newCapacity) {
+		if (newCapacity > MAX_CAPACITY)
+			throw new IllegalStateException(getClass().getSimpleName() + " cannot grow beyond " + MAX_CAPACITY + " slots");
+		ByteBuffer[] old = pages;
+		allocate(newCapacity);
+		return old;
+	}
+
+	final void releasePages(ByteBuffer[] toRelease) {
+		for (ByteBuffer page : toRelease)
+			arena.release(page);
+	}
+
+	private void allocate(int newCapacity) {
+		int slotsPerPage = Math.min(newCapacity, 1 << pageShift);
+		ByteBuffer[] newPages = new ByteBuffer[newCapacity / slotsPerPage];
+		for (int p = 0; p < newPages.length; p++)
+			newPages[p] = arena.allocate(slotsPerPage * slotBytes);
+		pages = newPages;
+		capacity = newCapacity;
+		mask = newCapacity - 1;
+		threshold = Math.min(newCapacity - 1, (int) (newCapacity * loadFactor));
+	}
+
+	private static int tableSizeFor(int n) {
+		int cap = DEFAULT_CAPACITY;
+		while (cap < n && cap < MAX_CAPACITY)
+			cap <<= 1;
+		return cap;
+	}
+}
@@ -0,0 +1,326 @@
+package Hashing;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Spliterator;
+
+/**
+ * Linear probing map with Robin Hood displacement.
+ *
+ * Every occupied slot remembers how far it sits from its home slot. An insert
+ * that meets an entry closer to home than itself takes that slot and carries
+ * the displaced entry further, so probe lengths stay short and even. A lookup
+ * stops as soon as it reaches a slot whose displacement is smaller than its
+ * own probe count, which keeps unsuccessful searches from scanning the whole
+ * cluster.
+ */
+public class RobinHoodHashMap<K,V> implements Map<K,V> {
+	private static final int DEFAULT_CAPACITY = 16;
+	private static final float DEFAULT_LOAD_FACTOR = 0.9f;
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private Object[] keys;
+	private Object[] values;
+	private int[] hashes;
+	// probe count of the slot's entry (displacement + 1), 0 marks an empty slot
+	private int[] probes;
+	private int capacity;
+	private int mask;
+	private int size;
+	private int threshold;
+	private final float loadFactor;
+	private final HashStrategy hashStrategy;
+	// null unless trackStats(true)
+	private StatsRecorder stats;
+
+	public RobinHoodHashMap() {
+		this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+	}
+
+	public RobinHoodHashMap(int expectedSize) {
+		this(expectedSize, DEFAULT_LOAD_FACTOR);
+	}
+
+	public RobinHoodHashMap(int expectedSize, float loadFactor) {
+		this(expectedSize, loadFactor, HashStrategy.FIBONACCI);
+	}
+
+	public RobinHoodHashMap(int expectedSize, float loadFactor, HashStrategy hashStrategy) {
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("expectedSize must be non-negative");
+		if (!(loadFactor > 0 && loadFactor < 1))
+			throw new IllegalArgumentException("loadFactor must be in (0, 1)");
+		if (hashStrategy == null)
+			throw new IllegalArgumentException("hashStrategy must not be null");
+		this.loadFactor = loadFactor;
+		this.hashStrategy = hashStrategy;
+		allocate(tableSizeFor((int) Math.ceil(expectedSize / loadFactor)));
+	}
+
+	@Override
+	public void put(K key, V value) {
+		int h = hash(key);
+		int i = h & mask;
+		int probe = 1;
+		while (probes[i] >= probe) {
+			if (probes[i] == probe && hashes[i] == h && keys[i].equals(key)) {
+				values[i] = value;
+				return;
+			}
+			i = (i + 1) & mask;
+			probe++;
+		}
+		// key is absent, i is the first slot that is empty or closer to home
+		insertAt(i, probe, h, key, value);
+		if (++size > threshold)
+			rehash(capacity << 1);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(Object key) {
+		int i = indexOf(key);
+		if (i < 0)
+			throw new RuntimeException("key not found");
+		return (V) values[i];
+	}
+
+	@Override
+	public boolean containsKey(K key) {
+		return indexOf(key) >= 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V remove(Object key) {
+		int i = indexOf(key);
+		if (i < 0)
+			return null;
+		V ret = (V) values[i];
+		int next = (i + 1) & mask;
+		// backward shift: pull the rest of the run one slot closer to home
+		while (probes[next] > 1) {
+			keys[i] = keys[next];
+			values[i] = values[next];
+			hashes[i] = hashes[next];
+			probes[i] = probes[next] - 1;
+			i = next;
+			next = (next + 1) & mask;
+		}
+		keys[i] = null;
+		values[i] = null;
+		probes[i] = 0;
+		size--;
+		return ret;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		allocate(capacity);
+		size = 0;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	public double loadFactor() {
+		return size * 1.0 / capacity;
+	}
+
+	/**
+	 * @return the largest distance of any entry from its home slot
+	 */
+	public int maxDisplacement() {
+		int max = 0;
+		for (int i = 0; i < capacity; i++) {
+			if (probes[i] - 1 > max)
+				max = probes[i] - 1;
+		}
+		return max;
+	}
+
+	/**
+	 * @return the average distance of the entries from their home slots
+	 */
+	public double meanDisplacement() {
+		if (size == 0)
+			return 0;
+		long total = 0;
+		for (int i = 0; i < capacity; i++) {
+			if (probes[i] != 0)
+				total += probes[i] - 1;
+		}
+		return total * 1.0 / size;
+	}
+
+	/**
+	 * Starts or stops collecting statistics on get, containsKey and remove;
+	 * stopping drops what was collected.
+	 */
+	public void trackStats(boolean on) {
+		if (!on)
+			stats = null;
+		else if (stats == null)
+			stats = new StatsRecorder();
+	}
+
+	/**
+	 * @return statistics collected since tracking started, or null when it is off
+	 */
+	public HashStats stats() {
+		StatsRecorder recorder = stats;
+		return recorder == null ? null : recorder.snapshot(size, capacity, new long[0]);
+	}
+
+	public void display() {
+		for (int i = 0; i < capacity; i++) {
+			if (probes[i] != 0)
+				System.out.print(keys[i] + ":" + values[i] + ", ");
+			else
+				System.out.print("null, ");
+		}
+	}
+
+	public Set<Object> keySet() {
+		Set<Object> res = new HashSet<Object>();
+		for (int i = 0; i < capacity; i++) {
+			if (probes[i] != 0)
+				res.add(keys[i]);
+		}
+		return res;
+	}
+
+	@Override
+	public MapCursor<K,V> cursor() {
+		return new Cursor(0, capacity);
+	}
+
+	@Override
+	public Spliterator<K> keySpliterator() {
+		return new Cursor(0, capacity);
+	}
+
+	// 	PRIVATE HELPERS
+
+	private int indexOf(Object key) {
+		int h = hash(key);
+		int i = h & mask;
+		int probe = 1;
+		while (probes[i] >= probe) {
+			if (probes[i] == probe && hashes[i] == h && keys[i].equals(key)) {
+				if (stats != null)
+					stats.probe(true, probe);
+				return i;
+			}
+			i = (i + 1) & mask;
+			probe++;
+		}
+		if (stats != null)
+			stats.probe(false, probe);
+		return -1;
+	}
+
+	/**
+	 * Places the entry at slot i and keeps swapping the evicted entry forward
+	 * until an empty slot is reached.
+	 */
+	private void insertAt(int i, int probe, int h, Object key, Object value) {
+		while (probes[i] != 0) {
+			if (probes[i] < probe) {
+				Object tk = keys[i], tv = values[i];
+				int th = hashes[i], tp = probes[i];
+				keys[i] = key;
+				values[i] = value;
+				hashes[i] = h;
+				probes[i] = probe;
+				key = tk;
+				value = tv;
+				h = th;
+				probe = tp;
+			}
+			i = (i + 1) & mask;
+			probe++;
+		}
+		keys[i] = key;
+		values[i] = value;
+		hashes[i] = h;
+		probes[i] = probe;
+	}
+
+	private void rehash(int newCapacity) {
+		if (newCapacity > MAX_CAPACITY)
+			throw new IllegalStateException("RobinHoodHashMap cannot grow beyond " + MAX_CAPACITY + " slots");
+		long start = stats != null ? System.nanoTime() : 0;
+		Object[] oldKeys = keys;
+		Object[] oldValues = values;
+		int[] oldHashes = hashes;
+		int[] oldProbes = probes;
+		allocate(newCapacity);
+		for (int j = 0; j < oldProbes.length; j++) {
+			if (oldProbes[j] != 0)
+				insertAt(oldHashes[j] & mask, 1, oldHashes[j], oldKeys[j], oldValues[j]);
+		}
+		if (stats != null)
+			stats.resized(System.nanoTime() - start);
+	}
+
+	private void allocate(int newCapacity) {
+		capacity = newCapacity;
+		mask = newCapacity - 1;
+		keys = new Object[newCapacity];
+		values = new Object[newCapacity];
+		hashes = new int[newCapacity];
+		probes = new int[newCapacity];
+		threshold = Math.min(newCapacity - 1, (int) (newCapacity * loadFactor));
+	}
+
+	private static int tableSizeFor(int n) {
+		int cap = DEFAULT_CAPACITY;
+		while (cap < n && cap < MAX_CAPACITY)
+			cap <<= 1;
+		return cap;
+	}
+
+	private int hash(Object key) {
+		return hashStrategy.hash(key);
+	}
+
+	private final class Cursor extends SlotCursor<K,V> {
+		Cursor(int origin, int fence) {
+			super(origin, fence);
+		}
+
+		@Override
+		boolean occupied(int slot) {
+			return probes[slot] != 0;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		K keyAt(int slot) {
+			return (K) keys[slot];
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		V valueAt(int slot) {
+			return (V) values[slot];
+		}
+
+		@Override
+		SlotCursor<K,V> slice(int origin, int fence) {
+			return new Cursor(origin, fence);
+		}
+	}
+}
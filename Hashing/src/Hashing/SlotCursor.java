@@ -0,0 +1,81 @@
+package Hashing;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Cursor and key spliterator over a range of slots of a flat table. A map
+ * says which slots hold an entry and how to read them; splitting halves the
+ * remaining range, so a parallel stream scans the table itself.
+ */
+abstract class SlotCursor<K,V> implements MapCursor<K,V>, Spliterator<K> {
+	private int next;
+	private final int fence;
+	private int slot = -1;
+
+	SlotCursor(int origin, int fence) {
+		this.next = origin;
+		this.fence = fence;
+	}
+
+	abstract boolean occupied(int slot);
+
+	abstract K keyAt(int slot);
+
+	abstract V valueAt(int slot);
+
+	/**
+	 * @return a cursor of the same map over [origin, fence)
+	 */
+	abstract SlotCursor<K,V> slice(int origin, int fence);
+
+	@Override
+	public boolean advance() {
+		while (next < fence) {
+			int i = next++;
+			if (occupied(i)) {
+				slot = i;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public K key() {
+		return keyAt(slot);
+	}
+
+	@Override
+	public V value() {
+		return valueAt(slot);
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super K> action) {
+		if (!advance())
+			return false;
+		action.accept(key());
+		return true;
+	}
+
+	@Override
+	public Spliterator<K> trySplit() {
+		int mid = next + ((fence - next) >>> 1);
+		if (mid <= next)
+			return null;
+		SlotCursor<K,V> prefix = slice(next, mid);
+		next = mid;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return fence - next;
+	}
+
+	@Override
+	public int characteristics() {
+		return DISTINCT | NONNULL;
+	}
+}
@@ -0,0 +1,339 @@
+package Hashing;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free hash map over a split-ordered list (Shalev and Shavit).
+ *
+ * All entries sit in one lock-free linked list sorted by the bit-reversed
+ * hash. Buckets are only shortcuts into that list: bucket b points at a dummy
+ * node whose sort key is reverse(b), and it is created the first time the
+ * bucket is used by splicing the dummy in after its parent bucket's dummy.
+ * Doubling the bucket count is a single CAS; no entry ever moves and no
+ * writer ever waits for a resize. Deletion marks a node's next pointer before
+ * unlinking it (Harris), so concurrent inserts cannot be lost.
+ */
+public class SplitOrderedHashMap<K,V> implements Map<K,V> {
+	// average entries per bucket before the bucket count doubles
+	private static final int MAX_LOAD = 2;
+	private static final int MAX_BUCKETS = 1 << 30;
+
+	private static final class Node<K,V> {
+		// bit-reversed hash: odd for entries, even for bucket dummies
+		final int soKey;
+		final K key;
+		volatile V value;
+		final AtomicMarkableReference<Node<K,V>> next;
+
+		Node(int soKey, K key, V value, Node<K,V> next) {
+			this.soKey = soKey;
+			this.key = key;
+			this.value = value;
+			this.next = new AtomicMarkableReference<>(next, false);
+		}
+	}
+
+	// result of find: curr is the matching node, or the first node past the key
+	private static final class Window<K,V> {
+		final Node<K,V> pred, curr;
+		final boolean found;
+
+		Window(Node<K,V> pred, Node<K,V> curr, boolean found) {
+			this.pred = pred;
+			this.curr = curr;
+			this.found = found;
+		}
+	}
+
+	/*
+	 * Bucket directory: segment 0 holds bucket 0 and segment s > 0 holds
+	 * buckets [2^(s-1), 2^s), so segments are allocated only as the bucket
+	 * count grows into them.
+	 */
+	private volatile AtomicReferenceArray<AtomicReferenceArray<Node<K,V>>> segments;
+	private final AtomicInteger bucketCount = new AtomicInteger(2);
+	private final AtomicInteger count = new AtomicInteger();
+	private final HashStrategy hashStrategy;
+	// null unless trackStats(true)
+	private volatile StatsRecorder stats;
+
+	public SplitOrderedHashMap() {
+		this(HashStrategy.FIBONACCI);
+	}
+
+	public SplitOrderedHashMap(HashStrategy hashStrategy) {
+		if (hashStrategy == null)
+			throw new IllegalArgumentException("hashStrategy must not be null");
+		this.hashStrategy = hashStrategy;
+		init();
+	}
+
+	@Override
+	public void put(K key, V value) {
+		int h = hash(key);
+		Node<K,V> head = bucketHead(h & (bucketCount.get() - 1));
+		int soKey = regularKey(h);
+		Node<K,V> toAdd = new Node<>(soKey, key, value, null);
+		while (true) {
+			Window<K,V> w = find(head, soKey, key);
+			if (w.found) {
+				w.curr.value = value;
+				// the node may have been deleted under us, then insert afresh
+				if (!w.curr.next.isMarked())
+					return;
+				continue;
+			}
+			toAdd.next.set(w.curr, false);
+			if (w.pred.next.compareAndSet(w.curr, toAdd, false, false))
+				break;
+		}
+		int buckets = bucketCount.get();
+		if (count.incrementAndGet() > (long) MAX_LOAD * buckets && buckets < MAX_BUCKETS
+				&& bucketCount.compareAndSet(buckets, buckets << 1)) {
+			StatsRecorder recorder = stats;
+			// nothing is moved, the new buckets fill in lazily
+			if (recorder != null)
+				recorder.resized(0);
+		}
+	}
+
+	@Override
+	public V get(Object key) {
+		Node<K,V> node = lookup(key);
+		if (node == null)
+			throw new RuntimeException("key not found");
+		return node.value;
+	}
+
+	@Override
+	public boolean containsKey(K key) {
+		return lookup(key) != null;
+	}
+
+	@Override
+	public V remove(Object key) {
+		int h = hash(key);
+		Node<K,V> head = bucketHead(h & (bucketCount.get() - 1));
+		int soKey = regularKey(h);
+		while (true) {
+			Window<K,V> w = find(head, soKey, key);
+			if (!w.found)
+				return null;
+			Node<K,V> succ = w.curr.next.getReference();
+			// logical delete: mark curr's next, then try to unlink it
+			if (!w.curr.next.compareAndSet(succ, succ, false, true))
+				continue;
+			w.pred.next.compareAndSet(w.curr, succ, false, false);
+			count.decrementAndGet();
+			return w.curr.value;
+		}
+	}
+
+	@Override
+	public int size() {
+		return count.get();
+	}
+
+	/**
+	 * Not atomic with respect to writers running at the same time.
+	 */
+	@Override
+	public void clear() {
+		init();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public int buckets() {
+		return bucketCount.get();
+	}
+
+	/**
+	 * Starts or stops collecting statistics on get and containsKey, counting
+	 * the list nodes visited from the bucket's dummy; stopping drops what was
+	 * collected. The recorder is not synchronized, so counts taken while
+	 * several threads use the map are approximate.
+	 */
+	public void trackStats(boolean on) {
+		if (!on)
+			stats = null;
+		else if (stats == null)
+			stats = new StatsRecorder();
+	}
+
+	/**
+	 * @return statistics collected since tracking started, or null when it is off
+	 */
+	public HashStats stats() {
+		StatsRecorder recorder = stats;
+		return recorder == null ? null : recorder.snapshot(size(), buckets(), new long[0]);
+	}
+
+	public void display() {
+		for (Node<K,V> n = bucketHead(0).next.getReference(); n != null; n = n.next.getReference()) {
+			if (n.key != null && !n.next.isMarked())
+				System.out.print(n.key + ":" + n.value + ", ");
+		}
+		System.out.println();
+	}
+
+	public Set<Object> keySet() {
+		Set<Object> res = new HashSet<Object>();
+		for (Node<K,V> n = bucketHead(0).next.getReference(); n != null; n = n.next.getReference()) {
+			if (n.key != null && !n.next.isMarked())
+				res.add(n.key);
+		}
+		return res;
+	}
+
+	/**
+	 * Walks the single list in split order, skipping bucket dummies and
+	 * deleted nodes; weakly consistent like keySet.
+	 */
+	@Override
+	public MapCursor<K,V> cursor() {
+		return new MapCursor<K,V>() {
+			private Node<K,V> node = bucketHead(0);
+
+			@Override
+			public boolean advance() {
+				do
+					node = node == null ? null : node.next.getReference();
+				while (node != null && (node.key == null || node.next.isMarked()));
+				return node != null;
+			}
+
+			@Override
+			public K key() {
+				return node.key;
+			}
+
+			@Override
+			public V value() {
+				return node.value;
+			}
+		};
+	}
+
+	// 	PRIVATE HELPERS
+
+	private void init() {
+		AtomicReferenceArray<AtomicReferenceArray<Node<K,V>>> dir = new AtomicReferenceArray<>(32);
+		AtomicReferenceArray<Node<K,V>> first = new AtomicReferenceArray<>(1);
+		first.set(0, new Node<K,V>(0, null, null, null));
+		dir.set(0, first);
+		count.set(0);
+		bucketCount.set(2);
+		segments = dir;
+	}
+
+	/**
+	 * Read-only walk from the key's bucket, skipping deleted nodes.
+	 */
+	private Node<K,V> lookup(Object key) {
+		int h = hash(key);
+		int soKey = regularKey(h);
+		Node<K,V> n = bucketHead(h & (bucketCount.get() - 1));
+		StatsRecorder recorder = stats;
+		int probes = 0;
+		while (n != null && Integer.compareUnsigned(n.soKey, soKey) < 0) {
+			n = n.next.getReference();
+			probes++;
+		}
+		for (; n != null && n.soKey == soKey; n = n.next.getReference()) {
+			probes++;
+			if (key.equals(n.key) && !n.next.isMarked()) {
+				if (recorder != null)
+					recorder.probe(true, probes);
+				return n;
+			}
+		}
+		if (recorder != null)
+			recorder.probe(false, probes);
+		return null;
+	}
+
+	/**
+	 * Harris-Michael search from head, unlinking marked nodes on the way.
+	 * Dummies are looked up with a null key.
+	 */
+	private Window<K,V> find(Node<K,V> head, int soKey, Object key) {
+		retry: while (true) {
+			Node<K,V> pred = head;
+			Node<K,V> curr = pred.next.getReference();
+			boolean[] marked = { false };
+			while (true) {
+				if (curr == null)
+					return new Window<>(pred, null, false);
+				Node<K,V> succ = curr.next.get(marked);
+				while (marked[0]) {
+					if (!pred.next.compareAndSet(curr, succ, false, false))
+						continue retry;
+					curr = succ;
+					if (curr == null)
+						return new Window<>(pred, null, false);
+					succ = curr.next.get(marked);
+				}
+				int c = Integer.compareUnsigned(curr.soKey, soKey);
+				if (c > 0)
+					return new Window<>(pred, curr, false);
+				if (c == 0 && (key == null ? curr.key == null : key.equals(curr.key)))
+					return new Window<>(pred, curr, true);
+				pred = curr;
+				curr = succ;
+			}
+		}
+	}
+
+	private Node<K,V> bucketHead(int bucket) {
+		AtomicReferenceArray<Node<K,V>> segment = segmentFor(bucket);
+		int offset = bucket == 0 ? 0 : bucket - Integer.highestOneBit(bucket);
+		Node<K,V> head = segment.get(offset);
+		if (head != null)
+			return head;
+		// bucket not used yet: splice its dummy in after the parent bucket's dummy
+		int parent = bucket & ~Integer.highestOneBit(bucket);
+		Node<K,V> parentHead = bucketHead(parent);
+		int soKey = Integer.reverse(bucket);
+		Node<K,V> dummy = new Node<>(soKey, null, null, null);
+		while (true) {
+			Window<K,V> w = find(parentHead, soKey, null);
+			if (w.found) {
+				dummy = w.curr;
+				break;
+			}
+			dummy.next.set(w.curr, false);
+			if (w.pred.next.compareAndSet(w.curr, dummy, false, false))
+				break;
+		}
+		segment.compareAndSet(offset, null, dummy);
+		return segment.get(offset);
+	}
+
+	private AtomicReferenceArray<Node<K,V>> segmentFor(int bucket) {
+		int s = bucket == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(bucket);
+		AtomicReferenceArray<AtomicReferenceArray<Node<K,V>>> dir = segments;
+		AtomicReferenceArray<Node<K,V>> segment = dir.get(s);
+		if (segment == null) {
+			dir.compareAndSet(s, null, new AtomicReferenceArray<Node<K,V>>(1 << (s - 1)));
+			segment = dir.get(s);
+		}
+		return segment;
+	}
+
+	// entries get the top bit set before reversal, which makes their sort key odd
+	private static int regularKey(int h) {
+		return Integer.reverse(h | 0x80000000);
+	}
+
+	private int hash(Object key) {
+		return hashStrategy.hash(key);
+	}
+}
@@ -0,0 +1,67 @@
+package Hashing;
+
+/**
+ * Counters a map updates while statistics are on. A map holds a null
+ * recorder otherwise, so each hook costs one null check. Not synchronized:
+ * counts taken from several threads at once may lose updates.
+ */
+final class StatsRecorder {
+	// the last slot of a histogram counts HISTOGRAM_SIZE - 1 probes or more
+	static final int HISTOGRAM_SIZE = 32;
+
+	final long[] hits = new long[HISTOGRAM_SIZE];
+	final long[] misses = new long[HISTOGRAM_SIZE];
+	long displacements;
+	long cycleResizes;
+	long resizes;
+	long resizeNanos;
+	long maxResizeNanos;
+
+	void probe(boolean found, int probes) {
+		(found ? hits : misses)[Math.min(probes, HISTOGRAM_SIZE - 1)]++;
+	}
+
+	void displaced(int moves) {
+		displacements += moves;
+	}
+
+	void cycle() {
+		cycleResizes++;
+	}
+
+	void resized(long nanos) {
+		resizes++;
+		resizeNanos += nanos;
+		maxResizeNanos = Math.max(maxResizeNanos, nanos);
+	}
+
+	/**
+	 * Adds other's counts to these, for maps that keep one recorder per stripe.
+	 */
+	void add(StatsRecorder other) {
+		for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+			hits[i] += other.hits[i];
+			misses[i] += other.misses[i];
+		}
+		displacements += other.displacements;
+		cycleResizes += other.cycleResizes;
+		resizes += other.resizes;
+		resizeNanos += other.resizeNanos;
+		maxResizeNanos = Math.max(maxResizeNanos, other.maxResizeNanos);
+	}
+
+	/**
+	 * @param chainLengths : histogram of bucket lengths, empty for open addressing
+	 */
+	HashStats snapshot(int size, int capacity, long[] chainLengths) {
+		return new HashStats(size, capacity, hits.clone(), misses.clone(), chainLengths,
+				displacements, cycleResizes, resizes, resizeNanos, maxResizeNanos);
+	}
+
+	/**
+	 * Histogram of bucket lengths, last slot counting HISTOGRAM_SIZE - 1 or more.
+	 */
+	static void countLength(long[] histogram, int length) {
+		histogram[Math.min(length, HISTOGRAM_SIZE - 1)]++;
+	}
+}
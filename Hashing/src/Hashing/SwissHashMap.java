@@ -0,0 +1,349 @@
+package Hashing;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Spliterator;
+
+/**
+ * Open addressing map in the style of a Swiss table.
+ *
+ * Each slot has one control byte: the low 7 bits of the key's hash when the
+ * slot is full, or an EMPTY / DELETED marker. Control bytes of 8 consecutive
+ * slots are packed into one long, so a probe compares a whole group against
+ * the hash fragment with a few SWAR operations and only calls equals on the
+ * slots whose fragment matches.
+ */
+public class SwissHashMap<K,V> implements Map<K,V> {
+	private static final int GROUP_WIDTH = 8;
+	private static final int DEFAULT_CAPACITY = 16;
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	// control byte values, a full slot holds its 7-bit hash fragment (0x00 - 0x7F)
+	private static final long EMPTY = 0x80;
+	private static final long DELETED = 0xFE;
+
+	private static final long LSBS = 0x0101010101010101L;
+	private static final long MSBS = 0x8080808080808080L;
+	private static final long ALL_EMPTY = EMPTY * LSBS;
+
+	private long[] ctrl;
+	private Object[] keys;
+	private Object[] values;
+	private int capacity;
+	private int groupMask;
+	private int size;
+	// number of EMPTY slots that can still be filled before a rehash
+	private int growthLeft;
+	private final HashStrategy hashStrategy;
+	// null unless trackStats(true)
+	private StatsRecorder stats;
+
+	public SwissHashMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public SwissHashMap(int expectedSize) {
+		this(expectedSize, HashStrategy.FIBONACCI);
+	}
+
+	/**
+	 *
+	 * @param expectedSize : number of keys the map should hold without growing
+	 * @param hashStrategy : mixer applied to key hash codes, its low 7 bits become the control byte
+	 */
+	public SwissHashMap(int expectedSize, HashStrategy hashStrategy) {
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("expectedSize must be non-negative");
+		if (hashStrategy == null)
+			throw new IllegalArgumentException("hashStrategy must not be null");
+		this.hashStrategy = hashStrategy;
+		allocate(tableSizeFor(expectedSize + expectedSize / 7 + 1));
+	}
+
+	@Override
+	public void put(K key, V value) {
+		int h = hash(key);
+		long h2 = h & 0x7F;
+		int g = (h >>> 7) & groupMask;
+		int target = -1;
+		for (int step = 1;; step++) {
+			long group = ctrl[g];
+			for (long m = matchByte(group, h2); m != 0; m &= m - 1) {
+				int slot = g * GROUP_WIDTH + (Long.numberOfTrailingZeros(m) >>> 3);
+				if (keys[slot].equals(key)) {
+					values[slot] = value;
+					return;
+				}
+			}
+			if (target < 0) {
+				long free = group & MSBS;
+				if (free != 0)
+					target = g * GROUP_WIDTH + (Long.numberOfTrailingZeros(free) >>> 3);
+			}
+			if (matchEmpty(group) != 0)
+				break;
+			g = (g + step) & groupMask;
+		}
+		if (ctrlAt(target) == EMPTY) {
+			if (growthLeft == 0) {
+				rehash();
+				target = findInsertSlot(h);
+			}
+			if (ctrlAt(target) == EMPTY)
+				growthLeft--;
+		}
+		setCtrl(target, h2);
+		keys[target] = key;
+		values[target] = value;
+		size++;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(Object key) {
+		int slot = find(key);
+		if (slot < 0)
+			throw new RuntimeException("key not found");
+		return (V) values[slot];
+	}
+
+	@Override
+	public boolean containsKey(K key) {
+		return find(key) >= 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V remove(Object key) {
+		int slot = find(key);
+		if (slot < 0)
+			return null;
+		V ret = (V) values[slot];
+		keys[slot] = null;
+		values[slot] = null;
+		// a group that still has an EMPTY slot never had a probe pass through it,
+		// so the slot can go back to EMPTY instead of leaving a tombstone
+		if (matchEmpty(ctrl[slot / GROUP_WIDTH]) != 0) {
+			setCtrl(slot, EMPTY);
+			growthLeft++;
+		} else {
+			setCtrl(slot, DELETED);
+		}
+		size--;
+		return ret;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		allocate(capacity);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	public double loadFactor() {
+		return size * 1.0 / capacity;
+	}
+
+	/**
+	 * Starts or stops collecting statistics on get, containsKey and remove,
+	 * counting one probe per group of control bytes read; stopping drops what
+	 * was collected.
+	 */
+	public void trackStats(boolean on) {
+		if (!on)
+			stats = null;
+		else if (stats == null)
+			stats = new StatsRecorder();
+	}
+
+	/**
+	 * @return statistics collected since tracking started, or null when it is off
+	 */
+	public HashStats stats() {
+		StatsRecorder recorder = stats;
+		return recorder == null ? null : recorder.snapshot(size, capacity, new long[0]);
+	}
+
+	public void display() {
+		for (int i = 0; i < capacity; i++) {
+			if (ctrlAt(i) < EMPTY)
+				System.out.print(keys[i] + ":" + values[i] + ", ");
+			else
+				System.out.print("null, ");
+		}
+	}
+
+	public Set<Object> keySet() {
+		Set<Object> res = new HashSet<Object>();
+		for (int i = 0; i < capacity; i++) {
+			if (ctrlAt(i) < EMPTY)
+				res.add(keys[i]);
+		}
+		return res;
+	}
+
+	@Override
+	public MapCursor<K,V> cursor() {
+		return new Cursor(0, capacity);
+	}
+
+	@Override
+	public Spliterator<K> keySpliterator() {
+		return new Cursor(0, capacity);
+	}
+
+	// 	PRIVATE HELPERS
+
+	private int find(Object key) {
+		int h = hash(key);
+		long h2 = h & 0x7F;
+		int g = (h >>> 7) & groupMask;
+		for (int step = 1;; step++) {
+			long group = ctrl[g];
+			for (long m = matchByte(group, h2); m != 0; m &= m - 1) {
+				int slot = g * GROUP_WIDTH + (Long.numberOfTrailingZeros(m) >>> 3);
+				if (keys[slot].equals(key)) {
+					if (stats != null)
+						stats.probe(true, step);
+					return slot;
+				}
+			}
+			if (matchEmpty(group) != 0) {
+				if (stats != null)
+					stats.probe(false, step);
+				return -1;
+			}
+			g = (g + step) & groupMask;
+		}
+	}
+
+	/**
+	 * First EMPTY or DELETED slot on the probe sequence of hash h.
+	 */
+	private int findInsertSlot(int h) {
+		int g = (h >>> 7) & groupMask;
+		for (int step = 1;; step++) {
+			long free = ctrl[g] & MSBS;
+			if (free != 0)
+				return g * GROUP_WIDTH + (Long.numberOfTrailingZeros(free) >>> 3);
+			g = (g + step) & groupMask;
+		}
+	}
+
+	/**
+	 * High bit set in every byte of group equal to h2. May report a false match
+	 * next to a true one, which the equals check filters out.
+	 */
+	private static long matchByte(long group, long h2) {
+		long x = group ^ (h2 * LSBS);
+		return (x - LSBS) & ~x & MSBS;
+	}
+
+	// EMPTY (1000 0000) is the only control byte with bit 7 set and bit 1 clear
+	private static long matchEmpty(long group) {
+		return group & (~group << 6) & MSBS;
+	}
+
+	private long ctrlAt(int slot) {
+		return (ctrl[slot / GROUP_WIDTH] >>> ((slot & (GROUP_WIDTH - 1)) << 3)) & 0xFF;
+	}
+
+	private void setCtrl(int slot, long b) {
+		int shift = (slot & (GROUP_WIDTH - 1)) << 3;
+		int g = slot / GROUP_WIDTH;
+		ctrl[g] = (ctrl[g] & ~(0xFFL << shift)) | (b << shift);
+	}
+
+	/**
+	 * Doubles the table when it is at least half full, otherwise rebuilds it at
+	 * the same size to drop the DELETED markers.
+	 */
+	private void rehash() {
+		int newCapacity = size >= (capacity - capacity / 8) / 2 ? capacity << 1 : capacity;
+		if (newCapacity > MAX_CAPACITY)
+			throw new IllegalStateException("SwissHashMap cannot grow beyond " + MAX_CAPACITY + " slots");
+		long start = stats != null ? System.nanoTime() : 0;
+		long[] oldCtrl = ctrl;
+		Object[] oldKeys = keys;
+		Object[] oldValues = values;
+		int oldCapacity = capacity;
+		int oldSize = size;
+		allocate(newCapacity);
+		for (int i = 0; i < oldCapacity; i++) {
+			if (((oldCtrl[i / GROUP_WIDTH] >>> ((i & (GROUP_WIDTH - 1)) << 3)) & 0xFF) >= EMPTY)
+				continue;
+			int h = hash(oldKeys[i]);
+			int slot = findInsertSlot(h);
+			setCtrl(slot, h & 0x7F);
+			keys[slot] = oldKeys[i];
+			values[slot] = oldValues[i];
+		}
+		size = oldSize;
+		growthLeft -= oldSize;
+		if (stats != null)
+			stats.resized(System.nanoTime() - start);
+	}
+
+	private void allocate(int newCapacity) {
+		capacity = newCapacity;
+		groupMask = newCapacity / GROUP_WIDTH - 1;
+		ctrl = new long[newCapacity / GROUP_WIDTH];
+		java.util.Arrays.fill(ctrl, ALL_EMPTY);
+		keys = new Object[newCapacity];
+		values = new Object[newCapacity];
+		size = 0;
+		// keep at least one EMPTY per table so every probe terminates
+		growthLeft = newCapacity - newCapacity / 8;
+	}
+
+	private static int tableSizeFor(int n) {
+		int cap = DEFAULT_CAPACITY;
+		while (cap < n && cap < MAX_CAPACITY)
+			cap <<= 1;
+		return cap;
+	}
+
+	private int hash(Object key) {
+		return hashStrategy.hash(key);
+	}
+
+	private final class Cursor extends SlotCursor<K,V> {
+		Cursor(int origin, int fence) {
+			super(origin, fence);
+		}
+
+		@Override
+		boolean occupied(int slot) {
+			return ctrlAt(slot) < EMPTY;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		K keyAt(int slot) {
+			return (K) keys[slot];
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		V valueAt(int slot) {
+			return (V) values[slot];
+		}
+
+		@Override
+		SlotCursor<K,V> slice(int origin, int fence) {
+			return new Cursor(origin, fence);
+		}
+	}
+}
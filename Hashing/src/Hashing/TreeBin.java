@@ -0,0 +1,245 @@
+package Hashing;
+
+/**
+ * Bucket head that replaces a chain once it grows past
+ * AbstractMap.TREEIFY_THRESHOLD, so a bucket costs O(log n) however many
+ * keys collide in it.
+ *
+ * The entries form a left-leaning red-black tree, the same insert and delete
+ * as Core.RedBlackTree. Nodes are ordered by hash, then by compareTo when both
+ * keys are of the same Comparable class, then by insertion order. Keys that
+ * only the insertion order tells apart are found by searching both subtrees.
+ * The bin itself has no key; code walking a bucket goes through chain().
+ */
+class TreeBin<K,V> extends Entry<K,V> {
+	private static final boolean RED = true;
+	private static final boolean BLACK = false;
+
+	static final class Node<K,V> extends Entry<K,V> {
+		int hash;
+		long seq;
+		Node<K,V> left, right;
+		boolean color;
+	}
+
+	Node<K,V> root;
+	int count;
+	private long nextSeq;
+
+	/**
+	 * @return the entry for key, or null
+	 */
+	Entry<K,V> find(int hash, Object key) {
+		return find(root, hash, key);
+	}
+
+	/**
+	 * Adds a key that is known not to be in the bin.
+	 */
+	void add(int hash, K key, V value) {
+		Node<K,V> n = new Node<>();
+		n.hash = hash;
+		n.key = key;
+		n.value = value;
+		n.seq = nextSeq++;
+		n.color = RED;
+		root = insert(root, n);
+		root.color = BLACK;
+		count++;
+	}
+
+	/**
+	 * Removes an entry returned by find. The node object may be reused for
+	 * another entry, so read its value first.
+	 */
+	void remove(Entry<K,V> entry) {
+		Node<K,V> target = (Node<K,V>) entry;
+		if (!isRed(root.left) && !isRed(root.right))
+			root.color = RED;
+		root = delete(root, target);
+		if (root != null)
+			root.color = BLACK;
+		count--;
+	}
+
+	/**
+	 * Links the nodes in order through next and returns the first one; the
+	 * tree is left as it is.
+	 */
+	Entry<K,V> chain() {
+		return link(root, null);
+	}
+
+	/**
+	 * @return the entries as a plain chain, the bin must not be used afterwards
+	 */
+	Entry<K,V> untreeify() {
+		Entry<K,V> first = chain();
+		for (Entry<K,V> e = first; e != null; e = e.next) {
+			Node<K,V> n = (Node<K,V>) e;
+			n.left = n.right = null;
+		}
+		root = null;
+		count = 0;
+		return first;
+	}
+
+	// 	PRIVATE HELPERS
+
+	private Node<K,V> find(Node<K,V> x, int hash, Object key) {
+		while (x != null) {
+			if (hash != x.hash)
+				x = hash < x.hash ? x.left : x.right;
+			else if (x.key.equals(key))
+				return x;
+			else {
+				int c = compareKeys(key, x.key);
+				if (c < 0)
+					x = x.left;
+				else if (c > 0)
+					x = x.right;
+				else {
+					// only insertion order separates them, so try both sides
+					Node<K,V> found = find(x.right, hash, key);
+					if (found != null)
+						return found;
+					x = x.left;
+				}
+			}
+		}
+		return null;
+	}
+
+	private Entry<K,V> link(Node<K,V> x, Entry<K,V> rest) {
+		if (x == null)
+			return rest;
+		x.next = link(x.right, rest);
+		return link(x.left, x);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static int compareKeys(Object a, Object b) {
+		if (a instanceof Comparable && a.getClass() == b.getClass())
+			return ((Comparable<Object>) a).compareTo(b);
+		return 0;
+	}
+
+	// total order over the nodes, 0 only for the same node
+	private static int order(Node<?,?> a, Node<?,?> b) {
+		if (a.hash != b.hash)
+			return a.hash < b.hash ? -1 : 1;
+		int c = compareKeys(a.key, b.key);
+		if (c != 0)
+			return c;
+		return Long.compare(a.seq, b.seq);
+	}
+
+	private Node<K,V> insert(Node<K,V> h, Node<K,V> n) {
+		if (h == null)
+			return n;
+		if (order(n, h) < 0)
+			h.left = insert(h.left, n);
+		else
+			h.right = insert(h.right, n);
+		return balance(h);
+	}
+
+	private Node<K,V> delete(Node<K,V> h, Node<K,V> target) {
+		if (order(target, h) < 0) {
+			if (!isRed(h.left) && !isRed(h.left.left))
+				h = moveRedLeft(h);
+			h.left = delete(h.left, target);
+		}
+		else {
+			if (isRed(h.left))
+				h = rotateRight(h);
+			if (h == target && h.right == null)
+				return null;
+			if (!isRed(h.right) && !isRed(h.right.left))
+				h = moveRedRight(h);
+			if (h == target) {
+				Node<K,V> x = min(h.right);
+				h.hash = x.hash;
+				h.seq = x.seq;
+				h.key = x.key;
+				h.value = x.value;
+				h.right = deleteMin(h.right);
+			}
+			else
+				h.right = delete(h.right, target);
+		}
+		return balance(h);
+	}
+
+	private Node<K,V> deleteMin(Node<K,V> h) {
+		if (h.left == null)
+			return null;
+		if (!isRed(h.left) && !isRed(h.left.left))
+			h = moveRedLeft(h);
+		h.left = deleteMin(h.left);
+		return balance(h);
+	}
+
+	private Node<K,V> min(Node<K,V> x) {
+		while (x.left != null)
+			x = x.left;
+		return x;
+	}
+
+	private boolean isRed(Node<K,V> x) {
+		return x != null && x.color == RED;
+	}
+
+	private Node<K,V> rotateRight(Node<K,V> h) {
+		Node<K,V> x = h.left;
+		h.left = x.right;
+		x.right = h;
+		x.color = h.color;
+		h.color = RED;
+		return x;
+	}
+
+	private Node<K,V> rotateLeft(Node<K,V> h) {
+		Node<K,V> x = h.right;
+		h.right = x.left;
+		x.left = h;
+		x.color = h.color;
+		h.color = RED;
+		return x;
+	}
+
+	private void flipColors(Node<K,V> h) {
+		h.color = !h.color;
+		h.left.color = !h.left.color;
+		h.right.color = !h.right.color;
+	}
+
+	private Node<K,V> moveRedLeft(Node<K,V> h) {
+		flipColors(h);
+		if (isRed(h.right.left)) {
+			h.right = rotateRight(h.right);
+			h = rotateLeft(h);
+			flipColors(h);
+		}
+		return h;
+	}
+
+	private Node<K,V> moveRedRight(Node<K,V> h) {
+		flipColors(h);
+		if (isRed(h.left.left)) {
+			h = rotateRight(h);
+			flipColors(h);
+		}
+		return h;
+	}
+
+	private Node<K,V> balance(Node<K,V> h) {
+		if (isRed(h.right) && !isRed(h.left))
+			h = rotateLeft(h);
+		if (isRed(h.left) && isRed(h.left.left))
+			h = rotateRight(h);
+		if (isRed(h.left) && isRed(h.right))
+			flipColors(h);
+		return h;
+	}
+}
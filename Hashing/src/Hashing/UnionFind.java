@@ -1,58 +1,65 @@
 package Hashing;
 
+/**
+ * Disjoint sets with union by rank and path halving, so find and union take
+ * near constant amortized time however the sets were built.
+ */
 public class UnionFind {
 	int[] parents;
+	// upper bound on the height of the tree under a root, at most log2 of the size
+	byte[] ranks;
 
 	UnionFind(int size) {
 		parents = new int[size];
-		for (int i = 0; i < parents.length; i++)
-			parents[i] = i;
+		ranks = new byte[size];
+		reset();
 	}
 
 	/**
-	 * finds the parent of element i
-	 * 
+	 * finds the root of the set of element i, pointing every other node on
+	 * the way at its grandparent
+	 *
 	 * @param i
-	 * @return parent of i
+	 * @return root of the set of i
 	 */
 	int find(int i) {
-		while (parents[i] != i)
+		while (parents[i] != i) {
+			parents[i] = parents[parents[i]];
 			i = parents[i];
+		}
 		return i;
 	}
 
 	/**
-	 * merges set of i with set of j find parent of i and j make j the parent of
-	 * i
-	 * 
+	 * merges the set of i with the set of j, hanging the root of lower rank
+	 * under the other
+	 *
 	 * @param i
 	 * @param j
 	 * @return the root of the new set
 	 */
 	int union(int i, int j) {
-		int sizei = 0, sizej = 0;
-		while (parents[i] != i) {
-			i = parents[i];
-			sizei++;
-		}
-		while (parents[j] != j) {
-			j = parents[j];
-			sizej++;
-		}
-
+		i = find(i);
+		j = find(j);
 		if (i == j)
 			return i;
-
-		int root = 0;
-
-		if (sizei > sizej) {
+		if (ranks[i] > ranks[j]) {
 			parents[j] = i;
-			root = i;
-		} else {
-			parents[i] = j;
-			root = j;
+			return i;
 		}
-		return root;
+		if (ranks[i] == ranks[j])
+			ranks[j]++;
+		parents[i] = j;
+		return j;
 	}
 
+	/**
+	 * Puts every element back in a set of its own.
+	 */
+	void reset() {
+		for (int i = 0; i < parents.length; i++) {
+			parents[i] = i;
+			ranks[i] = 0;
+		}
+	}
 }
@@ -0,0 +1,48 @@
+package HopscotchHashMapTestCases;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import Hashing.HopscotchHashMap;
+import LinearHashMapTestCases.Utilities;
+
+public class hhmtest01 {
+	public static void main(String[] args) {
+		
+		System.out.println("Starting test case 01 for adding very huge number of keys at load factor above 0.9 and deleting huge number of keys");
+		HopscotchHashMap<Integer,Integer> map = new HopscotchHashMap<>(30000, 0.96f);
+		Map<Integer,Integer> omap = new HashMap<Integer,Integer>();
+		String fileName = "/src/LinearHashMapTestCases/testInput10.txt";
+		map = Utilities.populateMap(fileName, map);
+		omap = Utilities.populateOriginalHashMap(fileName);
+		System.out.println("Load factor:" + map.loadFactor() + ", capacity:" + map.capacity());
+		
+		Random rnd = new Random(261);
+		long elapsedTime = 0;
+		int misses = 0;
+		for(int i = 0; i < 100000; i++) {
+			int key = rnd.nextInt(200000) + 100000;
+			long startTime = System.nanoTime();
+			if(!map.containsKey(key)) misses++;
+			elapsedTime += System.nanoTime() - startTime;
+		}
+		System.out.println("Execution Time for " + misses + " unsuccessful searches:" + elapsedTime + " nano secs");
+		
+		Object[] keys = map.keySet().toArray();
+		elapsedTime = 0;
+		for(int i = 0; i < keys.length / 2; i++) {
+			Object keyToBeDeleted = keys[rnd.nextInt(keys.length)];
+			long startTime = System.nanoTime();
+			map.remove(keyToBeDeleted);
+			elapsedTime += System.nanoTime() - startTime;
+			omap.remove(keyToBeDeleted);
+		}
+		System.out.println("Execution Time for deleting keys:" + elapsedTime + " nano secs");
+		
+		if(Utilities.compare(map,omap))
+			System.out.println("Testcase 01 successfully completed.");
+		else
+			System.out.println("Testcase 01 failed.");
+	}
+}
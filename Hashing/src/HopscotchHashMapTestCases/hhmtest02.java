@@ -0,0 +1,76 @@
+package HopscotchHashMapTestCases;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import Hashing.HopscotchHashMap;
+
+public class hhmtest02 {
+	// keys of one group share a hash code, so each group outgrows its neighborhood
+	static final class Key {
+		final int id;
+
+		Key(int id) {
+			this.id = id;
+		}
+
+		@Override
+		public int hashCode() {
+			return id / 100;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key && ((Key) o).id == id;
+		}
+	}
+
+	public static void main(String[] args) {
+
+		System.out.println("Starting test case 02 for keys spilling to the overflow list of several home buckets");
+		HopscotchHashMap<Key,Integer> map = new HopscotchHashMap<>(1024);
+		Map<Key,Integer> omap = new HashMap<Key,Integer>();
+		boolean ok = true;
+		for(int i = 0; i < 300; i++) {
+			map.put(new Key(i), i);
+			omap.put(new Key(i), i);
+		}
+		ok &= map.size() == 300;
+		for(int i = 0; i < 300; i++)
+			ok &= map.get(new Key(i)) == i && map.containsKey(new Key(i));
+		// ids -99 to -1 also hash to 0, so these walk the chain of a flagged home and miss
+		ok &= !map.containsKey(new Key(-1)) && !map.containsKey(new Key(-99));
+
+		// remove every other key, then update the rest in place
+		for(int i = 0; i < 300; i += 2) {
+			ok &= map.remove(new Key(i)) == i;
+			omap.remove(new Key(i));
+		}
+		ok &= map.remove(new Key(0)) == null;
+		for(int i = 1; i < 300; i += 2) {
+			map.put(new Key(i), -i);
+			omap.put(new Key(i), -i);
+		}
+		for(int i = 0; i < 300; i++)
+			ok &= map.containsKey(new Key(i)) == (i % 2 == 1);
+
+		// emptying the chains clears the flags, after which keys spill again
+		for(int i = 1; i < 300; i += 2) {
+			map.remove(new Key(i));
+			omap.remove(new Key(i));
+		}
+		ok &= map.size() == 0;
+		for(int i = 0; i < 300; i++) {
+			map.put(new Key(i), i);
+			omap.put(new Key(i), i);
+		}
+
+		ok &= map.size() == omap.size();
+		for(Map.Entry<Key,Integer> e : omap.entrySet())
+			ok &= e.getValue().equals(map.get(e.getKey()));
+		if(ok)
+			System.out.println("Testcase 02 successfully completed.");
+		else
+			System.out.println("Testcase 02 failed.");
+	}
+}
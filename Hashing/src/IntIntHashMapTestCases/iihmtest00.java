@@ -0,0 +1,39 @@
+package IntIntHashMapTestCases;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import Hashing.IntIntHashMap;
+import LinearHashMapTestCases.Utilities;
+
+public class iihmtest00 {
+
+	public static void main(String[] args) {
+		
+		System.out.println("Starting test case 00 for creation, growth and unsuccessful search");
+		IntIntHashMap map = new IntIntHashMap(4);
+		Map<Integer,Integer> omap = new HashMap<Integer,Integer>();
+		long startTime = System.nanoTime();
+		for(int i = 0; i < 1000; i++) {
+			map.put(i * 16, i);
+			omap.put(i * 16, i);
+		}
+		map.put(0, 42);
+		omap.put(0, 42);
+		long stopTime = System.nanoTime();
+	    long elapsedTime = stopTime - startTime;
+	    System.out.println("Execution Time for adding " + map.size() + " keys:" + elapsedTime + " nano secs");
+	    
+	    startTime = System.nanoTime();
+	    int missing = map.get(78);
+	    stopTime = System.nanoTime();
+	    elapsedTime = stopTime - startTime;
+	    System.out.println("Execution Time for Unsuccessful search:" + elapsedTime + " nano secs");
+	    
+	    if(missing == map.getNoEntryValue() && Utilities.compare(map, omap))
+			System.out.println("Testcase 00 successfully completed.");
+		else
+			System.out.println("Testcase 00 failed.");
+	}
+
+}
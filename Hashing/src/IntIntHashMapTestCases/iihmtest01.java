@@ -0,0 +1,42 @@
+package IntIntHashMapTestCases;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import Hashing.IntIntHashMap;
+import LinearHashMapTestCases.Utilities;
+
+public class iihmtest01 {
+	public static IntIntHashMap map;
+	public static Map<Integer,Integer> omap = new HashMap<Integer,Integer>();
+	public static void main(String[] args) {
+		
+		System.out.println("Starting test case 01 for adding very huge number of keys and deleting huge number of keys");
+		String fileName = "/src/LinearHashMapTestCases/testInput10.txt";
+		map = Utilities.populateIntIntHashMap(fileName);
+		omap = Utilities.populateOriginalHashMap(fileName);
+		long startTime = 0;
+		long stopTime = 0;
+		long elapsedTime = 0;
+		int oldSize = map.size();
+		
+		int[] keys = map.keySet();
+		Random rnd = new Random(261);
+		for(int i = 0; i < keys.length / 2; i++) {
+			int keyToBeDeleted = keys[rnd.nextInt(keys.length)];
+			startTime = System.nanoTime();
+			map.remove(keyToBeDeleted);
+			stopTime = System.nanoTime();
+			elapsedTime = elapsedTime + (stopTime - startTime);
+			omap.remove(keyToBeDeleted);
+		}
+		
+		System.out.println("Execution Time for deleting "+(oldSize-map.size()) + " unique keys:"  + elapsedTime + " nano secs");
+		if(Utilities.compare(map,omap))
+			System.out.println("Testcase 01 successfully completed.");
+		else
+			System.out.println("Testcase 01 failed.");
+	}
+
+}
@@ -0,0 +1,196 @@
+package LinearHashMapTestCases;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+import Hashing.LinearHashMap;
+
+/**
+ * Loader for the test input format: a first line holding the table size,
+ * then one "key , value" pair per line.
+ *
+ * The file is memory-mapped and digits are parsed straight from the mapped
+ * bytes, so no String or array is created per line. The body is cut into
+ * chunks at line boundaries and the chunks are parsed in parallel; their
+ * pairs are then joined back in file order, so later duplicates still win
+ * when the pairs are inserted.
+ */
+public class BulkLoader {
+	// chunks smaller than this are not worth a task of their own
+	private static final int MIN_CHUNK_BYTES = 1 << 16;
+
+	/**
+	 * Pairs read from one input file, in file order.
+	 */
+	public static class Pairs {
+		public final int capacity;
+		public final int[] keys;
+		public final int[] values;
+		public final int count;
+
+		Pairs(int capacity, int[] keys, int[] values, int count) {
+			this.capacity = capacity;
+			this.keys = keys;
+			this.values = values;
+			this.count = count;
+		}
+	}
+
+	// pairs parsed from one chunk
+	private static class Chunk {
+		int[] keys;
+		int[] values;
+		int count;
+
+		Chunk(int expected) {
+			keys = new int[Math.max(16, expected)];
+			values = new int[keys.length];
+		}
+
+		void add(int key, int value) {
+			if (count == keys.length) {
+				keys = java.util.Arrays.copyOf(keys, count << 1);
+				values = java.util.Arrays.copyOf(values, count << 1);
+			}
+			keys[count] = key;
+			values[count++] = value;
+		}
+	}
+
+	/**
+	 * @param fileName : path relative to the working directory, as for the Utilities populate methods
+	 */
+	public static Pairs read(String fileName) throws IOException {
+		Path path = new File(new File("").getAbsolutePath() + fileName).toPath();
+		MappedByteBuffer buf;
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (ch.size() > Integer.MAX_VALUE)
+				throw new IOException(fileName + " is too large to map at once");
+			buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+		}
+		int end = buf.limit();
+		int[] pos = { 0 };
+		int capacity = parseInt(buf, pos, end);
+		int bodyStart = nextLine(buf, pos[0], end);
+
+		int chunks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), (end - bodyStart) / MIN_CHUNK_BYTES));
+		int[] bounds = new int[chunks + 1];
+		bounds[0] = bodyStart;
+		for (int c = 1; c < chunks; c++)
+			bounds[c] = Math.max(bounds[c - 1], nextLine(buf, bodyStart + (int) ((long) (end - bodyStart) * c / chunks), end));
+		bounds[chunks] = end;
+
+		Chunk[] parsed = new Chunk[chunks];
+		IntStream.range(0, chunks).parallel().forEach(c -> parsed[c] = parseChunk(buf, bounds[c], bounds[c + 1]));
+
+		int total = 0;
+		for (Chunk chunk : parsed)
+			total += chunk.count;
+		int[] keys = new int[total];
+		int[] values = new int[total];
+		int at = 0;
+		for (Chunk chunk : parsed) {
+			System.arraycopy(chunk.keys, 0, keys, at, chunk.count);
+			System.arraycopy(chunk.values, 0, values, at, chunk.count);
+			at += chunk.count;
+		}
+		return new Pairs(capacity, keys, values, total);
+	}
+
+	public static LinearHashMap loadLinearHashMap(String fileName) throws Exception {
+		Pairs pairs = read(fileName);
+		LinearHashMap lhm = new LinearHashMap(pairs.capacity);
+		lhm.putAll(pairs.keys, pairs.values, pairs.count);
+		return lhm;
+	}
+
+	public static <M extends Hashing.Map<Integer,Integer>> M load(String fileName, M map) throws IOException {
+		Pairs pairs = read(fileName);
+		Integer[] keys = new Integer[pairs.count];
+		Integer[] values = new Integer[pairs.count];
+		for (int i = 0; i < pairs.count; i++) {
+			keys[i] = pairs.keys[i];
+			values[i] = pairs.values[i];
+		}
+		map.putAll(keys, values);
+		return map;
+	}
+
+	// 	PRIVATE HELPERS
+
+	private static Chunk parseChunk(MappedByteBuffer buf, int from, int to) {
+		// about 8 bytes per line for the smallest inputs
+		Chunk chunk = new Chunk((to - from) / 8);
+		int[] pos = { from };
+		while (true) {
+			int p = skipBlank(buf, pos[0], to);
+			if (p >= to)
+				break;
+			if (buf.get(p) == '\n') {
+				pos[0] = p + 1;
+				continue;
+			}
+			pos[0] = p;
+			int key = parseInt(buf, pos, to);
+			p = skipBlank(buf, pos[0], to);
+			if (p >= to || buf.get(p) != ',')
+				throw new NumberFormatException("expected ',' at byte " + p);
+			pos[0] = p + 1;
+			int value = parseInt(buf, pos, to);
+			chunk.add(key, value);
+			pos[0] = nextLine(buf, pos[0], to);
+		}
+		return chunk;
+	}
+
+	/**
+	 * Parses an optionally signed decimal int starting at pos[0], after any
+	 * blanks, and leaves pos[0] just past its last digit.
+	 */
+	private static int parseInt(MappedByteBuffer buf, int[] pos, int end) {
+		int p = skipBlank(buf, pos[0], end);
+		boolean negative = p < end && buf.get(p) == '-';
+		if (negative)
+			p++;
+		int start = p;
+		// accumulate negatively so Integer.MIN_VALUE parses too
+		long n = 0;
+		while (p < end) {
+			int d = buf.get(p) - '0';
+			if (d < 0 || d > 9)
+				break;
+			n = n * 10 - d;
+			if (n < Integer.MIN_VALUE)
+				throw new NumberFormatException("number out of int range at byte " + start);
+			p++;
+		}
+		if (p == start)
+			throw new NumberFormatException("expected a number at byte " + start);
+		if (!negative && n == Integer.MIN_VALUE)
+			throw new NumberFormatException("number out of int range at byte " + start);
+		pos[0] = p;
+		return (int) (negative ? n : -n);
+	}
+
+	private static int skipBlank(MappedByteBuffer buf, int p, int end) {
+		while (p < end) {
+			byte b = buf.get(p);
+			if (b != ' ' && b != '\t' && b != '\r')
+				break;
+			p++;
+		}
+		return p;
+	}
+
+	// first byte after the next '\n' at or after p
+	private static int nextLine(MappedByteBuffer buf, int p, int end) {
+		while (p < end && buf.get(p) != '\n')
+			p++;
+		return Math.min(end, p + 1);
+	}
+}
@@ -4,6 +4,8 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -11,8 +13,12 @@ import Hashing.LinearHashMap;
 import Hashing.AbstractMap;
 import Hashing.ChainedHashMap;
 import Hashing.CuckooHashMap;
+import Hashing.ConcurrentCuckooHashTable;
 import Hashing.CuckooHashTable;
 import Hashing.DoubleHashMap;
+import Hashing.IntIntHashMap;
+import Hashing.MappedLinearHashMap;
+import Hashing.OffHeapIntIntHashMap;
 
 public class Utilities {
 	public static boolean compare(LinearHashMap map, Map<Integer,Integer> omap) {
@@ -35,6 +41,49 @@ public class Utilities {
 		}
 		return true;
 		
+	}
+	public static boolean compare(MappedLinearHashMap map, Map<Integer,Integer> omap) {
+		
+		if(omap.size()!=map.size()) return false;
+		
+		for (Map.Entry<Integer, Integer> entry : omap.entrySet()) {
+			Integer key = entry.getKey();
+		    Integer value = entry.getValue();
+		    if(!map.contains(key)) return false;
+		    try {
+		    	if(map.get(key) != value) return false;
+			} catch (Exception e) {
+				return false;
+			}
+		}
+		return true;
+		
+	}
+	public static boolean compare(IntIntHashMap map, Map<Integer,Integer> omap) {
+		
+		if(omap.size()!=map.size()) return false;
+		
+		for (Map.Entry<Integer, Integer> entry : omap.entrySet()) {
+			Integer key = entry.getKey();
+		    Integer value = entry.getValue();
+		    if(!map.contains(key)) return false;
+		    if(map.get(key) != value) return false;
+		}
+		return true;
+		
+	}
+	public static boolean compare(OffHeapIntIntHashMap map, Map<Integer,Integer> omap) {
+		
+		if(omap.size()!=map.size()) return false;
+		
+		for (Map.Entry<Integer, Integer> entry : omap.entrySet()) {
+			Integer key = entry.getKey();
+		    Integer value = entry.getValue();
+		    if(!map.contains(key)) return false;
+		    if(map.get(key) != value) return false;
+		}
+		return true;
+		
 	}
 	public static boolean compare(CuckooHashTable map, Map<Integer,Integer> omap) {
 		
@@ -56,6 +105,18 @@ public class Utilities {
 		}
 		return true;
 		
+	}
+	public static boolean compare(ConcurrentCuckooHashTable map, Map<Integer,Integer> omap) {
+		
+		if(omap.size()!=map.size()) return false;
+		
+		for (Map.Entry<Integer, Integer> entry : omap.entrySet()) {
+			Integer key = entry.getKey();
+		    Integer value = entry.getValue();
+		    if(!value.equals(map.get(key))) return false;
+		}
+		return true;
+		
 	}
 	public static boolean compare(AbstractMap map, Map<Integer,Integer> omap) {
 		
@@ -80,6 +141,19 @@ public class Utilities {
 		
 		return true;
 		
+	}
+	public static boolean compare(Hashing.Map map, Map<Integer,Integer> omap) {
+		
+		if(omap.size()!=map.size()) return false;
+		for (Map.Entry<Integer, Integer> entry : omap.entrySet()) {
+		    Integer key = entry.getKey();
+		    Integer value = entry.getValue();
+		    if(!map.containsKey(key)) return false;
+		    Integer nVal = (Integer) map.get(key);
+		    if(!nVal.equals(value)) return false;
+		}
+		return true;
+		
 	}
 	public static boolean compare(ChainedHashMap map, Map<Integer,Integer> omap) {
 		
@@ -138,6 +212,80 @@ public class Utilities {
 		return lhm;
 	}
 	
+	/**
+	 * Reopens the map saved in mapFile when it is newer than the input file,
+	 * otherwise builds it from the input file and saves it there.
+	 */
+	public static MappedLinearHashMap populateMappedLinearHashMap(String fileName, Path mapFile) {
+		MappedLinearHashMap lhm = null;
+		String filePath = new File("").getAbsolutePath();
+		File input = new File(filePath + fileName);
+		long startTime = System.nanoTime();
+		long elapsedTime = 0;
+		try {
+			if(Files.exists(mapFile) && Files.getLastModifiedTime(mapFile).toMillis() >= input.lastModified()) {
+				lhm = MappedLinearHashMap.open(mapFile);
+				System.out.println("Time required for reopening "+ lhm.size() + " unique keys:" + (System.nanoTime() - startTime) + "nano sec");
+				return lhm;
+			}
+			BufferedReader reader = new BufferedReader(new FileReader(input));
+			String line = reader.readLine();
+			lhm = MappedLinearHashMap.create(mapFile, Integer.parseInt(line.trim()));
+			line = reader.readLine();
+			while (line != null) {
+				String [] pair = line.split(",");
+				int key = Integer.parseInt(pair[0].trim());
+				int value = Integer.parseInt(pair[1].trim());
+				startTime = System.nanoTime();
+				lhm.put(key, value);
+				elapsedTime = elapsedTime + (System.nanoTime() - startTime);
+				line = reader.readLine();
+			}
+			reader.close();
+			lhm.force();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		catch(Exception ex) {
+			System.out.println(ex.getMessage());
+		}
+		System.out.println("Time required for adding "+ lhm.size() + " unique keys:" + elapsedTime + "nano sec");
+		return lhm;
+	}
+	
+	public static IntIntHashMap populateIntIntHashMap(String fileName) {
+		IntIntHashMap iihm = new IntIntHashMap();
+		BufferedReader reader;
+		String filePath = new File("").getAbsolutePath();
+		long elapsedTime = 0;
+		long startTime = 0;
+		long stopTime = 0;
+		try {
+			filePath += fileName;
+			reader = new BufferedReader(new FileReader(filePath));
+			String line = reader.readLine();
+			line = reader.readLine();
+			while (line != null) {
+				String [] pair = line.split(",");
+				int key = Integer.parseInt(pair[0].trim());
+				int value = Integer.parseInt(pair[1].trim());
+				startTime = System.nanoTime();
+				iihm.put(key, value);
+				stopTime = System.nanoTime();
+				elapsedTime = elapsedTime + (stopTime - startTime);
+				line = reader.readLine();
+			}
+			reader.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		catch(Exception ex) {
+			System.out.println(ex.getMessage());
+		}
+		System.out.println("Time required for adding "+ iihm.size() + " unique keys:" + elapsedTime + "nano sec");
+		return iihm;
+	}
+	
 	public static ChainedHashMap populateChainedHashMap(String fileName, int k, int val) {
 		// TODO Auto-generated method stub
 		ChainedHashMap<Integer,Integer> chm = new ChainedHashMap<>();
@@ -274,6 +422,38 @@ public class Utilities {
 		return chm;
 	}
 	
+	public static <M extends Hashing.Map<Integer,Integer>> M populateMap(String fileName, M map) {
+		BufferedReader reader;
+		String filePath = new File("").getAbsolutePath();
+		long elapsedTime = 0;
+		long startTime = 0;
+		long stopTime = 0;
+		try {
+			filePath += fileName;
+			reader = new BufferedReader(new FileReader(filePath));
+			String line = reader.readLine();
+			line = reader.readLine();
+			while (line != null) {
+				String [] pair = line.split(",");
+				int key = Integer.parseInt(pair[0].trim());
+				int value = Integer.parseInt(pair[1].trim());
+				startTime = System.nanoTime();
+				map.put(key, value);
+				stopTime = System.nanoTime();
+				elapsedTime = elapsedTime + (stopTime - startTime);
+				line = reader.readLine();
+			}
+			reader.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		catch(Exception ex) {
+			System.out.println(ex.getMessage());
+		}
+		System.out.println("Time required for adding "+ map.size() + " unique keys:" + elapsedTime + "nano sec");
+		return map;
+	}
+	
 	public static HashMap<Integer,Integer> populateOriginalHashMap(String fileName) {
 		// TODO Auto-generated method stub
 		HashMap<Integer,Integer> mp = new HashMap<Integer, Integer>();
@@ -0,0 +1,53 @@
+package LinearHashMapTestCases;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import Hashing.MappedLinearHashMap;
+
+public class lhmtest09 {
+
+	public static void main(String[] args) throws Exception {
+		
+		System.out.println("Starting test case 09 for saving a huge map to a file and reopening it");
+		String fileName = "/src/LinearHashMapTestCases/testInput10.txt";
+		Map<Integer,Integer> omap = Utilities.populateOriginalHashMap(fileName);
+		Path mapFile = Files.createTempFile("lhmtest09", ".map");
+		Files.delete(mapFile);
+		boolean ok;
+		try {
+			// first run builds the file, second run only maps it
+			MappedLinearHashMap map = Utilities.populateMappedLinearHashMap(fileName, mapFile);
+			int[] keys = map.keySet();
+			for(int i = 0; i < keys.length; i += 3) {
+				map.remove(keys[i]);
+				omap.remove(keys[i]);
+			}
+			map.close();
+			
+			long startTime = System.nanoTime();
+			map = Utilities.populateMappedLinearHashMap(fileName, mapFile);
+			long stopTime = System.nanoTime();
+			System.out.println("Execution Time for reopening:" + (stopTime - startTime) + " nano secs");
+			ok = Utilities.compare(map, omap) && map.keySet().length == omap.size();
+			map.close();
+			
+			Files.write(mapFile, new byte[64]);
+			try {
+				MappedLinearHashMap.open(mapFile).close();
+				ok = false;
+			} catch(java.io.IOException e) {
+			}
+		} finally {
+			Files.deleteIfExists(mapFile);
+		}
+		
+		if(ok)
+			System.out.println("Testcase 09 successfully completed.");
+		else
+			System.out.println("Testcase 09 failed.");
+	}
+
+}
@@ -0,0 +1,37 @@
+package LinearHashMapTestCases;
+
+import java.util.Map;
+
+import Hashing.ChainedHashMap;
+import Hashing.LinearHashMap;
+
+public class lhmtest10 {
+
+	public static void main(String[] args) throws Exception {
+		
+		System.out.println("Starting test case 10 for loading huge input files through the bulk loader");
+		String fileName = "/src/LinearHashMapTestCases/testInput10.txt";
+		Map<Integer,Integer> omap = Utilities.populateOriginalHashMap(fileName);
+		
+		long startTime = System.nanoTime();
+		Utilities.populateLinearHashMap(fileName);
+		long stopTime = System.nanoTime();
+		System.out.println("Execution Time for reading line by line:" + (stopTime - startTime) + " nano secs");
+		
+		startTime = System.nanoTime();
+		LinearHashMap map = BulkLoader.loadLinearHashMap(fileName);
+		stopTime = System.nanoTime();
+		System.out.println("Execution Time for bulk loading:" + (stopTime - startTime) + " nano secs");
+		
+		ChainedHashMap<Integer,Integer> chm = BulkLoader.load("/src/LinearHashMapTestCases/testInput09.txt", new ChainedHashMap<Integer,Integer>());
+		BulkLoader.Pairs small = BulkLoader.read("/src/LinearHashMapTestCases/testInput03.txt");
+		
+		if(Utilities.compare(map, omap)
+				&& Utilities.compare(chm, Utilities.populateOriginalHashMap("/src/LinearHashMapTestCases/testInput09.txt"))
+				&& small.capacity == 10 && small.count == 10 && small.keys[9] == 9)
+			System.out.println("Testcase 10 successfully completed.");
+		else
+			System.out.println("Testcase 10 failed.");
+	}
+
+}
@@ -0,0 +1,42 @@
+package LinearHashMapTestCases;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import Hashing.ChainedHashMap;
+import Hashing.CuckooHashTable;
+import Hashing.HashStrategy;
+import Hashing.LinearHashMap;
+
+public class lhmtest11 {
+
+	public static void main(String[] args) throws Exception {
+		
+		System.out.println("Starting test case 11 for negative keys under every hash strategy");
+		HashStrategy[] strategies = { HashStrategy.IDENTITY, HashStrategy.FIBONACCI, HashStrategy.MURMUR3,
+				HashStrategy.XXHASH, HashStrategy.randomized() };
+		boolean ok = true;
+		for(HashStrategy strategy: strategies) {
+			Map<Integer,Integer> omap = new HashMap<Integer,Integer>();
+			LinearHashMap lhm = new LinearHashMap(4000, strategy);
+			ChainedHashMap<Integer,Integer> chm = new ChainedHashMap<>(strategy);
+			CuckooHashTable<Integer,Integer> ckht = new CuckooHashTable<>(22, strategy);
+			Random rnd = new Random(261);
+			for(int i = 0; i < 2000; i++) {
+				int key = i % 4 == 0 ? Integer.MIN_VALUE + i : -rnd.nextInt(1 << 20);
+				omap.put(key, i);
+				lhm.put(key, i);
+				chm.put(key, i);
+				ckht.put(key, i);
+			}
+			ok &= Utilities.compare(lhm, omap) && Utilities.compare(chm, omap) && Utilities.compare(ckht, omap);
+		}
+		
+		if(ok)
+			System.out.println("Testcase 11 successfully completed.");
+		else
+			System.out.println("Testcase 11 failed.");
+	}
+
+}
@@ -0,0 +1,84 @@
+package LinearHashMapTestCases;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.StreamSupport;
+
+import Hashing.ChainedHashMap;
+import Hashing.ConcurrentCuckooHashTable;
+import Hashing.CuckooHashTable;
+import Hashing.LinearHashMap;
+import Hashing.MappedLinearHashMap;
+import Hashing.OffHeapLongLongHashMap;
+
+public class lhmtest12 {
+
+	public static void main(String[] args) throws Exception {
+		
+		System.out.println("Starting test case 12 for cursors, forEach and parallel key streams");
+		String fileName = "/src/LinearHashMapTestCases/testInput10.txt";
+		Map<Integer,Integer> omap = Utilities.populateOriginalHashMap(fileName);
+		LinearHashMap lhm = Utilities.populateLinearHashMap(fileName);
+		ChainedHashMap<Integer,Integer> chm = Utilities.populateMap(fileName, new ChainedHashMap<Integer,Integer>());
+		CuckooHashTable<Integer,Integer> ckht = new CuckooHashTable<>();
+		for(Map.Entry<Integer, Integer> entry: omap.entrySet())
+			ckht.put(entry.getKey(), entry.getValue());
+		long expectedSum = omap.keySet().stream().mapToLong(Integer::longValue).sum();
+		
+		Map<Integer,Integer> seen = new HashMap<Integer,Integer>();
+		long startTime = System.nanoTime();
+		lhm.forEach((key, value) -> seen.put(key, value));
+		System.out.println("Execution Time for LinearHashMap forEach:" + (System.nanoTime() - startTime) + " nano secs");
+		boolean ok = seen.equals(omap);
+		startTime = System.nanoTime();
+		ok &= StreamSupport.intStream(lhm.keySpliterator(), true).asLongStream().sum() == expectedSum;
+		System.out.println("Execution Time for LinearHashMap parallel key sum:" + (System.nanoTime() - startTime) + " nano secs");
+		
+		seen.clear();
+		chm.forEach((key, value) -> seen.put(key, value));
+		ok &= seen.equals(omap);
+		ok &= StreamSupport.stream(chm.keySpliterator(), true).mapToLong(key -> key).sum() == expectedSum;
+		
+		seen.clear();
+		ckht.forEach((key, value) -> seen.put(key, value));
+		ok &= seen.equals(omap);
+		ok &= StreamSupport.stream(ckht.keySpliterator(), true).mapToLong(Integer::longValue).sum() == expectedSum;
+		
+		ConcurrentCuckooHashTable<Integer,Integer> cckht = new ConcurrentCuckooHashTable<>();
+		for(Map.Entry<Integer, Integer> entry: omap.entrySet())
+			cckht.put(entry.getKey(), entry.getValue());
+		seen.clear();
+		cckht.forEach((key, value) -> seen.put(key, value));
+		ok &= seen.equals(omap);
+		ok &= StreamSupport.stream(cckht.keySpliterator(), true).mapToLong(Integer::longValue).sum() == expectedSum;
+		
+		Path file = Files.createTempFile("lhmtest12", ".map");
+		try(MappedLinearHashMap mapped = MappedLinearHashMap.create(file, 2 * omap.size())) {
+			for(Map.Entry<Integer, Integer> entry: omap.entrySet())
+				mapped.put(entry.getKey(), entry.getValue());
+			seen.clear();
+			mapped.forEach((key, value) -> seen.put(key, value));
+			ok &= seen.equals(omap);
+			ok &= StreamSupport.intStream(mapped.keySpliterator(), true).asLongStream().sum() == expectedSum;
+		} finally {
+			Files.delete(file);
+		}
+		
+		// long keys spread past the int range, value kept as the original int key
+		try(OffHeapLongLongHashMap longs = new OffHeapLongLongHashMap()) {
+			for(Map.Entry<Integer, Integer> entry: omap.entrySet())
+				longs.put((long) entry.getKey() << 16, entry.getValue());
+			seen.clear();
+			longs.forEach((key, value) -> seen.put((int) (key >> 16), (int) value));
+			ok &= seen.equals(omap);
+			ok &= StreamSupport.longStream(longs.keySpliterator(), true).map(key -> key >> 16).sum() == expectedSum;
+		}
+		
+		if(ok)
+			System.out.println("Testcase 12 successfully completed.");
+		else
+			System.out.println("Testcase 12 failed.");
+	}
+}
@@ -0,0 +1,53 @@
+package LinearHashMapTestCases;
+
+import Hashing.HashStrategy;
+import Hashing.LinearHashMap;
+
+public class lhmtest13 {
+
+	public static void main(String[] args) throws Exception {
+
+		System.out.println("Starting test case 13 for probing that wraps around the table and removes from a full one");
+		// 12 slots round up to 16; under IDENTITY key k starts at slot k & 15
+		LinearHashMap lhm = new LinearHashMap(12, HashStrategy.IDENTITY);
+		lhm.trackStats(true);
+		boolean ok = lhm.stats().capacity() == 16;
+
+		// 14, 30, 46 and 62 share slot 14 and run on into slots 15, 0 and 1, pushing 0 to slot 2
+		int[] run = { 14, 30, 46, 62, 0 };
+		for(int key: run)
+			lhm.put(key, -key);
+		for(int key: run)
+			ok &= lhm.get(key) == -key;
+		// a miss walks the run across the end of the table and stops at slot 3
+		ok &= !lhm.contains(78) && !lhm.contains(16);
+
+		// removing from the middle of the run moves the keys after it back
+		lhm.remove(30);
+		ok &= !lhm.contains(30) && lhm.size() == 4;
+		for(int key: new int[] { 14, 46, 62, 0 })
+			ok &= lhm.get(key) == -key;
+
+		// with every slot taken a miss goes once around the table and stops
+		for(int key = 1; !lhm.isFull(); key++) {
+			if(key != 14)
+				lhm.put(key, -key);
+		}
+		ok &= lhm.size() == 16 && !lhm.contains(30) && !lhm.contains(-1);
+		// the first remove is from a full cluster, whose shifting wraps back to the freed slot
+		int[] keys = lhm.keySet();
+		for(int i = 0; i < keys.length; i++) {
+			lhm.remove(keys[i]);
+			ok &= !lhm.contains(keys[i]) && lhm.size() == keys.length - i - 1;
+			for(int j = i + 1; j < keys.length; j++)
+				ok &= lhm.get(keys[j]) == -keys[j];
+		}
+		ok &= lhm.isEmpty();
+
+		if(ok)
+			System.out.println("Testcase 13 successfully completed.");
+		else
+			System.out.println("Testcase 13 failed.");
+	}
+
+}
@@ -0,0 +1,39 @@
+package OffHeapHashMapTestCases;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import Hashing.OffHeapIntIntHashMap;
+import LinearHashMapTestCases.Utilities;
+
+public class ohhmtest00 {
+	public static void main(String[] args) {
+		
+		System.out.println("Starting test case 00 for adding and deleting huge number of keys off heap");
+		String fileName = "/src/LinearHashMapTestCases/testInput10.txt";
+		Map<Integer,Integer> omap = Utilities.populateOriginalHashMap(fileName);
+		boolean ok;
+		try(OffHeapIntIntHashMap map = new OffHeapIntIntHashMap()) {
+			long startTime = System.nanoTime();
+			for(Map.Entry<Integer, Integer> entry: omap.entrySet())
+				map.put(entry.getKey(), entry.getValue());
+			long stopTime = System.nanoTime();
+			System.out.println("Time required for adding "+ map.size() + " unique keys:" + (stopTime - startTime) + "nano sec");
+			
+			int[] keys = map.keySet();
+			Random rnd = new Random(261);
+			for(int i = 0; i < keys.length / 2; i++) {
+				int keyToBeDeleted = keys[rnd.nextInt(keys.length)];
+				map.remove(keyToBeDeleted);
+				omap.remove(keyToBeDeleted);
+			}
+			ok = Utilities.compare(map,omap);
+		}
+		
+		if(ok)
+			System.out.println("Testcase 00 successfully completed.");
+		else
+			System.out.println("Testcase 00 failed.");
+	}
+}
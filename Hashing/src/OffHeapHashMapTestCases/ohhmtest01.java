@@ -0,0 +1,55 @@
+package OffHeapHashMapTestCases;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+import Hashing.OffHeapArena;
+import Hashing.OffHeapLongLongHashMap;
+
+public class ohhmtest01 {
+	public static void main(String[] args) {
+		
+		System.out.println("Starting test case 01 for a shared arena holding millions of long keys");
+		final int n = 4000000;
+		boolean ok = true;
+		long gcBefore = gcTime();
+		long startTime = System.nanoTime();
+		try(OffHeapArena arena = new OffHeapArena()) {
+			OffHeapLongLongHashMap map = new OffHeapLongLongHashMap(arena, 0, 0.75f, -1);
+			OffHeapLongLongHashMap small = new OffHeapLongLongHashMap(arena, 16, 0.75f, -1);
+			for(long i = 0; i < n; i++)
+				map.put(i << 20, i);
+			for(long i = 0; i < n; i += 2)
+				map.remove(i << 20);
+			for(long i = 0; i < n; i++)
+				ok &= map.get(i << 20) == (i % 2 == 0 ? -1 : i);
+			ok &= map.size() == n / 2;
+			System.out.println("Off-heap bytes in use:" + arena.allocatedBytes());
+			
+			// closing one map gives its pages back but leaves the arena and the other map usable
+			map.close();
+			small.put(Long.MIN_VALUE, 7);
+			ok &= small.get(Long.MIN_VALUE) == 7 && arena.allocatedBytes() > 0;
+			try {
+				map.get(1);
+				ok = false;
+			} catch(IllegalStateException e) {
+			}
+		}
+		long stopTime = System.nanoTime();
+		System.out.println("Execution Time:" + (stopTime - startTime) + " nano secs");
+		System.out.println("GC time during the test:" + (gcTime() - gcBefore) + " ms");
+		
+		if(ok)
+			System.out.println("Testcase 01 successfully completed.");
+		else
+			System.out.println("Testcase 01 failed.");
+	}
+	
+	private static long gcTime() {
+		long total = 0;
+		for(GarbageCollectorMXBean gc: ManagementFactory.getGarbageCollectorMXBeans())
+			total += Math.max(0, gc.getCollectionTime());
+		return total;
+	}
+}
@@ -0,0 +1,48 @@
+package OffHeapHashMapTestCases;
+
+import Hashing.IntIntCursor;
+import Hashing.OffHeapArena;
+import Hashing.OffHeapIntIntHashMap;
+import Hashing.OffHeapLongLongHashMap;
+
+public class ohhmtest02 {
+	public static void main(String[] args) {
+		
+		System.out.println("Starting test case 02 for maps whose arena was closed under them");
+		boolean ok = true;
+		OffHeapArena arena = new OffHeapArena();
+		OffHeapIntIntHashMap ints = new OffHeapIntIntHashMap(arena, 0, 0.75f, -1);
+		OffHeapLongLongHashMap longs = new OffHeapLongLongHashMap(arena, 0, 0.75f, -1);
+		for(int i = 1; i <= 100000; i++) {
+			ints.put(i, i);
+			longs.put((long) i << 32, i);
+		}
+		IntIntCursor cursor = ints.cursor();
+		ok &= cursor.advance();
+		
+		// the arena frees the pages of both maps, which must then refuse to touch them
+		arena.close();
+		ok &= ints.isClosed() && longs.isClosed() && arena.allocatedBytes() == 0;
+		Runnable[] uses = {
+				() -> ints.put(7, 7), () -> ints.get(1), () -> ints.contains(1), () -> ints.remove(1),
+				() -> ints.keySet(), () -> ints.clear(), () -> cursor.advance(), () -> cursor.value(),
+				() -> longs.put(7, 7), () -> longs.get(1L << 32), () -> longs.contains(1L << 32),
+				() -> longs.remove(1L << 32), () -> longs.valueSet(), () -> longs.clear() };
+		for(Runnable use: uses) {
+			try {
+				use.run();
+				ok = false;
+			} catch(IllegalStateException e) {
+			}
+		}
+		// closing the maps afterwards is harmless
+		ints.close();
+		longs.close();
+		ok &= ints.isClosed() && longs.isClosed();
+		
+		if(ok)
+			System.out.println("Testcase 02 successfully completed.");
+		else
+			System.out.println("Testcase 02 failed.");
+	}
+}
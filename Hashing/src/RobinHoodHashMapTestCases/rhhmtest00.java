@@ -0,0 +1,36 @@
+package RobinHoodHashMapTestCases;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import Hashing.RobinHoodHashMap;
+import LinearHashMapTestCases.Utilities;
+
+public class rhhmtest00 {
+	public static void main(String[] args) {
+		
+		System.out.println("Starting test case 00 for getting non-existing key");
+		RobinHoodHashMap<Integer,Integer> map = new RobinHoodHashMap<>();
+		Map<Integer,Integer> omap = new HashMap<Integer,Integer>();
+		String fileName = "/src/LinearHashMapTestCases/testInput03.txt";
+		map = Utilities.populateMap(fileName, map);
+		omap = Utilities.populateOriginalHashMap(fileName);
+		
+		long startTime = System.nanoTime();
+		boolean found = map.containsKey(78);
+	    long stopTime = System.nanoTime();
+	    long elapsedTime = stopTime - startTime;
+	    System.out.println("Execution Time for Unsuccessful search:" + elapsedTime + " nano secs");
+	    
+	    startTime = System.nanoTime();
+	    map.get(5);
+	    stopTime = System.nanoTime();
+	    elapsedTime = stopTime - startTime;
+	    System.out.println("Execution Time for successful search:" + elapsedTime + " nano secs");
+	    
+	    if(!found && Utilities.compare(map,omap))
+			System.out.println("Testcase 00 successfully completed.");
+		else
+			System.out.println("Testcase 00 failed.");
+	}
+}
@@ -0,0 +1,47 @@
+package RobinHoodHashMapTestCases;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import Hashing.RobinHoodHashMap;
+import LinearHashMapTestCases.Utilities;
+
+public class rhhmtest01 {
+	public static void main(String[] args) {
+		
+		System.out.println("Starting test case 01 for probe lengths at load factor above 0.9 with deletes");
+		RobinHoodHashMap<Integer,Integer> map = new RobinHoodHashMap<>(31164, 0.96f);
+		Map<Integer,Integer> omap = new HashMap<Integer,Integer>();
+		String fileName = "/src/LinearHashMapTestCases/testInput10.txt";
+		map = Utilities.populateMap(fileName, map);
+		omap = Utilities.populateOriginalHashMap(fileName);
+		System.out.println("Load factor:" + map.loadFactor() + ", max displacement:" + map.maxDisplacement()
+				+ ", mean displacement:" + map.meanDisplacement());
+		
+		Random rnd = new Random(261);
+		long elapsedTime = 0;
+		int misses = 0;
+		for(int i = 0; i < 100000; i++) {
+			int key = rnd.nextInt(200000) + 100000;
+			long startTime = System.nanoTime();
+			if(!map.containsKey(key)) misses++;
+			elapsedTime += System.nanoTime() - startTime;
+		}
+		System.out.println("Execution Time for " + misses + " unsuccessful searches:" + elapsedTime + " nano secs");
+		
+		Object[] keys = map.keySet().toArray();
+		for(int i = 0; i < keys.length / 2; i++) {
+			Object keyToBeDeleted = keys[rnd.nextInt(keys.length)];
+			map.remove(keyToBeDeleted);
+			omap.remove(keyToBeDeleted);
+		}
+		System.out.println("After deletes, max displacement:" + map.maxDisplacement()
+				+ ", mean displacement:" + map.meanDisplacement());
+		
+		if(Utilities.compare(map,omap))
+			System.out.println("Testcase 01 successfully completed.");
+		else
+			System.out.println("Testcase 01 failed.");
+	}
+}
@@ -0,0 +1,30 @@
+package SplitOrderedHashMapTestCases;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import Hashing.SplitOrderedHashMap;
+import LinearHashMapTestCases.Utilities;
+
+public class sohmtest00 {
+	public static void main(String[] args) {
+		
+		System.out.println("Starting test case 00 for inserting 25121 unique keys through bucket doublings");
+		SplitOrderedHashMap<Integer,Integer> map = new SplitOrderedHashMap<>();
+		Map<Integer,Integer> omap = new HashMap<Integer,Integer>();
+		String fileName = "/src/LinearHashMapTestCases/testInput09.txt";
+		
+		long startTime = System.nanoTime();
+		map = Utilities.populateMap(fileName, map);
+	    long stopTime = System.nanoTime();
+	    long elapsedTime = stopTime - startTime;
+	    System.out.println("Execution Time for insertion:" + elapsedTime + " nano secs");
+	    System.out.println("Buckets after insertion:" + map.buckets());
+		omap = Utilities.populateOriginalHashMap(fileName);
+	    
+	    if(Utilities.compare(map,omap))
+			System.out.println("Testcase 00 successfully completed.");
+		else
+			System.out.println("Testcase 00 failed.");
+	}
+}
@@ -0,0 +1,50 @@
+package SplitOrderedHashMapTestCases;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import Hashing.SplitOrderedHashMap;
+import LinearHashMapTestCases.Utilities;
+
+public class sohmtest01 {
+	public static void main(String[] args) throws Exception {
+		
+		System.out.println("Starting test case 01 for writer threads inserting and removing while the table grows");
+		final SplitOrderedHashMap<Integer,Integer> map = new SplitOrderedHashMap<>();
+		final int threads = 4;
+		final int keysPerThread = 50000;
+		
+		Thread[] workers = new Thread[threads];
+		for(int t = 0; t < threads; t++) {
+			final int base = t * keysPerThread;
+			workers[t] = new Thread(() -> {
+				for(int i = 0; i < keysPerThread; i++) {
+					map.put(base + i, base + i);
+					map.put(base + i, i);
+					if(map.get(base + i) != i)
+						throw new IllegalStateException("stale value for " + (base + i));
+					map.containsKey((base + keysPerThread + i) % (threads * keysPerThread));
+					if(i % 2 == 1)
+						map.remove(base + i - 1);
+				}
+				for(int i = 0; i < keysPerThread; i += 2)
+					map.put(base + i, i);
+			});
+		}
+		long startTime = System.nanoTime();
+		for(Thread w: workers) w.start();
+		for(Thread w: workers) w.join();
+		long stopTime = System.nanoTime();
+		System.out.println("Execution Time for " + threads + " threads:" + (stopTime - startTime) + " nano secs");
+		
+		Map<Integer,Integer> omap = new HashMap<Integer,Integer>();
+		for(int t = 0; t < threads; t++)
+			for(int i = 0; i < keysPerThread; i++)
+				omap.put(t * keysPerThread + i, i);
+		
+		if(Utilities.compare(map,omap) && map.keySet().size() == omap.size())
+			System.out.println("Testcase 01 successfully completed.");
+		else
+			System.out.println("Testcase 01 failed.");
+	}
+}